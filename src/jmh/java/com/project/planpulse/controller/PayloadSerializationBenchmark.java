@@ -0,0 +1,77 @@
+package com.project.planpulse.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.project.planpulse.model.Board;
+import com.project.planpulse.model.Task;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// JSON, CBOR and Smile encoding of the large response bodies (task lists, a board with many collaborators), with
+// ObjectMappers configured the way Spring Boot builds the ones used by the message converters
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PayloadSerializationBenchmark {
+
+    private static final String[] STATUSES = {"TO_DO", "IN_PROGRESS", "IN_REVIEW", "DONE"};
+    private static final String[] PRIORITIES = {"LOW", "MEDIUM", "HIGH"};
+
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    private ObjectMapper objectMapper;
+    private List<Task> tasks;
+    private Board board;
+
+    @Setup
+    public void setUp() {
+        objectMapper = switch (format) {
+            case "cbor" -> Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+            case "smile" -> Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+            default -> Jackson2ObjectMapperBuilder.json().build();
+        };
+        tasks = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Task task = new Task();
+            task.setId(String.format("6710c2f1a9e4b35f%08x", i));
+            task.setTitle("Task " + i);
+            task.setBoardId("6710c2f1a9e4b35d00000001");
+            task.setDescription("Description of task " + i + " with enough text to look like a real one.");
+            task.setReporterId("6710c2f1a9e4b35d2c8f0a17");
+            task.setAssigneeId(String.format("6710c2f1a9e4b35e%08x", i % 50));
+            task.setPriority(PRIORITIES[i % PRIORITIES.length]);
+            task.setStatus(STATUSES[i % STATUSES.length]);
+            task.setTimeSpent(i % 480);
+            task.setDeadline(new Date(1_700_000_000_000L + i * 3_600_000L));
+            tasks.add(task);
+        }
+        board = new Board();
+        board.setId("6710c2f1a9e4b35d00000001");
+        board.setTitle("Large board");
+        board.setCreatorId("6710c2f1a9e4b35d2c8f0a17");
+        for (int i = 0; i < size; i++) {
+            board.getCollaboratorIds().add(String.format("6710c2f1a9e4b35e%08x", i));
+        }
+        board.getStats().setTaskCount(size);
+    }
+
+    @Benchmark
+    public byte[] taskList() throws Exception {
+        return objectMapper.writeValueAsBytes(tasks);
+    }
+
+    @Benchmark
+    public byte[] board() throws Exception {
+        return objectMapper.writeValueAsBytes(board);
+    }
+}
@@ -0,0 +1,74 @@
+package com.project.planpulse.service;
+
+import com.project.planpulse.model.Board;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// the created/collaborator merge in BoardService.getBoardsForUser: Board is @Data, so the HashSet hashes and
+// compares every field (collaborator list, stats map, dates); merging by id is the reference
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BoardMergeBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int boards;
+
+    @Param({"5", "50"})
+    public int collaboratorsPerBoard;
+
+    private List<Board> createdBoards;
+    private List<Board> collaboratorBoards;
+
+    @Setup
+    public void setUp() {
+        createdBoards = new ArrayList<>();
+        collaboratorBoards = new ArrayList<>();
+        for (int i = 0; i < boards; i++) {
+            // half of the boards show up in both queries; each query returns its own copy
+            if (i % 2 == 0 || i % 4 == 1) {
+                createdBoards.add(board(i));
+            }
+            if (i % 2 == 0 || i % 4 == 3) {
+                collaboratorBoards.add(board(i));
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Board> hashSetMerge() {
+        Set<Board> allBoards = new HashSet<>(createdBoards);
+        allBoards.addAll(collaboratorBoards);
+        return new ArrayList<>(allBoards);
+    }
+
+    @Benchmark
+    public List<Board> mergeById() {
+        Map<String, Board> allBoards = new LinkedHashMap<>();
+        for (Board board : createdBoards) {
+            allBoards.putIfAbsent(board.getId(), board);
+        }
+        for (Board board : collaboratorBoards) {
+            allBoards.putIfAbsent(board.getId(), board);
+        }
+        return new ArrayList<>(allBoards.values());
+    }
+
+    private Board board(int index) {
+        Board board = new Board();
+        board.setId(String.format("6710c2f1a9e4b35d%08x", index));
+        board.setTitle("Board " + index);
+        board.setCreatorId("6710c2f1a9e4b35d2c8f0a17");
+        for (int i = 0; i < collaboratorsPerBoard; i++) {
+            board.getCollaboratorIds().add(String.format("6710c2f1a9e4b35e%08x", i));
+        }
+        board.getStats().setTaskCount(40);
+        board.getStats().setTotalTimeSpent(1200);
+        board.getStats().getStatusCounts().putAll(Map.of("TO_DO", 10L, "IN_PROGRESS", 10L, "IN_REVIEW", 10L, "DONE", 10L));
+        board.setCreatedAt(new Date(1_700_000_000_000L + index));
+        board.setUpdatedAt(new Date(1_700_000_000_000L + index));
+        return board;
+    }
+}
@@ -0,0 +1,64 @@
+package com.project.planpulse.service;
+
+import com.project.planpulse.model.Task;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// TaskSearchIndex.search over a million tasks in 1000 boards of 1000, for a requester who sees one board or 100
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskSearchBenchmark {
+
+    private static final String[] WORDS = {"deploy", "staging", "production", "release", "notes", "login", "bug",
+            "timeout", "database", "migration", "invoice", "report", "customer", "onboarding", "review", "design",
+            "mobile", "android", "payment", "refund", "cache", "search", "email", "template", "dashboard", "metrics"};
+    private static final int BOARDS = 1000;
+    private static final int TASKS_PER_BOARD = 1000;
+
+    @Param({"1", "100"})
+    public int visibleBoards;
+
+    @Param({"deploy", "deploy sta", "pay ref"})
+    public String query;
+
+    private TaskSearchIndex index;
+    private Set<String> boardIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        index = new TaskSearchIndex();
+        Random random = new Random(42);
+        for (int board = 0; board < BOARDS; board++) {
+            for (int i = 0; i < TASKS_PER_BOARD; i++) {
+                Task task = new Task();
+                task.setId("b" + board + "t" + i);
+                task.setBoardId("b" + board);
+                task.setTitle(words(random, 4));
+                task.setDescription(words(random, 20));
+                index.index(task);
+            }
+        }
+        ReflectionTestUtils.setField(index, "ready", true);
+        boardIds = new HashSet<>();
+        for (int board = 0; board < visibleBoards; board++) {
+            boardIds.add("b" + board * (BOARDS / visibleBoards));
+        }
+    }
+
+    @Benchmark
+    public TaskSearchIndex.Hits search() {
+        return index.search(query, boardIds, 20);
+    }
+
+    private static String words(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+        }
+        return text.toString();
+    }
+}
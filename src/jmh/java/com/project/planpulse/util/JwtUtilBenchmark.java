@@ -0,0 +1,31 @@
+package com.project.planpulse.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+// HS256 signing and verification behind login and every authenticated request
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JwtUtilBenchmark {
+
+    private static final String USER_ID = "6710c2f1a9e4b35d2c8f0a17";
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        token = JwtUtil.generateToken(USER_ID);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return JwtUtil.generateToken(USER_ID);
+    }
+
+    @Benchmark
+    public String validateToken() {
+        return JwtUtil.validateToken(token);
+    }
+}
@@ -0,0 +1,96 @@
+package com.project.planpulse.validation;
+
+import com.project.planpulse.controller.AuthController;
+import com.project.planpulse.service.BoardService;
+import com.project.planpulse.service.UserService;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+// the identifier checks run on login, signup, profile updates and when adding collaborators;
+// the private methods are called through method handles so the benchmark follows the real code,
+// and the precompiled/shared variants are the reference to compare against
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IdentifierValidationBenchmark {
+
+    private static final MethodType PREDICATE = MethodType.methodType(boolean.class, String.class);
+    private static final MethodHandle AUTH_IS_EMAIL = privateMethod(AuthController.class, "isEmail");
+    private static final MethodHandle BOARD_IS_EMAIL = privateMethod(BoardService.class, "isEmail");
+    private static final MethodHandle USER_IS_VALID_EMAIL = privateMethod(UserService.class, "isValidEmail");
+    private static final MethodHandle USER_IS_VALID_USERNAME = privateMethod(UserService.class, "isValidUsername");
+    private static final MethodHandle USER_IS_VALID_PASSWORD = privateMethod(UserService.class, "isValidPassword");
+    private static final Pattern EMAIL = Pattern.compile("^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$");
+
+    @Param({"jane.doe+work@example.com", "jane_doe_42"})
+    public String identifier;
+
+    private final String password = "Sup3r-Secret_pw";
+    private final AuthController authController = new AuthController();
+    private final BoardService boardService = new BoardService();
+    private final UserService userService = new UserService();
+    private final EmailValidator emailValidator = new EmailValidator();
+    private final PasswordValidator passwordValidator = new PasswordValidator();
+    private final UsernameValidator usernameValidator = new UsernameValidator();
+
+    @Benchmark
+    public boolean authControllerIsEmail() throws Throwable {
+        return (boolean) AUTH_IS_EMAIL.invokeExact(authController, identifier);
+    }
+
+    @Benchmark
+    public boolean boardServiceIsEmail() throws Throwable {
+        return (boolean) BOARD_IS_EMAIL.invokeExact(boardService, identifier);
+    }
+
+    @Benchmark
+    public boolean precompiledIsEmail() {
+        return EMAIL.matcher(identifier).matches();
+    }
+
+    @Benchmark
+    public boolean userServiceIsValidEmail() throws Throwable {
+        return (boolean) USER_IS_VALID_EMAIL.invokeExact(userService, identifier);
+    }
+
+    @Benchmark
+    public boolean userServiceIsValidUsername() throws Throwable {
+        return (boolean) USER_IS_VALID_USERNAME.invokeExact(userService, identifier);
+    }
+
+    @Benchmark
+    public boolean userServiceIsValidPassword() throws Throwable {
+        return (boolean) USER_IS_VALID_PASSWORD.invokeExact(userService, password);
+    }
+
+    @Benchmark
+    public boolean sharedEmailValidator() {
+        return emailValidator.isValid(identifier, null);
+    }
+
+    @Benchmark
+    public boolean sharedUsernameValidator() {
+        return usernameValidator.isValid(identifier, null);
+    }
+
+    @Benchmark
+    public boolean sharedPasswordValidator() {
+        return passwordValidator.isValid(password, null);
+    }
+
+    // (Owner, String) -> boolean, so invokeExact can be used with a typed receiver
+    private static MethodHandle privateMethod(Class<?> owner, String name) {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(owner, MethodHandles.lookup());
+            return lookup.findVirtual(owner, name, PREDICATE)
+                    .asType(MethodType.methodType(boolean.class, owner, String.class));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.project.planpulse.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
@@ -14,6 +15,7 @@ public class CorsConfig {
         corsConfiguration.addAllowedOriginPattern("*"); // all origins
         corsConfiguration.addAllowedHeader("*"); // all headers
         corsConfiguration.addAllowedMethod("*"); // all HTTP methods
+        corsConfiguration.addExposedHeader(HttpHeaders.ETAG); // for clients that revalidate with If-None-Match themselves
         corsConfiguration.setAllowCredentials(true); // cookies/credentials
         return corsConfiguration;
     }
@@ -0,0 +1,148 @@
+package com.project.planpulse.config;
+
+import com.project.planpulse.filter.TrafficRecorder;
+import com.project.planpulse.service.*;
+import com.project.planpulse.util.JwtTokenCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// exposes the counters the components already keep for themselves; everything here is read at scrape time,
+// so the request path (JWT filter, permission checks, image serving) pays nothing beyond its LongAdder increments
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder jwtMetrics(JwtTokenCache cache) {
+        return registry -> {
+            FunctionCounter.builder("planpulse.jwt.validations", cache, c -> c.stats().hits())
+                    .description("Bearer tokens seen by the authentication filter").tag("outcome", "cache_hit").register(registry);
+            FunctionCounter.builder("planpulse.jwt.validations", cache, c -> c.stats().verified())
+                    .description("Bearer tokens seen by the authentication filter").tag("outcome", "verified").register(registry);
+            FunctionCounter.builder("planpulse.jwt.validations", cache, c -> c.stats().rejected())
+                    .description("Bearer tokens seen by the authentication filter").tag("outcome", "rejected").register(registry);
+            Gauge.builder("planpulse.jwt.cache.size", cache, c -> c.stats().size()).register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder passwordHashingMetrics(PasswordHashingService hashing) {
+        return registry -> {
+            Gauge.builder("planpulse.password.queue.depth", hashing, h -> h.stats().queueDepth())
+                    .description("Hashes waiting for a BCrypt worker").register(registry);
+            Gauge.builder("planpulse.password.active", hashing, h -> h.stats().activeHashes()).register(registry);
+            FunctionCounter.builder("planpulse.password.rejected", hashing, h -> h.stats().rejected())
+                    .description("Hashes turned away with 503 because the queue was full").register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder boardAccessIndexMetrics(BoardAccessIndex index) {
+        return registry -> {
+            FunctionCounter.builder("planpulse.board.access.lookups", index, i -> i.stats().hits()).tag("result", "hit").register(registry);
+            FunctionCounter.builder("planpulse.board.access.lookups", index, i -> i.stats().misses()).tag("result", "miss").register(registry);
+            FunctionCounter.builder("planpulse.board.access.evictions", index, i -> i.stats().evictions()).register(registry);
+            Gauge.builder("planpulse.board.access.size", index, i -> i.stats().size()).register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder profileImageMetrics(ProfileImageService images, ProfileImageVariants variants) {
+        return registry -> {
+            FunctionCounter.builder("planpulse.profile.image.lookups", images, i -> i.stats().hits()).tag("result", "hit").register(registry);
+            FunctionCounter.builder("planpulse.profile.image.lookups", images, i -> i.stats().misses()).tag("result", "miss").register(registry);
+            FunctionCounter.builder("planpulse.profile.image.responses", images, i -> i.stats().notModified()).tag("type", "not_modified").register(registry);
+            FunctionCounter.builder("planpulse.profile.image.responses", images, i -> i.stats().partial()).tag("type", "partial").register(registry);
+            FunctionCounter.builder("planpulse.profile.image.responses", images, i -> i.stats().sendfile()).tag("type", "sendfile").register(registry);
+            FunctionCounter.builder("planpulse.profile.image.responses", variants, v -> v.stats().variantResponses()).tag("type", "variant").register(registry);
+            FunctionCounter.builder("planpulse.profile.image.bytes.saved", variants, v -> v.stats().bytesSaved())
+                    .description("Bytes not sent because a resized variant was served instead of the original")
+                    .baseUnit("bytes").register(registry);
+            FunctionCounter.builder("planpulse.profile.image.variants", variants, v -> v.stats().generated()).tag("result", "generated").register(registry);
+            FunctionCounter.builder("planpulse.profile.image.variants", variants, v -> v.stats().failed()).tag("result", "failed").register(registry);
+            Gauge.builder("planpulse.image.resize.queued", variants, v -> v.stats().queued()).register(registry);
+            Gauge.builder("planpulse.image.resize.active", variants, v -> v.stats().active()).register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder emailOutboxMetrics(EmailOutboxDispatcher dispatcher) {
+        return registry -> {
+            FunctionCounter.builder("planpulse.email.outbox.sent", dispatcher, d -> d.stats().sent()).register(registry);
+            FunctionCounter.builder("planpulse.email.outbox.failed.attempts", dispatcher, d -> d.stats().failedAttempts()).register(registry);
+            FunctionCounter.builder("planpulse.email.outbox.abandoned", dispatcher, d -> d.stats().abandoned()).register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder boardFeedMetrics(BoardChangeFeed feed) {
+        return registry -> {
+            Gauge.builder("planpulse.board.feed.subscribers", feed, f -> f.stats().subscribers())
+                    .description("Open server-sent-event connections").register(registry);
+            Gauge.builder("planpulse.board.feed.boards", feed, f -> f.stats().boards())
+                    .description("Boards keeping a change history for their subscribers").register(registry);
+            Gauge.builder("planpulse.board.feed.history", feed, f -> f.stats().historyBytes()).baseUnit("bytes")
+                    .description("Change history kept for reconnecting subscribers, all boards together").register(registry);
+            FunctionCounter.builder("planpulse.board.feed.events", feed, f -> f.stats().published()).register(registry);
+            FunctionCounter.builder("planpulse.board.feed.disconnects", feed, f -> f.stats().dropped())
+                    .description("Subscribers dropped because their buffer filled up").tag("reason", "slow_consumer").register(registry);
+            FunctionCounter.builder("planpulse.board.feed.subscriptions", feed, f -> f.stats().resumed()).tag("type", "resumed").register(registry);
+            FunctionCounter.builder("planpulse.board.feed.subscriptions", feed, f -> f.stats().reset()).tag("type", "reset").register(registry);
+            FunctionCounter.builder("planpulse.board.feed.subscriptions", feed, f -> f.stats().rejected()).tag("type", "rejected").register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder conditionalReadMetrics(ConditionalReads reads) {
+        // the 304 ratio per resource is not_modified / (not_modified + full)
+        return registry -> {
+            for (ConditionalReads.Resource resource : ConditionalReads.Resource.values()) {
+                String name = resource.name().toLowerCase();
+                FunctionCounter.builder("planpulse.conditional.requests", reads, r -> r.stats(resource).notModified())
+                        .tag("resource", name).tag("result", "not_modified").register(registry);
+                FunctionCounter.builder("planpulse.conditional.requests", reads, r -> r.stats(resource).full())
+                        .tag("resource", name).tag("result", "full").register(registry);
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder payloadCacheMetrics(BoardPayloadCache cache) {
+        return registry -> {
+            FunctionCounter.builder("planpulse.payload.cache.lookups", cache, c -> c.stats().hits()).tag("result", "hit").register(registry);
+            FunctionCounter.builder("planpulse.payload.cache.lookups", cache, c -> c.stats().misses()).tag("result", "miss").register(registry);
+            FunctionCounter.builder("planpulse.payload.cache.removals", cache, c -> c.stats().invalidations()).tag("reason", "write").register(registry);
+            FunctionCounter.builder("planpulse.payload.cache.removals", cache, c -> c.stats().evictions()).tag("reason", "size").register(registry);
+            Gauge.builder("planpulse.payload.cache.entries", cache, c -> c.stats().entries()).register(registry);
+            Gauge.builder("planpulse.payload.cache.bytes", cache, c -> c.stats().bytes()).baseUnit("bytes").register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder taskSearchMetrics(TaskSearchIndex index) {
+        return registry -> {
+            Gauge.builder("planpulse.task.search.documents", index, i -> i.stats().documents())
+                    .description("Tasks in the in-process search index").register(registry);
+            Gauge.builder("planpulse.task.search.terms", index, i -> i.stats().terms())
+                    .description("Distinct terms summed over the per-board dictionaries").register(registry);
+            Gauge.builder("planpulse.task.search.boards", index, i -> i.stats().boards()).register(registry);
+            Gauge.builder("planpulse.task.search.ready", index, i -> i.stats().ready() ? 1 : 0)
+                    .description("1 once the startup rebuild has finished").register(registry);
+            FunctionCounter.builder("planpulse.task.search.queries", index, i -> i.stats().searches()).register(registry);
+            FunctionCounter.builder("planpulse.task.search.updates", index, i -> i.stats().updates()).register(registry);
+        };
+    }
+
+    @Bean
+    public MeterBinder trafficRecorderMetrics(ObjectProvider<TrafficRecorder> recorder) {
+        // the recorder only exists while app.traffic-recorder.enabled is set
+        return registry -> recorder.ifAvailable(r -> {
+            FunctionCounter.builder("planpulse.traffic.traces", r, f -> f.stats().recorded()).tag("result", "recorded").register(registry);
+            FunctionCounter.builder("planpulse.traffic.traces", r, f -> f.stats().dropped()).tag("result", "dropped").register(registry);
+            Gauge.builder("planpulse.traffic.queued", r, f -> f.stats().queued()).register(registry);
+        });
+    }
+}
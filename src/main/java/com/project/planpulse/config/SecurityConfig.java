@@ -3,6 +3,9 @@ package com.project.planpulse.config;
 import com.project.planpulse.filter.JwtAuthenticationFilter;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -26,6 +29,9 @@ public class SecurityConfig {
                 .cors(Customizer.withDefaults()) // enable CORS with default settings
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/auth/**").permitAll() // unauthenticated access to /auth/** endpoints
+                        .requestMatchers("/livez", "/readyz").permitAll() // probes on the public port
+                        // probes and metrics scraping, only reachable on management.server.port
+                        .requestMatchers(EndpointRequest.to(HealthEndpoint.class, PrometheusScrapeEndpoint.class)).permitAll()
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll() // allow all pre-flight requests
                         .anyRequest().authenticated() // needs authentication for all other endpoints
                 )
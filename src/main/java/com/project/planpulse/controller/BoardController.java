@@ -1,13 +1,27 @@
 package com.project.planpulse.controller;
 
+import com.project.planpulse.dto.BoardChanges;
+import com.project.planpulse.dto.TaskImportResult;
 import com.project.planpulse.model.Board;
 import com.project.planpulse.model.Task;
+import com.project.planpulse.service.BoardChangeFeed;
+import com.project.planpulse.service.BoardPayloadCache;
 import com.project.planpulse.service.BoardService;
+import com.project.planpulse.service.ConditionalReads;
+import com.project.planpulse.service.ConditionalReads.Resource;
+import com.project.planpulse.service.PayloadFormat;
+import com.project.planpulse.service.TaskImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -17,6 +31,18 @@ public class BoardController {
     @Autowired
     private BoardService boardService;
 
+    @Autowired
+    private TaskImportService taskImportService;
+
+    @Autowired
+    private BoardChangeFeed boardChangeFeed;
+
+    @Autowired
+    private ConditionalReads conditionalReads;
+
+    @Autowired
+    private BoardPayloadCache boardPayloadCache;
+
     @GetMapping("/collaborators/{boardId}")
     public ResponseEntity<List<String>> getCollaborators(@PathVariable String boardId, Authentication authentication) {
         String requesterId = authentication.getName();
@@ -24,10 +50,16 @@ public class BoardController {
         return ResponseEntity.ok(collaboratorUsernames);
     }
 
+    // JSON, CBOR or Smile by Accept; null after a 304, the client's copy is current
     @GetMapping("/all")
-    public List<Board> getBoardsForUser(Authentication authentication) {
+    public ResponseEntity<byte[]> getBoardsForUser(Authentication authentication, ServletWebRequest webRequest) {
         String userId = authentication.getName();
-        return boardService.getBoardsForUser(userId);
+        PayloadFormat format = PayloadFormat.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT));
+        if (conditionalReads.notModified(webRequest, format.etag(boardService.getBoardsDigest(userId)), Resource.BOARD_LIST)) {
+            return null;
+        }
+        List<Board> boards = boardService.getBoardsForUser(userId);
+        return ResponseEntity.ok().contentType(format.mediaType()).body(boardPayloadCache.encode(format, boards));
     }
 
     @PostMapping("/create-board")
@@ -36,10 +68,42 @@ public class BoardController {
         return boardService.createBoard(board, requesterId);
     }
 
+    // served from the payload cache while the board version stays the same
     @GetMapping("/{id}")
-    public Board getBoardById(@PathVariable String id, Authentication authentication) {
+    public ResponseEntity<byte[]> getBoardById(@PathVariable String id, Authentication authentication, ServletWebRequest webRequest) {
         String requesterId = authentication.getName();
-        return boardService.getBoardById(id, requesterId);
+        PayloadFormat format = PayloadFormat.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT));
+        long version = boardService.getBoardVersion(id, requesterId);
+        if (conditionalReads.notModified(webRequest, format.etag(Long.toString(version)), Resource.BOARD)) {
+            return null;
+        }
+        byte[] body = boardPayloadCache.get(id, BoardPayloadCache.Kind.BOARD, version, format,
+                () -> boardService.getBoardById(id, requesterId));
+        return ResponseEntity.ok().contentType(format.mediaType()).body(body);
+    }
+
+    // delta sync for reconnecting clients: only what changed after the version they last saw
+    @GetMapping("/{boardId}/changes")
+    public BoardChanges getChangesSince(@PathVariable String boardId,
+                                        @RequestParam(name = "since", defaultValue = "0") long since,
+                                        Authentication authentication) {
+        String requesterId = authentication.getName();
+        return boardService.getChangesSince(boardId, since, requesterId);
+    }
+
+    // server-sent events for the board's task and board changes; the request's (virtual) thread stays parked on the
+    // subscription until the client disconnects or falls behind, and a reconnect resumes from Last-Event-ID
+    @GetMapping(value = "/{boardId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public void streamBoardEvents(@PathVariable String boardId,
+                                  @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+                                  HttpServletResponse response, Authentication authentication) throws IOException {
+        String requesterId = authentication.getName();
+        BoardChangeFeed.Subscription subscription = boardService.subscribeToChanges(boardId, lastEventId, requesterId);
+        response.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        response.setHeader("X-Accel-Buffering", "no"); // keep reverse proxies from buffering the stream
+        boardChangeFeed.stream(subscription, response.getOutputStream());
     }
 
     @PostMapping("/add-user/{boardId}/{identifier}")
@@ -53,4 +117,15 @@ public class BoardController {
         String requesterId = authentication.getName();
         return boardService.addTaskToBoard(boardId, task, requesterId);
     }
+
+    // bulk import from NDJSON (one task per line) or CSV (header row first); the body is read as a stream
+    @PostMapping(value = "/import-tasks/{boardId}", consumes = {MediaType.APPLICATION_NDJSON_VALUE, "text/csv"})
+    public TaskImportResult importTasks(@PathVariable String boardId, HttpServletRequest request, Authentication authentication) throws IOException {
+        String requesterId = authentication.getName();
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        TaskImportService.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(contentType)
+                ? TaskImportService.Format.NDJSON
+                : TaskImportService.Format.CSV;
+        return taskImportService.importTasks(boardId, request.getInputStream(), format, requesterId);
+    }
 }
@@ -1,12 +1,31 @@
 package com.project.planpulse.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.project.planpulse.dto.BulkStatusUpdateRequest;
+import com.project.planpulse.dto.BulkStatusUpdateResult;
+import com.project.planpulse.dto.TaskPage;
+import com.project.planpulse.dto.TaskSearchResult;
 import com.project.planpulse.model.Task;
+import com.project.planpulse.model.TaskTombstone;
+import com.project.planpulse.service.BoardPayloadCache;
+import com.project.planpulse.service.ConditionalReads;
+import com.project.planpulse.service.ConditionalReads.Resource;
+import com.project.planpulse.service.PayloadFormat;
 import com.project.planpulse.service.TaskService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/tasks")
@@ -15,6 +34,14 @@ public class TaskController {
     @Autowired
     private TaskService taskService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ConditionalReads conditionalReads;
+
+    @Autowired
+    private BoardPayloadCache boardPayloadCache;
 
     @GetMapping("/{id}")
     public Task getTaskById(@PathVariable String id, Authentication authentication) {
@@ -22,10 +49,66 @@ public class TaskController {
         return taskService.getTaskById(id, requesterId);
     }
 
+    // JSON, CBOR or Smile by Accept, served from the payload cache while the board version stays the same;
+    // null after a 304, the client's copy is current
     @GetMapping("/board/{boardId}")
-    public List<Task> getTasksByBoard(@PathVariable String boardId, Authentication authentication) {
+    public ResponseEntity<byte[]> getTasksByBoard(@PathVariable String boardId, Authentication authentication, ServletWebRequest webRequest) {
+        String requesterId = authentication.getName();
+        PayloadFormat format = PayloadFormat.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT));
+        long version = taskService.getTasksVersion(boardId, requesterId);
+        if (conditionalReads.notModified(webRequest, format.etag(Long.toString(version)), Resource.TASK_LIST)) {
+            return null;
+        }
+        byte[] body = boardPayloadCache.get(boardId, BoardPayloadCache.Kind.TASKS, version, format,
+                () -> taskService.getTasksByBoard(boardId, requesterId));
+        return ResponseEntity.ok().contentType(format.mediaType()).body(body);
+    }
+
+    // ranked full-text search over task titles and descriptions; every word must match, the words may be prefixes
+    // ("deploy sta" finds "Deploy staging"). boardId narrows the search to one board
+    @GetMapping("/search")
+    public TaskSearchResult searchTasks(@RequestParam(name = "q") String query,
+                                        @RequestParam(name = "boardId", required = false) String boardId,
+                                        @RequestParam(name = "limit", defaultValue = "20") int limit,
+                                        Authentication authentication) {
+        String requesterId = authentication.getName();
+        return taskService.searchTasks(query, boardId, limit, requesterId);
+    }
+
+    @GetMapping("/board/{boardId}/page")
+    public TaskPage getTaskPage(@PathVariable String boardId,
+                                @RequestParam(name = "cursor", required = false) String cursor,
+                                @RequestParam(name = "limit", defaultValue = "100") int limit,
+                                Authentication authentication) {
         String requesterId = authentication.getName();
-        return taskService.getTasksByBoard(boardId, requesterId);
+        return taskService.getTaskPage(boardId, cursor, limit, requesterId);
+    }
+
+    // newline-delimited JSON written straight from the database cursor, so memory stays flat for any board size
+    @GetMapping(value = "/board/{boardId}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamTasksByBoard(@PathVariable String boardId, Authentication authentication) {
+        String requesterId = authentication.getName();
+        Stream<Task> tasks = taskService.streamTasksByBoard(boardId, requesterId);
+        StreamingResponseBody body = outputStream -> {
+            try (tasks; SequenceWriter writer = objectMapper.writer()
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .withRootValueSeparator("\n")
+                    .writeValues(outputStream)) {
+                Iterator<Task> iterator = tasks.iterator();
+                boolean written = false;
+                while (iterator.hasNext()) {
+                    writer.write(iterator.next());
+                    written = true;
+                }
+                writer.flush();
+                if (written) {
+                    outputStream.write('\n');
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @PutMapping("/{taskId}/status")
@@ -34,6 +117,19 @@ public class TaskController {
         return taskService.updateTaskStatus(taskId, status, requesterId);
     }
 
+    @PutMapping("/status")
+    public BulkStatusUpdateResult updateTaskStatuses(@RequestBody BulkStatusUpdateRequest request, Authentication authentication) {
+        String requesterId = authentication.getName();
+        return taskService.updateTaskStatuses(request.taskIds(), request.status(), requesterId);
+    }
+
+    // the returned tombstone carries the board version of the deletion
+    @DeleteMapping("/{taskId}")
+    public TaskTombstone deleteTask(@PathVariable String taskId, Authentication authentication) {
+        String requesterId = authentication.getName();
+        return taskService.deleteTask(taskId, requesterId);
+    }
+
     @PostMapping("/{taskId}/time")
     public Task trackTime(@PathVariable String taskId, @RequestBody long minutes, Authentication authentication) {
         String requesterId = authentication.getName();
@@ -1,10 +1,12 @@
 package com.project.planpulse.controller;
 
 import com.project.planpulse.model.User;
+import com.project.planpulse.model.UserDeletionJob;
+import com.project.planpulse.service.ProfileImageService;
 import com.project.planpulse.service.UserService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -22,10 +24,19 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ProfileImageService profileImageService;
+
+    // size picks the smallest pre-generated variant covering it (e.g. 32, 64, 256 px);
+    // v is the image's last ETag, and a matching v lets the browser cache the response for good
     @GetMapping("/profile-image")
-    public ResponseEntity<Resource> serveProfileImage(Authentication authentication) {
+    public void serveProfileImage(Authentication authentication,
+                                  @RequestParam(name = "size", required = false) Integer size,
+                                  @RequestParam(name = "v", required = false) String version,
+                                  HttpServletRequest request,
+                                  HttpServletResponse response) throws IOException {
         String userId = authentication.getName();
-        return userService.loadProfileImage(userId);
+        profileImageService.serve(userId, size, version, request, response);
     }
 
     // Get user profile
@@ -64,18 +75,25 @@ public class UserController {
         return Map.of("message", "Password changed successfully.");
     }
 
-    // Delete own account
+    // Delete own account; boards and tasks are cleaned up in the background
     @DeleteMapping("/profile")
     public ResponseEntity<Map<String, String>> deleteUser(Authentication authentication, HttpServletResponse response) {
         String userId = authentication.getName();
-        userService.deleteUser(userId);
+        UserDeletionJob job = userService.deleteUser(userId);
         // Clear Authorization header logic
         HttpHeaders headers = new HttpHeaders();
         headers.set(HttpHeaders.AUTHORIZATION, null); // Signal to the client to clear authorization
 
-        Map<String, String> responseBody = Map.of("message", "User account deleted successfully");
-        return ResponseEntity.ok()
+        Map<String, String> responseBody = Map.of("message", "User account deleted successfully", "jobId", job.getId());
+        return ResponseEntity.accepted()
                 .headers(headers)
                 .body(responseBody);
     }
+
+    // Progress of the background cleanup started by deleting the account
+    @GetMapping("/deletion-jobs/{jobId}")
+    public UserDeletionJob getDeletionJob(@PathVariable String jobId, Authentication authentication) {
+        String requesterId = authentication.getName();
+        return userService.getDeletionJob(jobId, requesterId);
+    }
 }
@@ -0,0 +1,13 @@
+package com.project.planpulse.dto;
+
+import com.project.planpulse.model.Board;
+import com.project.planpulse.model.Task;
+import com.project.planpulse.model.TaskTombstone;
+
+import java.util.List;
+
+// what changed on a board after the client's version; pass version back as the next since.
+// full means tasks is the whole board (first sync, or an unknown since) and local state should be replaced.
+// board is null when neither the board nor its tasks changed
+public record BoardChanges(long version, boolean full, Board board, List<Task> tasks, List<TaskTombstone> deleted) {
+}
@@ -0,0 +1,6 @@
+package com.project.planpulse.dto;
+
+import java.util.List;
+
+public record BulkStatusUpdateRequest(List<String> taskIds, String status) {
+}
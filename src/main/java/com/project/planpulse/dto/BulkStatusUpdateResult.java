@@ -0,0 +1,12 @@
+package com.project.planpulse.dto;
+
+import java.util.List;
+
+// per-task outcome of a bulk status transition, in request order
+public record BulkStatusUpdateResult(String status, long updated, List<TaskOutcome> outcomes) {
+
+    public enum Outcome {UPDATED, UNCHANGED, NOT_FOUND, FORBIDDEN, CONFLICT}
+
+    public record TaskOutcome(String taskId, Outcome outcome) {
+    }
+}
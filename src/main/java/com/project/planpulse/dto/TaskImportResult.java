@@ -0,0 +1,10 @@
+package com.project.planpulse.dto;
+
+import java.util.List;
+
+// outcome of a bulk import; errors are capped, errorsTruncated tells whether more rows failed than are listed
+public record TaskImportResult(long imported, long failed, List<RowError> errors, boolean errorsTruncated) {
+
+    public record RowError(long row, String message) {
+    }
+}
@@ -0,0 +1,9 @@
+package com.project.planpulse.dto;
+
+import com.project.planpulse.model.Task;
+
+import java.util.List;
+
+// a page of tasks; nextCursor is null on the last page
+public record TaskPage(List<Task> tasks, String nextCursor) {
+}
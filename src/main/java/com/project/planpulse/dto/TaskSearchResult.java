@@ -0,0 +1,9 @@
+package com.project.planpulse.dto;
+
+import com.project.planpulse.model.Task;
+
+import java.util.List;
+
+// the best-ranked tasks first; matched counts every task matching the query, not only the ones returned
+public record TaskSearchResult(int matched, List<Task> tasks) {
+}
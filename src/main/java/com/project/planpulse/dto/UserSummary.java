@@ -0,0 +1,5 @@
+package com.project.planpulse.dto;
+
+// lightweight view of a user for embedding in other responses; also used as a query projection
+public record UserSummary(String id, String username, String firstname, String lastname, String profileImageUrl) {
+}
@@ -0,0 +1,15 @@
+package com.project.planpulse.exception;
+
+// thrown when a bounded resource is saturated; answered with 503 and a Retry-After hint
+public class ServiceBusyException extends RuntimeException {
+    private final int retryAfterSeconds;
+
+    public ServiceBusyException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
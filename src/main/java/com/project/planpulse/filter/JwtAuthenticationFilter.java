@@ -1,10 +1,11 @@
 package com.project.planpulse.filter;
 
-import com.project.planpulse.util.JwtUtil;
+import com.project.planpulse.util.JwtTokenCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -15,14 +16,18 @@ import java.io.IOException;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    @Autowired
+    private JwtTokenCache jwtTokenCache;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         // extract token from authorization header
         String token = extractTokenFromHeader(request);
         if (token != null) {
-            // validate token and get userId
-            String userId = JwtUtil.validateToken(token);
+            // validate token (or reuse a cached verification) and get userId
+            String userId = jwtTokenCache.resolveSubject(token);
             if (userId != null) {
                 // set authentication in the SecurityContext
                 Authentication auth = new UsernamePasswordAuthenticationToken(userId, null, null);
@@ -0,0 +1,123 @@
+package com.project.planpulse.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// append-only trace file behind TrafficRecordingFilter: requests only enqueue their trace, one writer thread
+// appends them, and a full queue drops traces rather than slowing requests down
+@Component
+@ConditionalOnProperty(name = "app.traffic-recorder.enabled", havingValue = "true")
+public class TrafficRecorder {
+
+    private static final Logger log = LoggerFactory.getLogger(TrafficRecorder.class);
+
+    public record Stats(long recorded, long dropped, int queued) {
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.traffic-recorder.file:traffic/trace.ndjson}")
+    private Path file;
+
+    @Value("${app.traffic-recorder.sample-rate:1.0}")
+    private double sampleRate;
+
+    @Value("${app.traffic-recorder.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${app.traffic-recorder.max-aliases:100000}")
+    private int maxAliases;
+
+    private BlockingQueue<TrafficTrace> queue;
+    private TrafficSanitizer sanitizer;
+    private Thread writer;
+    private volatile boolean running = true;
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    @PostConstruct
+    public void start() throws IOException {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        sanitizer = new TrafficSanitizer(maxAliases);
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND), 64 * 1024);
+        writer = new Thread(() -> writeLoop(out), "traffic-recorder");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("Recording request traces to {}", file.toAbsolutePath());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // no interrupt: it would close the file channel in the middle of a write
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    public boolean sample() {
+        return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    public void record(TrafficTrace trace) {
+        if (!queue.offer(trace)) {
+            dropped.increment();
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(recorded.sum(), dropped.sum(), queue.size());
+    }
+
+    TrafficSanitizer sanitizer() {
+        return sanitizer;
+    }
+
+    private void writeLoop(OutputStream out) {
+        List<TrafficTrace> batch = new ArrayList<>();
+        try (out) {
+            while (running || !queue.isEmpty()) {
+                TrafficTrace first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch);
+                for (TrafficTrace trace : batch) {
+                    out.write(objectMapper.writeValueAsBytes(trace));
+                    out.write('\n');
+                }
+                recorded.add(batch.size());
+                batch.clear();
+                out.flush();
+            }
+        } catch (IOException | InterruptedException e) {
+            log.error("Traffic recorder stopped, could not write to {}", file, e);
+        }
+    }
+}
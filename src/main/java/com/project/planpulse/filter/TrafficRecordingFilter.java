@@ -0,0 +1,146 @@
+package com.project.planpulse.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.planpulse.util.JwtTokenCache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// opt-in (app.traffic-recorder.enabled) recorder of sanitized request traces for the replay tool (src/replay);
+// it sits in front of the security filters so the recorded time covers the whole request.
+// Streaming responses are timed until the handler returns
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@ConditionalOnProperty(name = "app.traffic-recorder.enabled", havingValue = "true")
+public class TrafficRecordingFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(TrafficRecordingFilter.class);
+
+    @Autowired
+    private TrafficRecorder recorder;
+
+    @Autowired
+    private JwtTokenCache jwtTokenCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.traffic-recorder.max-body-bytes:65536}")
+    private int maxBodyBytes;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        // event streams stay open until the client leaves, there is no response time to replay
+        return request.getRequestURI().startsWith("/actuator") || isEventStream(request.getHeader("Accept")) || !recorder.sample();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long at = System.currentTimeMillis();
+        long start = System.nanoTime();
+        boolean json = isJson(request.getContentType());
+        HttpServletRequest wrapped = json ? new ContentCachingRequestWrapper(request, maxBodyBytes) : request;
+        try {
+            filterChain.doFilter(wrapped, response);
+        } finally {
+            long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start);
+            try {
+                TrafficTrace trace = trace(wrapped, json, response.getStatus(), at, micros);
+                if (trace != null) {
+                    recorder.record(trace);
+                }
+            } catch (RuntimeException e) {
+                // recording must never fail the request
+                log.debug("Could not record request trace", e);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private TrafficTrace trace(HttpServletRequest request, boolean json, int status, long at, long micros) {
+        TrafficSanitizer sanitizer = recorder.sanitizer();
+        String route = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (route == null) {
+            // not dispatched to a handler (unknown path, rejected by security): nothing worth replaying
+            return null;
+        }
+        Map<String, String> path = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        Map<String, String> query = new LinkedHashMap<>();
+        request.getParameterMap().forEach((name, values) -> {
+            if (values.length > 0) {
+                query.put(name, values[0]);
+            }
+        });
+        if (request.getContentType() != null && request.getContentType().startsWith(MediaType.MULTIPART_FORM_DATA_VALUE)) {
+            // multipart fields are form values, not query parameters
+            query.clear();
+        }
+
+        String user = null;
+        String authorization = request.getHeader("Authorization");
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            String userId = jwtTokenCache.resolveSubject(authorization.substring(7));
+            if (userId != null) {
+                user = sanitizer.alias("user", userId);
+            }
+        }
+
+        JsonNode body = null;
+        String contentType = null;
+        Long bodyBytes = null;
+        if (json && request instanceof ContentCachingRequestWrapper cached && cached.getContentAsByteArray().length > 0) {
+            body = shapeBody(sanitizer, cached.getContentAsByteArray(), route);
+        }
+        if (body == null && request.getContentLengthLong() > 0) {
+            // without parameters such as the multipart boundary
+            contentType = request.getContentType() == null ? null : request.getContentType().split(";", 2)[0].trim();
+            bodyBytes = request.getContentLengthLong();
+        }
+        return new TrafficTrace(at, request.getMethod(), route, sanitizer.values(path, route),
+                sanitizer.values(query, route), user, body, contentType, bodyBytes, status, micros);
+    }
+
+    private JsonNode shapeBody(TrafficSanitizer sanitizer, byte[] content, String route) {
+        try {
+            return sanitizer.shape(null, objectMapper.readTree(content), route);
+        } catch (IOException e) {
+            // cut off at max-body-bytes, or not valid JSON: recorded by size only
+            return null;
+        }
+    }
+
+    private static boolean isEventStream(String accept) {
+        return accept != null && accept.contains(MediaType.TEXT_EVENT_STREAM_VALUE);
+    }
+
+    private static boolean isJson(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        try {
+            return MediaType.APPLICATION_JSON.isCompatibleWith(MediaType.parseMediaType(contentType));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.project.planpulse.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+// turns request values into the markers described on TrafficTrace. A value gets the next free ordinal of its kind
+// the first time it is seen, so a hot board stays one alias across the whole trace and the replay keeps the skew
+final class TrafficSanitizer {
+
+    private static final Pattern OBJECT_ID = Pattern.compile("^[0-9a-fA-F]{24}$");
+    private static final Pattern CONSTANT = Pattern.compile("^[A-Z][A-Z_]{0,29}$");
+    private static final Pattern INTEGER = Pattern.compile("^-?\\d{1,18}$");
+    private static final Pattern DATE = Pattern.compile("^\\d{4}-\\d{2}-\\d{2}([T ].*)?$");
+
+    private final int maxAliases;
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Integer>> aliases = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicInteger> nextOrdinal = new ConcurrentHashMap<>();
+
+    TrafficSanitizer(int maxAliases) {
+        this.maxAliases = maxAliases;
+    }
+
+    String alias(String kind, String value) {
+        ConcurrentHashMap<String, Integer> ordinals = aliases.computeIfAbsent(kind, k -> new ConcurrentHashMap<>());
+        Integer ordinal = ordinals.get(value);
+        if (ordinal == null) {
+            if (ordinals.size() >= maxAliases) {
+                // past the cap, values share the existing aliases instead of growing the map
+                ordinal = Math.floorMod(value.hashCode(), maxAliases);
+            } else {
+                AtomicInteger next = nextOrdinal.computeIfAbsent(kind, k -> new AtomicInteger());
+                ordinal = ordinals.computeIfAbsent(value, v -> next.getAndIncrement());
+            }
+        }
+        return new TrafficTrace.Alias(kind, ordinal).toString();
+    }
+
+    String value(String name, String route, String value) {
+        String lower = name == null ? "" : name.toLowerCase();
+        if (lower.contains("password") || lower.contains("token")) {
+            return TrafficTrace.SECRET;
+        }
+        String kind = kind(lower, route);
+        if (kind != null) {
+            return alias(kind, value);
+        }
+        if (OBJECT_ID.matcher(value).matches()) {
+            return alias("id", value);
+        }
+        if (CONSTANT.matcher(value).matches() || INTEGER.matcher(value).matches()) {
+            return value;
+        }
+        if (DATE.matcher(value).matches()) {
+            return TrafficTrace.DATE;
+        }
+        return TrafficTrace.LENGTH_PREFIX + value.length();
+    }
+
+    Map<String, String> values(Map<String, String> values, String route) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        Map<String, String> sanitized = new LinkedHashMap<>();
+        values.forEach((name, value) -> sanitized.put(name, value(name, route, value)));
+        return sanitized;
+    }
+
+    JsonNode shape(String name, JsonNode node, String route) {
+        if (node.isObject()) {
+            ObjectNode shaped = JsonNodeFactory.instance.objectNode();
+            node.fields().forEachRemaining(field -> shaped.set(field.getKey(), shape(field.getKey(), field.getValue(), route)));
+            return shaped;
+        }
+        if (node.isArray()) {
+            // elements are named after the array field, so taskIds entries become task aliases
+            ArrayNode shaped = JsonNodeFactory.instance.arrayNode();
+            node.forEach(element -> shaped.add(shape(name, element, route)));
+            return shaped;
+        }
+        if (node.isTextual()) {
+            return TextNode.valueOf(value(name, route, node.textValue()));
+        }
+        return node;
+    }
+
+    // which entity a parameter or field refers to, null when it is not a reference
+    static String kind(String lowerName, String route) {
+        if (lowerName.contains("board")) {
+            return "board";
+        }
+        if (lowerName.contains("task")) {
+            return "task";
+        }
+        if (lowerName.contains("user") || lowerName.contains("assignee") || lowerName.contains("reporter")
+                || lowerName.contains("creator") || lowerName.contains("collaborator")
+                || lowerName.equals("identifier") || lowerName.equals("email")) {
+            return "user";
+        }
+        if (lowerName.equals("id") && route != null) {
+            // /boards/{id}, /tasks/{id}
+            if (route.startsWith("/boards/")) {
+                return "board";
+            }
+            if (route.startsWith("/tasks/")) {
+                return "task";
+            }
+            if (route.startsWith("/users/")) {
+                return "user";
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,52 @@
+package com.project.planpulse.filter;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.Map;
+
+// one recorded request, written as one JSON line of the trace file and read back by the replay tool (src/replay).
+// No id, name or free text reaches the file: string values become an alias of the entity they refer to
+// ("@board:12", "@user:3", "@id:7" for an unknown kind), "@secret", "@date", or their length ("s:42").
+// Numbers, booleans and enum-like constants (TO_DO, HIGH) are kept as they are
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TrafficTrace(
+        long at, // epoch millis when the request arrived
+        String method,
+        String route, // the matched handler pattern, e.g. /boards/{id}
+        Map<String, String> path,
+        Map<String, String> query,
+        String user, // alias of the authenticated user
+        JsonNode body, // shape of a JSON body
+        String contentType, // set, with bodyBytes, for bodies that are not JSON
+        Long bodyBytes,
+        int status,
+        long micros) {
+
+    public static final String SECRET = "@secret";
+    public static final String DATE = "@date";
+    public static final String LENGTH_PREFIX = "s:";
+
+    public record Alias(String kind, int ordinal) {
+        @Override
+        public String toString() {
+            return "@" + kind + ":" + ordinal;
+        }
+    }
+
+    // null when the value is not an alias
+    public static Alias parseAlias(String value) {
+        if (value == null || !value.startsWith("@")) {
+            return null;
+        }
+        int colon = value.indexOf(':');
+        if (colon < 0) {
+            return null;
+        }
+        try {
+            return new Alias(value.substring(1, colon), Integer.parseInt(value.substring(colon + 1)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.project.planpulse.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+// reference count of a stored blob; a blob whose count stayed at zero for the grace period is deleted
+@Data
+@NoArgsConstructor
+@Document(collection = "blob_refs")
+@CompoundIndex(name = "ref_count_updated_idx", def = "{'refCount': 1, 'updatedAt': 1}")
+public class BlobRef {
+    @Id
+    private String id; // blob key
+    private long refCount = 0;
+    private long size = 0;
+    private String state = "ACTIVE"; // ACTIVE, DELETING
+    private Date createdAt = new Date();
+    private Date updatedAt = new Date();
+}
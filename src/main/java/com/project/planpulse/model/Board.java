@@ -1,5 +1,6 @@
 package com.project.planpulse.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -24,7 +25,10 @@ public class Board {
     private String creatorId;
     @Indexed
     private List<String> collaboratorIds = new ArrayList<>(); // Users who can modify tasks
-    private List<String> taskIds = new ArrayList<>(); // Tasks in this board
+    private BoardStats stats = new BoardStats(); // task membership lives on Task.boardId
+    private long version = 0; // bumped by every change to the board or one of its tasks, for delta sync
+    @JsonIgnore
+    private List<PendingWrite> pendingWrites = new ArrayList<>(); // task writes holding a version, see PendingWrite
     private Date createdAt = new Date();
     private Date updatedAt = new Date();
 }
@@ -0,0 +1,16 @@
+package com.project.planpulse.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// constant-size task summary embedded in the board, kept current with $inc as tasks change
+@Data
+@NoArgsConstructor
+public class BoardStats {
+    private long taskCount = 0;
+    private long totalTimeSpent = 0; // stored in minutes
+    private Map<String, Long> statusCounts = new HashMap<>(); // TO_DO, IN_PROGRESS, IN_REVIEW, DONE
+}
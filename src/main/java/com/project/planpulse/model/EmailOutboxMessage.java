@@ -0,0 +1,38 @@
+package com.project.planpulse.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@Document(collection = "email_outbox")
+@CompoundIndex(name = "status_next_attempt_idx", def = "{'status': 1, 'nextAttemptAt': 1}")
+public class EmailOutboxMessage {
+    @Id
+    private String id;
+    private String toAddress;
+    private String subject;
+    private String body; // dropped once the message is SENT or FAILED, it may carry a password reset link
+    private String status = "PENDING"; // PENDING, SENDING, SENT, FAILED
+    private int attempts = 0;
+    private Date nextAttemptAt = new Date(); // a pending message is not picked up before this
+    private String leaseOwner; // dispatcher currently sending the message
+    private Date leaseExpiresAt; // another dispatcher may retry the message after this
+    private String lastError;
+    private Date createdAt = new Date();
+    private Date sentAt;
+    @Indexed(expireAfter = "7d")
+    private Date finishedAt; // set when the message is SENT or FAILED, mongo removes it a week later
+
+    public EmailOutboxMessage(String toAddress, String subject, String body) {
+        this.toAddress = toAddress;
+        this.subject = subject;
+        this.body = body;
+    }
+}
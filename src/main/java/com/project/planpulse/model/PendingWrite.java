@@ -0,0 +1,24 @@
+package com.project.planpulse.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Date;
+import java.util.List;
+
+// a board version handed out to a task write that has not finished yet; sync cursors stop below it
+@Data
+@NoArgsConstructor
+public class PendingWrite {
+    public static final long TIMEOUT_MS = 60_000; // still pending after this: the writer died, the version is ignored
+
+    private long version;
+    private Date startedAt;
+
+    // true while one of the writes has not timed out yet, i.e. may still land its task change and $inc
+    public static boolean anyInFlight(List<PendingWrite> pendingWrites) {
+        long expired = System.currentTimeMillis() - TIMEOUT_MS;
+        return pendingWrites != null && pendingWrites.stream()
+                .anyMatch(pending -> pending.getStartedAt() != null && pending.getStartedAt().getTime() >= expired);
+    }
+}
@@ -1,18 +1,29 @@
 package com.project.planpulse.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Date;
+import java.util.List;
+import java.util.Set;
 
 @Data
 @NoArgsConstructor
 @Document(collection = "tasks")
+@CompoundIndexes({
+        @CompoundIndex(name = "board_id_idx", def = "{'boardId': 1, '_id': 1}"), // ordered board scans for pagination
+        @CompoundIndex(name = "board_version_idx", def = "{'boardId': 1, 'version': 1}") // delta sync
+})
 public class Task {
+    public static final Set<String> STATUSES = Set.of("TO_DO", "IN_PROGRESS", "IN_REVIEW", "DONE");
+
     @Id
     private String id;
     @NotBlank(message = "Title is required")
@@ -26,6 +37,9 @@ public class Task {
     private long timeSpent = 0; // stored in minutes
     private Date deadline;
     private String status = "TO_DO"; // TO_DO, IN_PROGRESS, IN_REVIEW, DONE
+    private long version = 0; // board version of the task's last change
+    @JsonIgnore
+    private List<Long> bulkStatusVersions; // board versions of the last few bulk status moves that landed here
     private Date createdAt = new Date();
     private Date updatedAt = new Date();
 }
@@ -0,0 +1,22 @@
+package com.project.planpulse.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+// left behind by a deleted task so delta sync can report the deletion; removed together with the board
+@Data
+@NoArgsConstructor
+@Document(collection = "task_tombstones")
+@CompoundIndex(name = "board_version_idx", def = "{'boardId': 1, 'version': 1}")
+public class TaskTombstone {
+    @Id
+    private String id; // the deleted task's id
+    private String boardId;
+    private long version; // board version of the deletion
+    private Date deletedAt;
+}
@@ -0,0 +1,34 @@
+package com.project.planpulse.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Date;
+
+@Data
+@NoArgsConstructor
+@Document(collection = "user_deletion_jobs")
+public class UserDeletionJob {
+    @Id
+    private String id;
+    @Indexed
+    private String userId;
+    @Indexed
+    private String status = "PENDING"; // PENDING, RUNNING, COMPLETED, FAILED
+    private long boardsDeleted = 0;
+    private long collaborationsRemoved = 0;
+    private int attempts = 0;
+    private String lastError;
+    private String leaseOwner; // worker currently running the job
+    private Date leaseExpiresAt; // another worker may resume the job after this
+    private Date createdAt = new Date();
+    private Date updatedAt = new Date();
+    private Date completedAt;
+
+    public UserDeletionJob(String userId) {
+        this.userId = userId;
+    }
+}
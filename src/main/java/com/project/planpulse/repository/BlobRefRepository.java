@@ -0,0 +1,13 @@
+package com.project.planpulse.repository;
+
+import com.project.planpulse.model.BlobRef;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Date;
+import java.util.List;
+
+public interface BlobRefRepository extends MongoRepository<BlobRef, String>, BlobRefRepositoryCustom {
+    // unreferenced blobs whose grace period is over
+    List<BlobRef> findByRefCountAndUpdatedAtBefore(long refCount, Date cutoff, Pageable pageable);
+}
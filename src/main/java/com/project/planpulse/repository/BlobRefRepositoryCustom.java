@@ -0,0 +1,17 @@
+package com.project.planpulse.repository;
+
+import java.util.Date;
+
+// atomic reference counting for content-addressed blobs
+public interface BlobRefRepositoryCustom {
+    // adds a reference, creating the record on first use; throws DuplicateKeyException while the blob is being deleted
+    void acquire(String key, long size);
+
+    // drops a reference and returns the remaining count, or -1 when the blob has no record
+    long release(String key);
+
+    // claims an unreferenced blob for deletion; false if it was referenced again in the meantime
+    boolean markDeleting(String key, Date cutoff);
+
+    void removeDeleting(String key);
+}
@@ -0,0 +1,53 @@
+package com.project.planpulse.repository;
+
+import com.project.planpulse.model.BlobRef;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Date;
+
+public class BlobRefRepositoryCustomImpl implements BlobRefRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public BlobRefRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public void acquire(String key, long size) {
+        Date now = new Date();
+        // a DELETING record does not match, so the upsert collides with it on _id until the sweeper is done
+        Query query = Query.query(Criteria.where("id").is(key).and("state").is("ACTIVE"));
+        Update update = new Update()
+                .inc("refCount", 1)
+                .set("updatedAt", now)
+                .setOnInsert("size", size)
+                .setOnInsert("createdAt", now);
+        mongoTemplate.upsert(query, update, BlobRef.class);
+    }
+
+    @Override
+    public long release(String key) {
+        Query query = Query.query(Criteria.where("id").is(key).and("state").is("ACTIVE").and("refCount").gt(0));
+        Update update = new Update().inc("refCount", -1).set("updatedAt", new Date());
+        BlobRef ref = mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), BlobRef.class);
+        return ref == null ? -1 : ref.getRefCount();
+    }
+
+    @Override
+    public boolean markDeleting(String key, Date cutoff) {
+        Query query = Query.query(Criteria.where("id").is(key).and("state").is("ACTIVE")
+                .and("refCount").is(0).and("updatedAt").lt(cutoff));
+        Update update = new Update().set("state", "DELETING").set("updatedAt", new Date());
+        return mongoTemplate.updateFirst(query, update, BlobRef.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public void removeDeleting(String key) {
+        mongoTemplate.remove(Query.query(Criteria.where("id").is(key).and("state").is("DELETING")), BlobRef.class);
+    }
+}
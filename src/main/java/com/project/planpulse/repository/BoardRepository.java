@@ -1,16 +1,53 @@
 package com.project.planpulse.repository;
 
 import com.project.planpulse.model.Board;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface BoardRepository extends MongoRepository<Board, String> {
+public interface BoardRepository extends MongoRepository<Board, String>, BoardRepositoryCustom {
     // Fetch boards created by the user
     List<Board> findByCreatorId(String creatorId);
 
     // Fetch boards where the user is a collaborator
     List<Board> findByCollaboratorIdsContaining(String userId);
+
+    // Fetch only the fields needed for permission checks
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'creatorId': 1, 'collaboratorIds': 1 }")
+    Optional<Board> findAccessById(String boardId);
+
+    // versions only, for ETags
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'version': 1 }")
+    Optional<Board> findVersionById(String boardId);
+
+    @Query(value = "{ 'creatorId': ?0 }", fields = "{ '_id': 1, 'version': 1 }")
+    List<Board> findVersionsByCreatorId(String creatorId);
+
+    @Query(value = "{ 'collaboratorIds': ?0 }", fields = "{ '_id': 1, 'version': 1 }")
+    List<Board> findVersionsByCollaborator(String userId);
+
+    // every board id, for rebuilding in-process indexes; the caller must close the stream
+    @Query(value = "{}", fields = "{ '_id': 1 }")
+    Stream<Board> streamAllIds();
+
+    // ids of boards written before the stats sub-document existed
+    @Query(value = "{ 'stats': { '$exists': false } }", fields = "{ '_id': 1 }")
+    Stream<Board> streamIdsWithoutStats();
+
+    // batches for the account deletion cascade, ids (and creator) only
+    @Query(value = "{ 'creatorId': ?0, '$or': [ { 'collaboratorIds': { '$size': 0 } }, { 'collaboratorIds': { '$exists': false } } ] }", fields = "{ '_id': 1 }")
+    List<Board> findUnsharedIdsByCreatorId(String creatorId, Pageable pageable);
+
+    @Query(value = "{ 'collaboratorIds': ?0 }", fields = "{ '_id': 1, 'creatorId': 1 }")
+    List<Board> findRefsByCollaborator(String userId, Pageable pageable);
+
+    @Query(value = "{ '_id': { '$in': ?0 }, 'collaboratorIds': { '$size': 1 } }", fields = "{ '_id': 1, 'creatorId': 1 }")
+    List<Board> findSingleCollaboratorRefsByIdIn(Collection<String> boardIds);
 }
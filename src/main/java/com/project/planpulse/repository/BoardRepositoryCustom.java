@@ -0,0 +1,47 @@
+package com.project.planpulse.repository;
+
+import com.project.planpulse.model.Board;
+
+import java.util.Collection;
+import java.util.Map;
+
+// server-side membership updates, so large member arrays are never rewritten from the application
+public interface BoardRepositoryCustom {
+    // returns the updated board, or null when the user is the creator or already a collaborator
+    Board addCollaborator(String boardId, String userId);
+
+    // returns false when the user was not a collaborator
+    boolean removeCollaborator(String boardId, String userId);
+
+    // one updateMany $pull across the given boards; returns the number of boards modified
+    long removeCollaboratorFromBoards(Collection<String> boardIds, String userId);
+
+    // task writes take the next board version before writing the task and release it with one of the record
+    // calls (or endWrite) once the task is written; until then the version is pending and delta sync holds back.
+    // Releasing bumps the version again, so every change to the board or its tasks ends with a new version.
+    // Returns 0 when the board does not exist
+    long beginWrite(String boardId);
+
+    // releases a version whose task write did not happen
+    void endWrite(String boardId, long version);
+
+    // stats counters, applied with $inc so concurrent task writes never overwrite each other; each call also
+    // releases the write's pending version
+    void recordTasksAdded(String boardId, long version, Map<String, Long> countsByStatus, long timeSpent);
+
+    void recordTasksRemoved(String boardId, long version, Map<String, Long> countsByStatus, long timeSpent);
+
+    void recordStatusChange(String boardId, long version, String fromStatus, String toStatus, long count);
+
+    void recordStatusChanges(String boardId, long version, Map<String, Long> countsByFromStatus, String toStatus);
+
+    void recordTimeSpent(String boardId, long version, long minutes);
+
+    // recomputes the stats from the board's tasks, for boards written before the counters existed. The result is only
+    // stored while no task write is in flight and the board version has not moved since the tasks were read, so it
+    // never overwrites a concurrent $inc; returns false when the caller should try again later
+    boolean rebuildStats(String boardId);
+
+    // removes the task id array boards carried before membership moved to Task.boardId; returns the boards changed
+    long dropLegacyTaskIds();
+}
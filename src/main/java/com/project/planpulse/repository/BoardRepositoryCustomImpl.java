@@ -0,0 +1,189 @@
+package com.project.planpulse.repository;
+
+import com.project.planpulse.model.Board;
+import com.project.planpulse.model.BoardStats;
+import com.project.planpulse.model.PendingWrite;
+import com.project.planpulse.model.Task;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+public class BoardRepositoryCustomImpl implements BoardRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public BoardRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Board addCollaborator(String boardId, String userId) {
+        return mongoTemplate.findAndModify(addCollaboratorQuery(boardId, userId), addCollaboratorUpdate(userId),
+                FindAndModifyOptions.options().returnNew(true), Board.class);
+    }
+
+    @Override
+    public boolean removeCollaborator(String boardId, String userId) {
+        Query query = Query.query(Criteria.where("id").is(boardId).and("collaboratorIds").is(userId));
+        Update update = new Update()
+                .pull("collaboratorIds", userId)
+                .set("updatedAt", new Date())
+                .inc("version", 1);
+        return mongoTemplate.updateFirst(query, update, Board.class).getModifiedCount() > 0;
+    }
+
+    @Override
+    public long removeCollaboratorFromBoards(Collection<String> boardIds, String userId) {
+        Query query = Query.query(Criteria.where("id").in(boardIds).and("collaboratorIds").is(userId));
+        Update update = new Update()
+                .pull("collaboratorIds", userId)
+                .set("updatedAt", new Date())
+                .inc("version", 1);
+        return mongoTemplate.updateMulti(query, update, Board.class).getModifiedCount();
+    }
+
+    @Override
+    public long beginWrite(String boardId) {
+        // a pipeline update, so the pending entry can carry the version the same update assigns
+        Document nextVersion = new Document("$add", List.of(new Document("$ifNull", List.of("$version", 0L)), 1L));
+        Document pending = new Document("version", "$version").append("startedAt", "$$NOW");
+        Document appendPending = new Document("$concatArrays", List.of(
+                new Document("$ifNull", List.of("$pendingWrites", List.of())), List.of(pending)));
+        AggregationUpdate update = AggregationUpdate.from(List.of(
+                stage(new Document("$set", new Document("version", nextVersion))),
+                stage(new Document("$set", new Document("pendingWrites", appendPending)))));
+        Query query = byId(boardId);
+        query.fields().include("version");
+        Board board = mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Board.class);
+        return board == null ? 0 : board.getVersion();
+    }
+
+    @Override
+    public void endWrite(String boardId, long version) {
+        mongoTemplate.updateFirst(byId(boardId), releasing(new Update(), version), Board.class);
+    }
+
+    @Override
+    public void recordTasksAdded(String boardId, long version, Map<String, Long> countsByStatus, long timeSpent) {
+        recordTaskCounts(boardId, version, countsByStatus, timeSpent, 1);
+    }
+
+    @Override
+    public void recordTasksRemoved(String boardId, long version, Map<String, Long> countsByStatus, long timeSpent) {
+        recordTaskCounts(boardId, version, countsByStatus, timeSpent, -1);
+    }
+
+    private void recordTaskCounts(String boardId, long version, Map<String, Long> countsByStatus, long timeSpent, int sign) {
+        long added = 0;
+        Update update = new Update();
+        for (Map.Entry<String, Long> entry : countsByStatus.entrySet()) {
+            update.inc("stats.statusCounts." + entry.getKey(), sign * entry.getValue());
+            added += entry.getValue();
+        }
+        update.inc("stats.taskCount", sign * added)
+                .inc("stats.totalTimeSpent", sign * timeSpent)
+                .set("updatedAt", new Date());
+        mongoTemplate.updateFirst(byId(boardId), releasing(update, version), Board.class);
+    }
+
+    @Override
+    public void recordStatusChange(String boardId, long version, String fromStatus, String toStatus, long count) {
+        recordStatusChanges(boardId, version, Map.of(fromStatus, count), toStatus);
+    }
+
+    @Override
+    public void recordStatusChanges(String boardId, long version, Map<String, Long> countsByFromStatus, String toStatus) {
+        Update update = new Update();
+        long moved = 0;
+        for (Map.Entry<String, Long> entry : countsByFromStatus.entrySet()) {
+            update.inc("stats.statusCounts." + entry.getKey(), -entry.getValue());
+            moved += entry.getValue();
+        }
+        update.inc("stats.statusCounts." + toStatus, moved);
+        mongoTemplate.updateFirst(byId(boardId), releasing(update, version), Board.class);
+    }
+
+    @Override
+    public void recordTimeSpent(String boardId, long version, long minutes) {
+        Update update = new Update().inc("stats.totalTimeSpent", minutes);
+        mongoTemplate.updateFirst(byId(boardId), releasing(update, version), Board.class);
+    }
+
+    @Override
+    public boolean rebuildStats(String boardId) {
+        Query read = byId(boardId);
+        read.fields().include("version").include("pendingWrites");
+        Board board = mongoTemplate.findOne(read, Board.class);
+        if (board == null) {
+            return true;
+        }
+        if (PendingWrite.anyInFlight(board.getPendingWrites())) {
+            return false;
+        }
+        Aggregation aggregation = Aggregation.newAggregation(
+                Aggregation.match(Criteria.where("boardId").is(boardId)),
+                Aggregation.group("status").count().as("count").sum("timeSpent").as("timeSpent"));
+        BoardStats stats = new BoardStats();
+        for (Document group : mongoTemplate.aggregate(aggregation, Task.class, Document.class)) {
+            long count = ((Number) group.get("count")).longValue();
+            stats.setTaskCount(stats.getTaskCount() + count);
+            stats.setTotalTimeSpent(stats.getTotalTimeSpent() + ((Number) group.get("timeSpent")).longValue());
+            if (group.getString("_id") != null) {
+                stats.getStatusCounts().put(group.getString("_id"), count);
+            }
+        }
+        // every task write moves the version (beginWrite) before it touches the tasks, so an unchanged version means
+        // no write started since the read above and no $inc has landed that the aggregate does not include
+        Query unchanged = Query.query(Criteria.where("id").is(boardId).and("version").is(board.getVersion()));
+        Update update = new Update().set("stats", stats).unset("taskIds").inc("version", 1);
+        return mongoTemplate.updateFirst(unchanged, update, Board.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public long dropLegacyTaskIds() {
+        Query legacy = Query.query(Criteria.where("taskIds").exists(true));
+        return mongoTemplate.updateMulti(legacy, new Update().unset("taskIds").inc("version", 1), Board.class).getModifiedCount();
+    }
+
+    // drops the write's pending version, and any left behind by writers that died. The version is bumped once more:
+    // the task write has landed by now, so anything tagged with the board version (ETags) must change after it
+    private static Update releasing(Update update, long version) {
+        Date expired = new Date(System.currentTimeMillis() - PendingWrite.TIMEOUT_MS);
+        return update.inc("version", 1).pull("pendingWrites", new Document("$or", List.of(
+                new Document("version", version),
+                new Document("startedAt", new Document("$lt", expired)))));
+    }
+
+    private static AggregationOperation stage(Document stage) {
+        return context -> stage;
+    }
+
+    private static Query byId(String boardId) {
+        return Query.query(Criteria.where("id").is(boardId));
+    }
+
+    // the filter doubles as the duplicate check: it only matches while the user has no access yet
+    static Query addCollaboratorQuery(String boardId, String userId) {
+        return Query.query(Criteria.where("id").is(boardId)
+                .and("creatorId").ne(userId)
+                .and("collaboratorIds").ne(userId));
+    }
+
+    static Update addCollaboratorUpdate(String userId) {
+        return new Update()
+                .addToSet("collaboratorIds", userId)
+                .set("updatedAt", new Date())
+                .inc("version", 1);
+    }
+}
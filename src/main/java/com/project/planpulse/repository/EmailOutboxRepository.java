@@ -0,0 +1,7 @@
+package com.project.planpulse.repository;
+
+import com.project.planpulse.model.EmailOutboxMessage;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface EmailOutboxRepository extends MongoRepository<EmailOutboxMessage, String>, EmailOutboxRepositoryCustom {
+}
@@ -0,0 +1,18 @@
+package com.project.planpulse.repository;
+
+import com.project.planpulse.model.EmailOutboxMessage;
+
+import java.util.Date;
+import java.util.List;
+
+// lease-based claiming, so messages held by a crashed dispatcher are retried by another one
+public interface EmailOutboxRepositoryCustom {
+    // claims up to limit due messages (pending, or sending with an expired lease), oldest first
+    List<EmailOutboxMessage> claimBatch(String workerId, int limit, Date leaseUntil);
+
+    // returns false if the lease was lost, i.e. another dispatcher owns the message now
+    boolean markSent(String messageId, String workerId);
+
+    // gives the message back for a later retry, or marks it failed when no attempts remain
+    void markAttemptFailed(String messageId, String workerId, String error, Date retryAt, boolean finalAttempt);
+}
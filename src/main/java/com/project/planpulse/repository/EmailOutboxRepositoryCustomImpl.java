@@ -0,0 +1,78 @@
+package com.project.planpulse.repository;
+
+import com.project.planpulse.model.EmailOutboxMessage;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+public class EmailOutboxRepositoryCustomImpl implements EmailOutboxRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public EmailOutboxRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public List<EmailOutboxMessage> claimBatch(String workerId, int limit, Date leaseUntil) {
+        List<EmailOutboxMessage> claimed = new ArrayList<>();
+        // one findAndModify per message keeps each claim atomic when several dispatchers poll at once
+        while (claimed.size() < limit) {
+            Date now = new Date();
+            Query query = Query.query(new Criteria().orOperator(
+                            Criteria.where("status").is("PENDING").and("nextAttemptAt").lte(now),
+                            Criteria.where("status").is("SENDING").and("leaseExpiresAt").lte(now)))
+                    .with(Sort.by(Sort.Direction.ASC, "nextAttemptAt"));
+            Update update = new Update()
+                    .set("status", "SENDING")
+                    .set("leaseOwner", workerId)
+                    .set("leaseExpiresAt", leaseUntil)
+                    .inc("attempts", 1);
+            EmailOutboxMessage message = mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().returnNew(true), EmailOutboxMessage.class);
+            if (message == null) {
+                break;
+            }
+            claimed.add(message);
+        }
+        return claimed;
+    }
+
+    @Override
+    public boolean markSent(String messageId, String workerId) {
+        Update update = new Update()
+                .set("status", "SENT")
+                .set("sentAt", new Date())
+                .set("finishedAt", new Date())
+                .unset("body")
+                .unset("leaseOwner")
+                .unset("leaseExpiresAt")
+                .unset("lastError");
+        return mongoTemplate.updateFirst(leased(messageId, workerId), update, EmailOutboxMessage.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public void markAttemptFailed(String messageId, String workerId, String error, Date retryAt, boolean finalAttempt) {
+        Update update = new Update()
+                .set("status", finalAttempt ? "FAILED" : "PENDING")
+                .set("lastError", error)
+                .set("nextAttemptAt", retryAt)
+                .unset("leaseOwner")
+                .unset("leaseExpiresAt");
+        if (finalAttempt) {
+            update.set("finishedAt", new Date()).unset("body");
+        }
+        mongoTemplate.updateFirst(leased(messageId, workerId), update, EmailOutboxMessage.class);
+    }
+
+    private Query leased(String messageId, String workerId) {
+        return Query.query(Criteria.where("id").is(messageId).and("leaseOwner").is(workerId).and("status").is("SENDING"));
+    }
+}
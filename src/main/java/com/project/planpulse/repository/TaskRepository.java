@@ -1,14 +1,47 @@
 package com.project.planpulse.repository;
 
 import com.project.planpulse.model.Task;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface TaskRepository extends MongoRepository<Task, String> {
+public interface TaskRepository extends MongoRepository<Task, String>, TaskRepositoryCustom {
     List<Task> findByBoardId(String boardId);
 
+    // only the owning board and status, for permission checks ahead of an atomic update
+    @Query(value = "{ '_id': ?0 }", fields = "{ 'boardId': 1, 'status': 1 }")
+    Optional<Task> findRefById(String taskId);
+
+    @Query(value = "{ '_id': { '$in': ?0 } }", fields = "{ 'boardId': 1, 'status': 1 }")
+    List<Task> findRefsByIdIn(Collection<String> taskIds);
+
+    @Query(value = "{ '_id': { '$in': ?0 } }", fields = "{ 'bulkStatusVersions': 1 }")
+    List<Task> findBulkStatusVersionsByIdIn(Collection<String> taskIds);
+
+    // keyset pagination over the (boardId, _id) index
+    List<Task> findByBoardIdOrderByIdAsc(String boardId, Limit limit);
+
+    List<Task> findByBoardIdAndIdGreaterThanOrderByIdAsc(String boardId, String afterId, Limit limit);
+
+    // backed by a server-side cursor, must be closed by the caller
+    Stream<Task> streamByBoardIdOrderByIdAsc(String boardId);
+
+    // only the fields the search index needs, from a server-side cursor the caller must close
+    @Query(value = "{ 'boardId': ?0 }", fields = "{ 'boardId': 1, 'title': 1, 'description': 1, 'version': 1 }")
+    Stream<Task> streamSearchFieldsByBoardId(String boardId);
+
+    // tasks changed after the given board version, over the (boardId, version) index
+    List<Task> findByBoardIdAndVersionGreaterThanOrderByVersionAsc(String boardId, long version);
+
+    // server-side deleteMany
+    long deleteByBoardIdIn(Collection<String> boardIds);
+
     List<Task> findByAssigneeId(String assigneeId);
 
     List<Task> findByStatus(String status);
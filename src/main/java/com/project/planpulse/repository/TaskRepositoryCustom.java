@@ -0,0 +1,33 @@
+package com.project.planpulse.repository;
+
+import com.project.planpulse.model.Task;
+
+import java.util.List;
+
+// single-document atomic updates that return the modified task in the same round trip
+public interface TaskRepositoryCustom {
+
+    // how many bulk status versions a task keeps in bulkStatusVersions; a bulk request re-reads them right after
+    // its own write, so only a burst of this many other bulk moves of the same task in between could push one out
+    int BULK_STATUS_VERSIONS_KEPT = 8;
+
+    // version is the board version taken for the change, see BoardRepositoryCustom.beginWrite
+    record StatusChange(String taskId, String expectedStatus, long version) {
+    }
+
+    // every update raises the task's version to the given board version ($max, so a slower writer holding an
+    // older version never moves it back)
+
+    // returns null when no task has the given id and expected status
+    Task updateStatus(String taskId, String expectedStatus, String status, long version);
+
+    // returns null when no task has the given id
+    Task incrementTimeSpent(String taskId, long minutes, long version);
+
+    // one unordered bulkWrite; each task only changes while it still has its expected status, and then records the
+    // change's version in bulkStatusVersions. Returns the modified count
+    long updateStatuses(List<StatusChange> changes, String status);
+
+    // deletes the task and returns it, null when it was already gone
+    Task removeById(String taskId);
+}
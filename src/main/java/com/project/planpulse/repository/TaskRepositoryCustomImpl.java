@@ -0,0 +1,66 @@
+package com.project.planpulse.repository;
+
+import com.project.planpulse.model.Task;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Date;
+import java.util.List;
+
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public TaskRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Task updateStatus(String taskId, String expectedStatus, String status, long version) {
+        Query query = Query.query(Criteria.where("id").is(taskId).and("status").is(expectedStatus));
+        Update update = new Update()
+                .set("status", status)
+                .set("updatedAt", new Date())
+                .max("version", version);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Task.class);
+    }
+
+    @Override
+    public Task incrementTimeSpent(String taskId, long minutes, long version) {
+        Update update = new Update()
+                .inc("timeSpent", minutes)
+                .set("updatedAt", new Date())
+                .max("version", version);
+        return mongoTemplate.findAndModify(byId(taskId), update, FindAndModifyOptions.options().returnNew(true), Task.class);
+    }
+
+    @Override
+    public long updateStatuses(List<StatusChange> changes, String status) {
+        if (changes.isEmpty()) {
+            return 0;
+        }
+        Date now = new Date();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Task.class);
+        for (StatusChange change : changes) {
+            Query query = Query.query(Criteria.where("id").is(change.taskId()).and("status").is(change.expectedStatus()));
+            // the board version is unique to this request, so it marks which of the updates were ours
+            Update update = new Update().set("status", status).set("updatedAt", now).max("version", change.version());
+            update.push("bulkStatusVersions").slice(-BULK_STATUS_VERSIONS_KEPT).each(change.version());
+            bulk.updateOne(query, update);
+        }
+        return bulk.execute().getModifiedCount();
+    }
+
+    @Override
+    public Task removeById(String taskId) {
+        return mongoTemplate.findAndRemove(byId(taskId), Task.class);
+    }
+
+    private Query byId(String taskId) {
+        return Query.query(Criteria.where("id").is(taskId));
+    }
+}
@@ -0,0 +1,13 @@
+package com.project.planpulse.repository;
+
+import com.project.planpulse.model.TaskTombstone;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface TaskTombstoneRepository extends MongoRepository<TaskTombstone, String> {
+    List<TaskTombstone> findByBoardIdAndVersionGreaterThanOrderByVersionAsc(String boardId, long version);
+
+    long deleteByBoardIdIn(Collection<String> boardIds);
+}
@@ -0,0 +1,7 @@
+package com.project.planpulse.repository;
+
+import com.project.planpulse.model.UserDeletionJob;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface UserDeletionJobRepository extends MongoRepository<UserDeletionJob, String>, UserDeletionJobRepositoryCustom {
+}
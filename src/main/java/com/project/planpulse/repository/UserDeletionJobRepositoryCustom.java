@@ -0,0 +1,19 @@
+package com.project.planpulse.repository;
+
+import com.project.planpulse.model.UserDeletionJob;
+
+import java.util.Date;
+
+// lease-based claiming, so a job abandoned by a crashed worker is resumed by another one
+public interface UserDeletionJobRepositoryCustom {
+    // claims the oldest runnable job (pending, or running with an expired lease); null when there is none
+    UserDeletionJob claimNext(String workerId, Date leaseUntil);
+
+    // extends the lease and adds progress; returns false if the lease was lost
+    boolean recordProgress(String jobId, String workerId, Date leaseUntil, long boardsDeleted, long collaborationsRemoved);
+
+    void markCompleted(String jobId, String workerId);
+
+    // gives the job back for a later retry, or marks it failed when no attempts remain
+    void markAttemptFailed(String jobId, String workerId, String error, Date retryAt, boolean finalAttempt);
+}
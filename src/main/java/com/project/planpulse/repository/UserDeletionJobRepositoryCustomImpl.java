@@ -0,0 +1,75 @@
+package com.project.planpulse.repository;
+
+import com.project.planpulse.model.UserDeletionJob;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.Date;
+
+public class UserDeletionJobRepositoryCustomImpl implements UserDeletionJobRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public UserDeletionJobRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public UserDeletionJob claimNext(String workerId, Date leaseUntil) {
+        Date now = new Date();
+        Query query = Query.query(new Criteria().orOperator(
+                        Criteria.where("status").is("PENDING").orOperator(
+                                Criteria.where("leaseExpiresAt").is(null),
+                                Criteria.where("leaseExpiresAt").lte(now)),
+                        Criteria.where("status").is("RUNNING").and("leaseExpiresAt").lte(now)))
+                .with(Sort.by(Sort.Direction.ASC, "createdAt"));
+        Update update = new Update()
+                .set("status", "RUNNING")
+                .set("leaseOwner", workerId)
+                .set("leaseExpiresAt", leaseUntil)
+                .set("updatedAt", now)
+                .inc("attempts", 1);
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), UserDeletionJob.class);
+    }
+
+    @Override
+    public boolean recordProgress(String jobId, String workerId, Date leaseUntil, long boardsDeleted, long collaborationsRemoved) {
+        Update update = new Update()
+                .set("leaseExpiresAt", leaseUntil)
+                .set("updatedAt", new Date())
+                .inc("boardsDeleted", boardsDeleted)
+                .inc("collaborationsRemoved", collaborationsRemoved);
+        return mongoTemplate.updateFirst(leased(jobId, workerId), update, UserDeletionJob.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public void markCompleted(String jobId, String workerId) {
+        Date now = new Date();
+        Update update = new Update()
+                .set("status", "COMPLETED")
+                .set("completedAt", now)
+                .set("updatedAt", now)
+                .unset("leaseOwner")
+                .unset("leaseExpiresAt");
+        mongoTemplate.updateFirst(leased(jobId, workerId), update, UserDeletionJob.class);
+    }
+
+    @Override
+    public void markAttemptFailed(String jobId, String workerId, String error, Date retryAt, boolean finalAttempt) {
+        Update update = new Update()
+                .set("status", finalAttempt ? "FAILED" : "PENDING")
+                .set("lastError", error)
+                .set("leaseExpiresAt", retryAt)
+                .set("updatedAt", new Date())
+                .unset("leaseOwner");
+        mongoTemplate.updateFirst(leased(jobId, workerId), update, UserDeletionJob.class);
+    }
+
+    private Query leased(String jobId, String workerId) {
+        return Query.query(Criteria.where("id").is(jobId).and("leaseOwner").is(workerId).and("status").is("RUNNING"));
+    }
+}
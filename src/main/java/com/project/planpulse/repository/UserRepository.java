@@ -1,13 +1,17 @@
 package com.project.planpulse.repository;
 
+import com.project.planpulse.dto.UserSummary;
 import com.project.planpulse.model.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends MongoRepository<User, String> {
+public interface UserRepository extends MongoRepository<User, String>, UserRepositoryCustom {
     Optional<User> findByUsername(String username);
 
     boolean existsByUsername(String username);
@@ -15,4 +19,22 @@ public interface UserRepository extends MongoRepository<User, String> {
     Optional<User> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    // id-only lookups for resolving a user reference
+    @Query(value = "{ 'username': ?0 }", fields = "{ '_id': 1 }")
+    Optional<User> findIdByUsername(String username);
+
+    @Query(value = "{ 'email': ?0 }", fields = "{ '_id': 1 }")
+    Optional<User> findIdByEmail(String email);
+
+    // Resolve many users in one query, loading only their usernames
+    @Query(value = "{ '_id': { '$in': ?0 } }", fields = "{ 'username': 1 }")
+    List<User> findUsernamesByIdIn(Collection<String> ids);
+
+    // which of the given ids still exist
+    @Query(value = "{ '_id': { '$in': ?0 } }", fields = "{ '_id': 1 }")
+    List<User> findIdsByIdIn(Collection<String> ids);
+
+    // Resolve many users in one query, loading only the summary fields
+    List<UserSummary> findSummariesByIdIn(Collection<String> ids);
 }
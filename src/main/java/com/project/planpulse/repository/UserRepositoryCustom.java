@@ -0,0 +1,13 @@
+package com.project.planpulse.repository;
+
+// server-side updates of the user's board back-references
+public interface UserRepositoryCustom {
+    // returns false when no user has the given id
+    boolean addBoardId(String userId, String boardId);
+
+    // returns false when no user has the given id
+    boolean removeBoardId(String userId, String boardId);
+
+    // compare-and-set on the password hash; returns false if it no longer equals expectedHash
+    boolean replacePasswordHash(String userId, String expectedHash, String newHash);
+}
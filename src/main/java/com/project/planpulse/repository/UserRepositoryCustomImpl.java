@@ -0,0 +1,41 @@
+package com.project.planpulse.repository;
+
+import com.project.planpulse.model.User;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    public UserRepositoryCustomImpl(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public boolean addBoardId(String userId, String boardId) {
+        return mongoTemplate.updateFirst(byId(userId), addBoardIdUpdate(boardId), User.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean removeBoardId(String userId, String boardId) {
+        Update update = new Update().pull("boardIds", boardId);
+        return mongoTemplate.updateFirst(byId(userId), update, User.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public boolean replacePasswordHash(String userId, String expectedHash, String newHash) {
+        Query query = Query.query(Criteria.where("id").is(userId).and("passwordHash").is(expectedHash));
+        return mongoTemplate.updateFirst(query, new Update().set("passwordHash", newHash), User.class).getModifiedCount() > 0;
+    }
+
+    static Query byId(String userId) {
+        return Query.query(Criteria.where("id").is(userId));
+    }
+
+    static Update addBoardIdUpdate(String boardId) {
+        return new Update().addToSet("boardIds", boardId);
+    }
+}
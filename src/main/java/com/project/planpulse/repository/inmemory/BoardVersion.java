@@ -0,0 +1,24 @@
+package com.project.planpulse.repository.inmemory;
+
+import java.util.Comparator;
+
+// key of the (boardId, version) indexes behind delta sync
+record BoardVersion(String boardId, long version) implements Comparable<BoardVersion> {
+
+    private static final Comparator<BoardVersion> ORDER = Comparator.comparing(BoardVersion::boardId)
+            .thenComparingLong(BoardVersion::version);
+
+    // the board's entries with a version above the given one
+    static BoardVersion after(String boardId, long version) {
+        return new BoardVersion(boardId, version + 1);
+    }
+
+    static BoardVersion end(String boardId) {
+        return new BoardVersion(boardId, Long.MAX_VALUE);
+    }
+
+    @Override
+    public int compareTo(BoardVersion other) {
+        return ORDER.compare(this, other);
+    }
+}
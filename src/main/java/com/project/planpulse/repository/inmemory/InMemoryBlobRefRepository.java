@@ -0,0 +1,84 @@
+package com.project.planpulse.repository.inmemory;
+
+import com.project.planpulse.model.BlobRef;
+import com.project.planpulse.repository.BlobRefRepository;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.util.Date;
+import java.util.List;
+
+@Repository
+@Profile("inmemory")
+public class InMemoryBlobRefRepository extends InMemoryRepository<BlobRef> implements BlobRefRepository {
+
+    private final SecondaryIndex<BlobRef, Long> byRefCount = index("blob_refs.refCount", BlobRef::getRefCount);
+
+    public InMemoryBlobRefRepository() {
+        super(BlobRef::getId, BlobRef::setId, InMemoryBlobRefRepository::copy);
+    }
+
+    @Override
+    public List<BlobRef> findByRefCountAndUpdatedAtBefore(long refCount, Date cutoff, Pageable pageable) {
+        return page(load(byRefCount.ids(refCount), ref -> ref.getRefCount() == refCount
+                && ref.getUpdatedAt() != null && ref.getUpdatedAt().before(cutoff)), pageable);
+    }
+
+    @Override
+    public void acquire(String key, long size) {
+        Date now = new Date();
+        update(key, ref -> {
+            if (ref == null) {
+                ref = new BlobRef();
+                ref.setSize(size);
+                ref.setCreatedAt(now);
+            } else if (!"ACTIVE".equals(ref.getState())) {
+                // same as the upsert colliding with the DELETING record on _id
+                throw new DuplicateKeyException("Duplicate key " + key + " for index _id");
+            }
+            ref.setRefCount(ref.getRefCount() + 1);
+            ref.setUpdatedAt(now);
+            return ref;
+        });
+    }
+
+    @Override
+    public long release(String key) {
+        BlobRef released = update(key, ref -> {
+            if (ref == null || !"ACTIVE".equals(ref.getState()) || ref.getRefCount() <= 0) {
+                return null;
+            }
+            ref.setRefCount(ref.getRefCount() - 1);
+            ref.setUpdatedAt(new Date());
+            return ref;
+        });
+        return released == null ? -1 : released.getRefCount();
+    }
+
+    @Override
+    public boolean markDeleting(String key, Date cutoff) {
+        return update(key, ref -> {
+            if (ref == null || !"ACTIVE".equals(ref.getState()) || ref.getRefCount() != 0
+                    || ref.getUpdatedAt() == null || !ref.getUpdatedAt().before(cutoff)) {
+                return null;
+            }
+            ref.setState("DELETING");
+            ref.setUpdatedAt(new Date());
+            return ref;
+        }) != null;
+    }
+
+    @Override
+    public void removeDeleting(String key) {
+        removeIf(key, ref -> "DELETING".equals(ref.getState()));
+    }
+
+    private static BlobRef copy(BlobRef ref) {
+        BlobRef copy = new BlobRef();
+        BeanUtils.copyProperties(ref, copy);
+        return copy;
+    }
+}
@@ -0,0 +1,293 @@
+package com.project.planpulse.repository.inmemory;
+
+import com.project.planpulse.model.Board;
+import com.project.planpulse.model.BoardStats;
+import com.project.planpulse.model.PendingWrite;
+import com.project.planpulse.model.Task;
+import com.project.planpulse.repository.BoardRepository;
+import com.project.planpulse.repository.TaskRepository;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+@Repository
+@Profile("inmemory")
+public class InMemoryBoardRepository extends InMemoryRepository<Board> implements BoardRepository {
+
+    private final SecondaryIndex<Board, String> byCreator = index("boards.creatorId", Board::getCreatorId);
+    private final SecondaryIndex<Board, String> byCollaborator = multiKeyIndex("boards.collaboratorIds", Board::getCollaboratorIds);
+
+    private final TaskRepository taskRepository;
+
+    public InMemoryBoardRepository(TaskRepository taskRepository) {
+        super(Board::getId, Board::setId, InMemoryBoardRepository::copy);
+        this.taskRepository = taskRepository;
+    }
+
+    @Override
+    public List<Board> findByCreatorId(String creatorId) {
+        return loadList(byCreator.ids(creatorId), board -> creatorId.equals(board.getCreatorId()));
+    }
+
+    @Override
+    public List<Board> findByCollaboratorIdsContaining(String userId) {
+        return loadList(byCollaborator.ids(userId), board -> isCollaborator(board, userId));
+    }
+
+    @Override
+    public Optional<Board> findAccessById(String boardId) {
+        return findById(boardId);
+    }
+
+    @Override
+    public Optional<Board> findVersionById(String boardId) {
+        return findById(boardId);
+    }
+
+    @Override
+    public List<Board> findVersionsByCreatorId(String creatorId) {
+        return findByCreatorId(creatorId);
+    }
+
+    @Override
+    public List<Board> findVersionsByCollaborator(String userId) {
+        return findByCollaboratorIdsContaining(userId);
+    }
+
+    @Override
+    public Stream<Board> streamAllIds() {
+        return load(allIds(), board -> true);
+    }
+
+    @Override
+    public Stream<Board> streamIdsWithoutStats() {
+        return load(allIds(), board -> board.getStats() == null);
+    }
+
+    @Override
+    public List<Board> findUnsharedIdsByCreatorId(String creatorId, Pageable pageable) {
+        return page(load(byCreator.ids(creatorId), board -> creatorId.equals(board.getCreatorId())
+                && (board.getCollaboratorIds() == null || board.getCollaboratorIds().isEmpty())), pageable);
+    }
+
+    @Override
+    public List<Board> findRefsByCollaborator(String userId, Pageable pageable) {
+        return page(load(byCollaborator.ids(userId), board -> isCollaborator(board, userId)), pageable);
+    }
+
+    @Override
+    public List<Board> findSingleCollaboratorRefsByIdIn(Collection<String> boardIds) {
+        return loadList(new LinkedHashSet<>(boardIds).stream(),
+                board -> board.getCollaboratorIds() != null && board.getCollaboratorIds().size() == 1);
+    }
+
+    @Override
+    public Board addCollaborator(String boardId, String userId) {
+        return update(boardId, board -> {
+            if (board == null || userId.equals(board.getCreatorId()) || isCollaborator(board, userId)) {
+                return null;
+            }
+            board.getCollaboratorIds().add(userId);
+            board.setUpdatedAt(new Date());
+            board.setVersion(board.getVersion() + 1);
+            return board;
+        });
+    }
+
+    @Override
+    public boolean removeCollaborator(String boardId, String userId) {
+        return update(boardId, board -> {
+            if (board == null || !isCollaborator(board, userId)) {
+                return null;
+            }
+            board.getCollaboratorIds().removeIf(userId::equals);
+            board.setUpdatedAt(new Date());
+            board.setVersion(board.getVersion() + 1);
+            return board;
+        }) != null;
+    }
+
+    @Override
+    public long removeCollaboratorFromBoards(Collection<String> boardIds, String userId) {
+        long modified = 0;
+        for (String boardId : new LinkedHashSet<>(boardIds)) {
+            if (removeCollaborator(boardId, userId)) {
+                modified++;
+            }
+        }
+        return modified;
+    }
+
+    @Override
+    public long beginWrite(String boardId) {
+        Board updated = update(boardId, board -> {
+            if (board == null) {
+                return null;
+            }
+            board.setVersion(board.getVersion() + 1);
+            PendingWrite pending = new PendingWrite();
+            pending.setVersion(board.getVersion());
+            pending.setStartedAt(new Date());
+            pendingWrites(board).add(pending);
+            return board;
+        });
+        return updated == null ? 0 : updated.getVersion();
+    }
+
+    @Override
+    public void endWrite(String boardId, long version) {
+        update(boardId, board -> board == null ? null : release(board, version));
+    }
+
+    @Override
+    public void recordTasksAdded(String boardId, long version, Map<String, Long> countsByStatus, long timeSpent) {
+        recordTaskCounts(boardId, version, countsByStatus, timeSpent, 1);
+    }
+
+    @Override
+    public void recordTasksRemoved(String boardId, long version, Map<String, Long> countsByStatus, long timeSpent) {
+        recordTaskCounts(boardId, version, countsByStatus, timeSpent, -1);
+    }
+
+    private void recordTaskCounts(String boardId, long version, Map<String, Long> countsByStatus, long timeSpent, int sign) {
+        update(boardId, board -> {
+            if (board == null) {
+                return null;
+            }
+            BoardStats stats = stats(board);
+            long added = 0;
+            for (Map.Entry<String, Long> entry : countsByStatus.entrySet()) {
+                stats.getStatusCounts().merge(entry.getKey(), sign * entry.getValue(), Long::sum);
+                added += entry.getValue();
+            }
+            stats.setTaskCount(stats.getTaskCount() + sign * added);
+            stats.setTotalTimeSpent(stats.getTotalTimeSpent() + sign * timeSpent);
+            board.setUpdatedAt(new Date());
+            return release(board, version);
+        });
+    }
+
+    @Override
+    public void recordStatusChange(String boardId, long version, String fromStatus, String toStatus, long count) {
+        recordStatusChanges(boardId, version, Map.of(fromStatus, count), toStatus);
+    }
+
+    @Override
+    public void recordStatusChanges(String boardId, long version, Map<String, Long> countsByFromStatus, String toStatus) {
+        update(boardId, board -> {
+            if (board == null) {
+                return null;
+            }
+            BoardStats stats = stats(board);
+            long moved = 0;
+            for (Map.Entry<String, Long> entry : countsByFromStatus.entrySet()) {
+                stats.getStatusCounts().merge(entry.getKey(), -entry.getValue(), Long::sum);
+                moved += entry.getValue();
+            }
+            stats.getStatusCounts().merge(toStatus, moved, Long::sum);
+            return release(board, version);
+        });
+    }
+
+    @Override
+    public void recordTimeSpent(String boardId, long version, long minutes) {
+        update(boardId, board -> {
+            if (board == null) {
+                return null;
+            }
+            BoardStats stats = stats(board);
+            stats.setTotalTimeSpent(stats.getTotalTimeSpent() + minutes);
+            return release(board, version);
+        });
+    }
+
+    @Override
+    public boolean rebuildStats(String boardId) {
+        Board current = findById(boardId).orElse(null);
+        if (current == null) {
+            return true;
+        }
+        if (PendingWrite.anyInFlight(current.getPendingWrites())) {
+            return false;
+        }
+        BoardStats rebuilt = new BoardStats();
+        for (Task task : taskRepository.findByBoardId(boardId)) {
+            rebuilt.setTaskCount(rebuilt.getTaskCount() + 1);
+            rebuilt.setTotalTimeSpent(rebuilt.getTotalTimeSpent() + task.getTimeSpent());
+            if (task.getStatus() != null) {
+                rebuilt.getStatusCounts().merge(task.getStatus(), 1L, Long::sum);
+            }
+        }
+        Board updated = update(boardId, board -> {
+            if (board == null || board.getVersion() != current.getVersion()) {
+                return null;
+            }
+            board.setStats(rebuilt);
+            board.setVersion(board.getVersion() + 1);
+            return board;
+        });
+        return updated != null;
+    }
+
+    @Override
+    public long dropLegacyTaskIds() {
+        return 0; // in-memory boards never had the array
+    }
+
+    private static boolean isCollaborator(Board board, String userId) {
+        return board.getCollaboratorIds() != null && board.getCollaboratorIds().contains(userId);
+    }
+
+    // the same $inc and $pull as the Mongo repository: this write's version and any left behind by writers that died
+    private static Board release(Board board, long version) {
+        long expired = System.currentTimeMillis() - PendingWrite.TIMEOUT_MS;
+        board.setVersion(board.getVersion() + 1);
+        pendingWrites(board).removeIf(pending -> pending.getVersion() == version
+                || pending.getStartedAt() != null && pending.getStartedAt().getTime() < expired);
+        return board;
+    }
+
+    private static List<PendingWrite> pendingWrites(Board board) {
+        if (board.getPendingWrites() == null) {
+            board.setPendingWrites(new ArrayList<>());
+        }
+        return board.getPendingWrites();
+    }
+
+    // $inc creates the sub-document when it is missing
+    private static BoardStats stats(Board board) {
+        if (board.getStats() == null) {
+            board.setStats(new BoardStats());
+        }
+        return board.getStats();
+    }
+
+    private static Board copy(Board board) {
+        Board copy = new Board();
+        BeanUtils.copyProperties(board, copy);
+        copy.setCollaboratorIds(board.getCollaboratorIds() == null ? new ArrayList<>() : new ArrayList<>(board.getCollaboratorIds()));
+        List<PendingWrite> pendingWrites = new ArrayList<>();
+        if (board.getPendingWrites() != null) {
+            for (PendingWrite pending : board.getPendingWrites()) {
+                PendingWrite pendingCopy = new PendingWrite();
+                BeanUtils.copyProperties(pending, pendingCopy);
+                pendingWrites.add(pendingCopy);
+            }
+        }
+        copy.setPendingWrites(pendingWrites);
+        if (board.getStats() != null) {
+            BoardStats stats = new BoardStats();
+            stats.setTaskCount(board.getStats().getTaskCount());
+            stats.setTotalTimeSpent(board.getStats().getTotalTimeSpent());
+            if (board.getStats().getStatusCounts() != null) {
+                stats.setStatusCounts(new HashMap<>(board.getStats().getStatusCounts()));
+            }
+            copy.setStats(stats);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,108 @@
+package com.project.planpulse.repository.inmemory;
+
+import com.project.planpulse.model.EmailOutboxMessage;
+import com.project.planpulse.repository.EmailOutboxRepository;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+@Profile("inmemory")
+public class InMemoryEmailOutboxRepository extends InMemoryRepository<EmailOutboxMessage> implements EmailOutboxRepository {
+
+    private final SecondaryIndex<EmailOutboxMessage, String> byStatus = index("email_outbox.status", EmailOutboxMessage::getStatus);
+
+    public InMemoryEmailOutboxRepository() {
+        super(EmailOutboxMessage::getId, EmailOutboxMessage::setId, InMemoryEmailOutboxRepository::copy);
+    }
+
+    @Override
+    public List<EmailOutboxMessage> claimBatch(String workerId, int limit, Date leaseUntil) {
+        Date now = new Date();
+        List<EmailOutboxMessage> due = Stream.concat(
+                        load(byStatus.ids("PENDING"), message -> isDue(message, now)),
+                        load(byStatus.ids("SENDING"), message -> isDue(message, now)))
+                .sorted(Comparator.comparing(EmailOutboxMessage::getNextAttemptAt, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+        List<EmailOutboxMessage> claimed = new ArrayList<>();
+        for (EmailOutboxMessage candidate : due) {
+            if (claimed.size() >= limit) {
+                break;
+            }
+            // re-checked under the document's lock; another dispatcher may have claimed it since the scan
+            EmailOutboxMessage message = update(candidate.getId(), current -> {
+                if (current == null || !isDue(current, now)) {
+                    return null;
+                }
+                current.setStatus("SENDING");
+                current.setLeaseOwner(workerId);
+                current.setLeaseExpiresAt(leaseUntil);
+                current.setAttempts(current.getAttempts() + 1);
+                return current;
+            });
+            if (message != null) {
+                claimed.add(message);
+            }
+        }
+        return claimed;
+    }
+
+    @Override
+    public boolean markSent(String messageId, String workerId) {
+        return update(messageId, message -> {
+            if (!isLeased(message, workerId)) {
+                return null;
+            }
+            message.setStatus("SENT");
+            message.setSentAt(new Date());
+            message.setFinishedAt(message.getSentAt());
+            message.setBody(null);
+            message.setLeaseOwner(null);
+            message.setLeaseExpiresAt(null);
+            message.setLastError(null);
+            return message;
+        }) != null;
+    }
+
+    @Override
+    public void markAttemptFailed(String messageId, String workerId, String error, Date retryAt, boolean finalAttempt) {
+        update(messageId, message -> {
+            if (!isLeased(message, workerId)) {
+                return null;
+            }
+            message.setStatus(finalAttempt ? "FAILED" : "PENDING");
+            message.setLastError(error);
+            message.setNextAttemptAt(retryAt);
+            message.setLeaseOwner(null);
+            message.setLeaseExpiresAt(null);
+            if (finalAttempt) {
+                message.setFinishedAt(new Date());
+                message.setBody(null);
+            }
+            return message;
+        });
+    }
+
+    private static boolean isDue(EmailOutboxMessage message, Date now) {
+        if ("PENDING".equals(message.getStatus())) {
+            return message.getNextAttemptAt() != null && !message.getNextAttemptAt().after(now);
+        }
+        return "SENDING".equals(message.getStatus()) && message.getLeaseExpiresAt() != null && !message.getLeaseExpiresAt().after(now);
+    }
+
+    private static boolean isLeased(EmailOutboxMessage message, String workerId) {
+        return message != null && workerId.equals(message.getLeaseOwner()) && "SENDING".equals(message.getStatus());
+    }
+
+    private static EmailOutboxMessage copy(EmailOutboxMessage message) {
+        EmailOutboxMessage copy = new EmailOutboxMessage();
+        BeanUtils.copyProperties(message, copy);
+        return copy;
+    }
+}
@@ -0,0 +1,32 @@
+package com.project.planpulse.repository.inmemory;
+
+import com.project.planpulse.model.PasswordResetToken;
+import com.project.planpulse.repository.PasswordResetTokenRepository;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+@Profile("inmemory")
+public class InMemoryPasswordResetTokenRepository extends InMemoryRepository<PasswordResetToken> implements PasswordResetTokenRepository {
+
+    private final SecondaryIndex<PasswordResetToken, String> byToken = uniqueIndex("password_reset_tokens.token", PasswordResetToken::getToken);
+
+    public InMemoryPasswordResetTokenRepository() {
+        super(PasswordResetToken::getId, PasswordResetToken::setId, InMemoryPasswordResetTokenRepository::copy);
+        uniqueIndex("password_reset_tokens.userId", PasswordResetToken::getUserId);
+    }
+
+    @Override
+    public Optional<PasswordResetToken> findByToken(String token) {
+        return load(byToken.ids(token), resetToken -> token.equals(resetToken.getToken())).findFirst();
+    }
+
+    private static PasswordResetToken copy(PasswordResetToken token) {
+        PasswordResetToken copy = new PasswordResetToken();
+        BeanUtils.copyProperties(token, copy);
+        return copy;
+    }
+}
@@ -0,0 +1,300 @@
+package com.project.planpulse.repository.inmemory;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.*;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// map-backed MongoRepository for the inmemory profile. Documents are copied on the way in and out, as a database
+// round trip would, and every write to one document (including its index entries) runs inside
+// ConcurrentHashMap.compute, so single-document updates are atomic like their findAndModify/updateFirst originals
+abstract class InMemoryRepository<T> implements MongoRepository<T, String> {
+
+    private final ConcurrentHashMap<String, T> documents = new ConcurrentHashMap<>();
+    private final List<SecondaryIndex<T, ?>> indexes = new ArrayList<>();
+    private final Function<T, String> idOf;
+    private final BiConsumer<T, String> assignId;
+    private final UnaryOperator<T> copy;
+
+    InMemoryRepository(Function<T, String> idOf, BiConsumer<T, String> assignId, UnaryOperator<T> copy) {
+        this.idOf = idOf;
+        this.assignId = assignId;
+        this.copy = copy;
+    }
+
+    // indexes are registered from field initializers, before the repository is used
+
+    protected <K extends Comparable<? super K>> SecondaryIndex<T, K> index(String name, Function<T, K> key) {
+        return register(new SecondaryIndex<T, K>(name, document -> Collections.singletonList(key.apply(document)), false));
+    }
+
+    protected <K extends Comparable<? super K>> SecondaryIndex<T, K> multiKeyIndex(String name, Function<T, Collection<K>> keys) {
+        return register(new SecondaryIndex<>(name, keys, false));
+    }
+
+    protected <K extends Comparable<? super K>> SecondaryIndex<T, K> uniqueIndex(String name, Function<T, K> key) {
+        return register(new SecondaryIndex<T, K>(name, document -> Collections.singletonList(key.apply(document)), true));
+    }
+
+    private <K extends Comparable<? super K>> SecondaryIndex<T, K> register(SecondaryIndex<T, K> index) {
+        indexes.add(index);
+        return index;
+    }
+
+    // copies of the documents with the given ids that match filter, in the order of ids
+    protected Stream<T> load(Stream<String> ids, Predicate<T> filter) {
+        return ids.map(documents::get)
+                .filter(document -> document != null && filter.test(document))
+                .map(copy);
+    }
+
+    protected List<T> loadList(Stream<String> ids, Predicate<T> filter) {
+        return load(ids, filter).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    protected Stream<String> allIds() {
+        return documents.keySet().stream().sorted();
+    }
+
+    // atomic read-modify-write of one document: change gets a private copy of it (null when it does not exist) and
+    // returns the new state, or null to leave it untouched. Returns a copy of the new state, null if nothing changed
+    protected T update(String id, UnaryOperator<T> change) {
+        Object[] result = new Object[1];
+        documents.compute(id, (key, current) -> {
+            T next = change.apply(current == null ? null : copy.apply(current));
+            if (next == null) {
+                return current;
+            }
+            assignId.accept(next, key);
+            reindex(key, current, next);
+            result[0] = copy.apply(next);
+            return next;
+        });
+        @SuppressWarnings("unchecked")
+        T updated = (T) result[0];
+        return updated;
+    }
+
+    // deletes the document only if it still matches condition
+    protected boolean removeIf(String id, Predicate<T> condition) {
+        boolean[] removed = new boolean[1];
+        documents.computeIfPresent(id, (key, current) -> {
+            if (!condition.test(current)) {
+                return current;
+            }
+            reindex(key, current, null);
+            removed[0] = true;
+            return null;
+        });
+        return removed[0];
+    }
+
+    protected static <E> List<E> page(Stream<E> results, Pageable pageable) {
+        if (pageable.isPaged()) {
+            results = results.skip(pageable.getOffset()).limit(pageable.getPageSize());
+        }
+        return results.collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private void reindex(String id, T previous, T next) {
+        int updated = 0;
+        try {
+            for (SecondaryIndex<T, ?> index : indexes) {
+                index.update(id, previous, next);
+                updated++;
+            }
+        } catch (DuplicateKeyException e) {
+            // undo the indexes already moved, the document itself is left as it was
+            for (int i = 0; i < updated; i++) {
+                indexes.get(i).update(id, next, previous);
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public <S extends T> S save(S entity) {
+        if (idOf.apply(entity) == null) {
+            assignId.accept(entity, new ObjectId().toHexString());
+        }
+        T stored = copy.apply(entity);
+        documents.compute(idOf.apply(entity), (key, current) -> {
+            reindex(key, current, stored);
+            return stored;
+        });
+        return entity;
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entities) {
+        List<S> saved = new ArrayList<>();
+        for (S entity : entities) {
+            saved.add(save(entity));
+        }
+        return saved;
+    }
+
+    @Override
+    public <S extends T> S insert(S entity) {
+        if (idOf.apply(entity) == null) {
+            assignId.accept(entity, new ObjectId().toHexString());
+        }
+        T stored = copy.apply(entity);
+        documents.compute(idOf.apply(entity), (key, current) -> {
+            if (current != null) {
+                throw new DuplicateKeyException("Duplicate key " + key + " for index _id");
+            }
+            reindex(key, null, stored);
+            return stored;
+        });
+        return entity;
+    }
+
+    @Override
+    public <S extends T> List<S> insert(Iterable<S> entities) {
+        List<S> inserted = new ArrayList<>();
+        for (S entity : entities) {
+            inserted.add(insert(entity));
+        }
+        return inserted;
+    }
+
+    @Override
+    public Optional<T> findById(String id) {
+        return Optional.ofNullable(documents.get(id)).map(copy);
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return documents.containsKey(id);
+    }
+
+    @Override
+    public List<T> findAll() {
+        return loadList(allIds(), document -> true);
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<String> ids) {
+        Set<String> distinct = new LinkedHashSet<>();
+        ids.forEach(distinct::add);
+        return loadList(distinct.stream(), document -> true);
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        List<T> all = findAll();
+        if (sort.isSorted()) {
+            all.sort(comparator(sort));
+        }
+        return all;
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        List<T> all = findAll(pageable.getSort());
+        return new PageImpl<>(page(all.stream(), pageable), pageable, all.size());
+    }
+
+    @Override
+    public long count() {
+        return documents.size();
+    }
+
+    @Override
+    public void deleteById(String id) {
+        removeIf(id, document -> true);
+    }
+
+    @Override
+    public void delete(T entity) {
+        deleteById(idOf.apply(entity));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> ids) {
+        ids.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entities) {
+        entities.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        documents.keySet().forEach(this::deleteById);
+    }
+
+    // nulls first, as MongoDB sorts them ascending; ties are broken by id
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Comparator<T> comparator(Sort sort) {
+        Comparator<T> comparator = null;
+        for (Sort.Order order : sort) {
+            String property = order.getProperty();
+            Comparator<T> next = Comparator.comparing(
+                    document -> (Comparable) ("id".equals(property) || "_id".equals(property)
+                            ? idOf.apply(document)
+                            : new BeanWrapperImpl(document).getPropertyValue(property)),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        Comparator<T> byId = Comparator.comparing(idOf);
+        return comparator == null ? byId : comparator.thenComparing(byId);
+    }
+
+    // query by example is not used by the application
+
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> example) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> example, Sort sort) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> example, Pageable pageable) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends T> long count(Example<S> example) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends T> boolean exists(Example<S> example) {
+        throw queryByExampleNotSupported();
+    }
+
+    @Override
+    public <S extends T, R> R findBy(Example<S> example, Function<FluentQuery.FetchableFluentQuery<S>, R> queryFunction) {
+        throw queryByExampleNotSupported();
+    }
+
+    private static UnsupportedOperationException queryByExampleNotSupported() {
+        return new UnsupportedOperationException("Query by example is not supported by the in-memory repositories");
+    }
+}
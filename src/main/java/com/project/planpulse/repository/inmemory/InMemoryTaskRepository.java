@@ -0,0 +1,173 @@
+package com.project.planpulse.repository.inmemory;
+
+import com.project.planpulse.model.Task;
+import com.project.planpulse.repository.TaskRepository;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Repository;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Repository
+@Profile("inmemory")
+public class InMemoryTaskRepository extends InMemoryRepository<Task> implements TaskRepository {
+
+    // (boardId, id) order, the same as the board_id_idx compound index
+    private final SecondaryIndex<Task, String> byBoard = index("tasks.boardId", Task::getBoardId);
+    private final SecondaryIndex<Task, String> byAssignee = index("tasks.assigneeId", Task::getAssigneeId);
+    private final SecondaryIndex<Task, String> byStatus = index("tasks.status", Task::getStatus);
+    private final SecondaryIndex<Task, Date> byDeadline = index("tasks.deadline", Task::getDeadline);
+    private final SecondaryIndex<Task, BoardVersion> byBoardVersion = index("tasks.board_version",
+            task -> task.getBoardId() == null ? null : new BoardVersion(task.getBoardId(), task.getVersion()));
+
+    public InMemoryTaskRepository() {
+        super(Task::getId, Task::setId, InMemoryTaskRepository::copy);
+    }
+
+    @Override
+    public List<Task> findByBoardId(String boardId) {
+        return loadList(byBoard.ids(boardId), task -> boardId.equals(task.getBoardId()));
+    }
+
+    @Override
+    public Optional<Task> findRefById(String taskId) {
+        return findById(taskId);
+    }
+
+    @Override
+    public List<Task> findRefsByIdIn(Collection<String> taskIds) {
+        return loadList(new LinkedHashSet<>(taskIds).stream(), task -> true);
+    }
+
+    @Override
+    public List<Task> findBulkStatusVersionsByIdIn(Collection<String> taskIds) {
+        return loadList(new LinkedHashSet<>(taskIds).stream(), task -> true);
+    }
+
+    @Override
+    public List<Task> findByBoardIdOrderByIdAsc(String boardId, Limit limit) {
+        return limit(load(byBoard.ids(boardId), task -> boardId.equals(task.getBoardId())), limit);
+    }
+
+    @Override
+    public List<Task> findByBoardIdAndIdGreaterThanOrderByIdAsc(String boardId, String afterId, Limit limit) {
+        return limit(load(byBoard.idsAfter(boardId, afterId), task -> boardId.equals(task.getBoardId())), limit);
+    }
+
+    @Override
+    public Stream<Task> streamByBoardIdOrderByIdAsc(String boardId) {
+        return load(byBoard.ids(boardId), task -> boardId.equals(task.getBoardId()));
+    }
+
+    @Override
+    public Stream<Task> streamSearchFieldsByBoardId(String boardId) {
+        return streamByBoardIdOrderByIdAsc(boardId);
+    }
+
+    @Override
+    public List<Task> findByBoardIdAndVersionGreaterThanOrderByVersionAsc(String boardId, long version) {
+        return loadList(byBoardVersion.idsBetween(BoardVersion.after(boardId, version), BoardVersion.end(boardId)),
+                task -> boardId.equals(task.getBoardId()) && task.getVersion() > version);
+    }
+
+    @Override
+    public long deleteByBoardIdIn(Collection<String> boardIds) {
+        long deleted = 0;
+        for (String boardId : new LinkedHashSet<>(boardIds)) {
+            for (String taskId : byBoard.ids(boardId).toList()) {
+                if (removeIf(taskId, task -> boardId.equals(task.getBoardId()))) {
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public List<Task> findByAssigneeId(String assigneeId) {
+        return loadList(byAssignee.ids(assigneeId), task -> assigneeId.equals(task.getAssigneeId()));
+    }
+
+    @Override
+    public List<Task> findByStatus(String status) {
+        return loadList(byStatus.ids(status), task -> status.equals(task.getStatus()));
+    }
+
+    @Override
+    public List<Task> findByDeadlineBefore(Date deadline) {
+        return loadList(byDeadline.idsBelow(deadline), task -> task.getDeadline() != null && task.getDeadline().before(deadline));
+    }
+
+    @Override
+    public Task updateStatus(String taskId, String expectedStatus, String status, long version) {
+        return update(taskId, task -> {
+            if (task == null || !expectedStatus.equals(task.getStatus())) {
+                return null;
+            }
+            task.setStatus(status);
+            task.setUpdatedAt(new Date());
+            task.setVersion(Math.max(task.getVersion(), version));
+            return task;
+        });
+    }
+
+    @Override
+    public Task incrementTimeSpent(String taskId, long minutes, long version) {
+        return update(taskId, task -> {
+            if (task == null) {
+                return null;
+            }
+            task.setTimeSpent(task.getTimeSpent() + minutes);
+            task.setUpdatedAt(new Date());
+            task.setVersion(Math.max(task.getVersion(), version));
+            return task;
+        });
+    }
+
+    @Override
+    public long updateStatuses(List<StatusChange> changes, String status) {
+        Date now = new Date();
+        long modified = 0;
+        for (StatusChange change : changes) {
+            Task updated = update(change.taskId(), task -> {
+                if (task == null || !change.expectedStatus().equals(task.getStatus())) {
+                    return null;
+                }
+                task.setStatus(status);
+                task.setUpdatedAt(now);
+                task.setVersion(Math.max(task.getVersion(), change.version()));
+                List<Long> versions = new ArrayList<>(task.getBulkStatusVersions() == null ? List.of() : task.getBulkStatusVersions());
+                versions.add(change.version());
+                task.setBulkStatusVersions(List.copyOf(versions.subList(Math.max(0, versions.size() - BULK_STATUS_VERSIONS_KEPT), versions.size())));
+                return task;
+            });
+            if (updated != null) {
+                modified++;
+            }
+        }
+        return modified;
+    }
+
+    @Override
+    public Task removeById(String taskId) {
+        Task[] removed = new Task[1];
+        removeIf(taskId, task -> {
+            removed[0] = copy(task);
+            return true;
+        });
+        return removed[0];
+    }
+
+    private static List<Task> limit(Stream<Task> tasks, Limit limit) {
+        return (limit.isLimited() ? tasks.limit(limit.max()) : tasks).collect(Collectors.toCollection(ArrayList::new));
+    }
+
+    private static Task copy(Task task) {
+        Task copy = new Task();
+        BeanUtils.copyProperties(task, copy);
+        return copy;
+    }
+}
@@ -0,0 +1,49 @@
+package com.project.planpulse.repository.inmemory;
+
+import com.project.planpulse.model.TaskTombstone;
+import com.project.planpulse.repository.TaskTombstoneRepository;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+@Repository
+@Profile("inmemory")
+public class InMemoryTaskTombstoneRepository extends InMemoryRepository<TaskTombstone> implements TaskTombstoneRepository {
+
+    private final SecondaryIndex<TaskTombstone, String> byBoard = index("task_tombstones.boardId", TaskTombstone::getBoardId);
+    private final SecondaryIndex<TaskTombstone, BoardVersion> byBoardVersion = index("task_tombstones.board_version",
+            tombstone -> tombstone.getBoardId() == null ? null : new BoardVersion(tombstone.getBoardId(), tombstone.getVersion()));
+
+    public InMemoryTaskTombstoneRepository() {
+        super(TaskTombstone::getId, TaskTombstone::setId, InMemoryTaskTombstoneRepository::copy);
+    }
+
+    @Override
+    public List<TaskTombstone> findByBoardIdAndVersionGreaterThanOrderByVersionAsc(String boardId, long version) {
+        return loadList(byBoardVersion.idsBetween(BoardVersion.after(boardId, version), BoardVersion.end(boardId)),
+                tombstone -> boardId.equals(tombstone.getBoardId()) && tombstone.getVersion() > version);
+    }
+
+    @Override
+    public long deleteByBoardIdIn(Collection<String> boardIds) {
+        long deleted = 0;
+        for (String boardId : new LinkedHashSet<>(boardIds)) {
+            for (String id : byBoard.ids(boardId).toList()) {
+                if (removeIf(id, tombstone -> boardId.equals(tombstone.getBoardId()))) {
+                    deleted++;
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private static TaskTombstone copy(TaskTombstone tombstone) {
+        TaskTombstone copy = new TaskTombstone();
+        BeanUtils.copyProperties(tombstone, copy);
+        return copy;
+    }
+}
@@ -0,0 +1,116 @@
+package com.project.planpulse.repository.inmemory;
+
+import com.project.planpulse.model.UserDeletionJob;
+import com.project.planpulse.repository.UserDeletionJobRepository;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Repository
+@Profile("inmemory")
+public class InMemoryUserDeletionJobRepository extends InMemoryRepository<UserDeletionJob> implements UserDeletionJobRepository {
+
+    private final SecondaryIndex<UserDeletionJob, String> byStatus = index("user_deletion_jobs.status", UserDeletionJob::getStatus);
+
+    public InMemoryUserDeletionJobRepository() {
+        super(UserDeletionJob::getId, UserDeletionJob::setId, InMemoryUserDeletionJobRepository::copy);
+        index("user_deletion_jobs.userId", UserDeletionJob::getUserId);
+    }
+
+    @Override
+    public UserDeletionJob claimNext(String workerId, Date leaseUntil) {
+        Date now = new Date();
+        List<UserDeletionJob> runnable = Stream.concat(
+                        load(byStatus.ids("PENDING"), job -> isRunnable(job, now)),
+                        load(byStatus.ids("RUNNING"), job -> isRunnable(job, now)))
+                .sorted(Comparator.comparing(UserDeletionJob::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+        for (UserDeletionJob candidate : runnable) {
+            // re-checked under the document's lock; another worker may have claimed it since the scan
+            UserDeletionJob job = update(candidate.getId(), current -> {
+                if (current == null || !isRunnable(current, now)) {
+                    return null;
+                }
+                current.setStatus("RUNNING");
+                current.setLeaseOwner(workerId);
+                current.setLeaseExpiresAt(leaseUntil);
+                current.setUpdatedAt(now);
+                current.setAttempts(current.getAttempts() + 1);
+                return current;
+            });
+            if (job != null) {
+                return job;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean recordProgress(String jobId, String workerId, Date leaseUntil, long boardsDeleted, long collaborationsRemoved) {
+        return update(jobId, job -> {
+            if (!isLeased(job, workerId)) {
+                return null;
+            }
+            job.setLeaseExpiresAt(leaseUntil);
+            job.setUpdatedAt(new Date());
+            job.setBoardsDeleted(job.getBoardsDeleted() + boardsDeleted);
+            job.setCollaborationsRemoved(job.getCollaborationsRemoved() + collaborationsRemoved);
+            return job;
+        }) != null;
+    }
+
+    @Override
+    public void markCompleted(String jobId, String workerId) {
+        Date now = new Date();
+        update(jobId, job -> {
+            if (!isLeased(job, workerId)) {
+                return null;
+            }
+            job.setStatus("COMPLETED");
+            job.setCompletedAt(now);
+            job.setUpdatedAt(now);
+            job.setLeaseOwner(null);
+            job.setLeaseExpiresAt(null);
+            return job;
+        });
+    }
+
+    @Override
+    public void markAttemptFailed(String jobId, String workerId, String error, Date retryAt, boolean finalAttempt) {
+        update(jobId, job -> {
+            if (!isLeased(job, workerId)) {
+                return null;
+            }
+            job.setStatus(finalAttempt ? "FAILED" : "PENDING");
+            job.setLastError(error);
+            job.setLeaseExpiresAt(retryAt);
+            job.setUpdatedAt(new Date());
+            job.setLeaseOwner(null);
+            return job;
+        });
+    }
+
+    // pending with no lease or an expired retry delay, or running with an expired lease
+    private static boolean isRunnable(UserDeletionJob job, Date now) {
+        boolean expired = job.getLeaseExpiresAt() != null && !job.getLeaseExpiresAt().after(now);
+        if ("PENDING".equals(job.getStatus())) {
+            return job.getLeaseExpiresAt() == null || expired;
+        }
+        return "RUNNING".equals(job.getStatus()) && expired;
+    }
+
+    private static boolean isLeased(UserDeletionJob job, String workerId) {
+        return job != null && workerId.equals(job.getLeaseOwner()) && "RUNNING".equals(job.getStatus());
+    }
+
+    private static UserDeletionJob copy(UserDeletionJob job) {
+        UserDeletionJob copy = new UserDeletionJob();
+        BeanUtils.copyProperties(job, copy);
+        return copy;
+    }
+}
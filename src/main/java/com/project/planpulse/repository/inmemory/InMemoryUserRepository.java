@@ -0,0 +1,112 @@
+package com.project.planpulse.repository.inmemory;
+
+import com.project.planpulse.dto.UserSummary;
+import com.project.planpulse.model.User;
+import com.project.planpulse.repository.UserRepository;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+@Profile("inmemory")
+public class InMemoryUserRepository extends InMemoryRepository<User> implements UserRepository {
+
+    private final SecondaryIndex<User, String> byUsername = uniqueIndex("users.username", User::getUsername);
+    private final SecondaryIndex<User, String> byEmail = uniqueIndex("users.email", User::getEmail);
+
+    public InMemoryUserRepository() {
+        super(User::getId, User::setId, InMemoryUserRepository::copy);
+        multiKeyIndex("users.boardIds", User::getBoardIds);
+    }
+
+    @Override
+    public Optional<User> findByUsername(String username) {
+        return load(byUsername.ids(username), user -> username.equals(user.getUsername())).findFirst();
+    }
+
+    @Override
+    public boolean existsByUsername(String username) {
+        return findByUsername(username).isPresent();
+    }
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        return load(byEmail.ids(email), user -> email.equals(user.getEmail())).findFirst();
+    }
+
+    @Override
+    public boolean existsByEmail(String email) {
+        return findByEmail(email).isPresent();
+    }
+
+    @Override
+    public Optional<User> findIdByUsername(String username) {
+        return findByUsername(username);
+    }
+
+    @Override
+    public Optional<User> findIdByEmail(String email) {
+        return findByEmail(email);
+    }
+
+    @Override
+    public List<User> findUsernamesByIdIn(Collection<String> ids) {
+        return loadList(new LinkedHashSet<>(ids).stream(), user -> true);
+    }
+
+    @Override
+    public List<User> findIdsByIdIn(Collection<String> ids) {
+        return findUsernamesByIdIn(ids);
+    }
+
+    @Override
+    public List<UserSummary> findSummariesByIdIn(Collection<String> ids) {
+        return findUsernamesByIdIn(ids).stream()
+                .map(user -> new UserSummary(user.getId(), user.getUsername(), user.getFirstname(), user.getLastname(), user.getProfileImageUrl()))
+                .toList();
+    }
+
+    @Override
+    public boolean addBoardId(String userId, String boardId) {
+        return update(userId, user -> {
+            if (user != null && !user.getBoardIds().contains(boardId)) {
+                user.getBoardIds().add(boardId);
+            }
+            return user;
+        }) != null;
+    }
+
+    @Override
+    public boolean removeBoardId(String userId, String boardId) {
+        return update(userId, user -> {
+            if (user != null) {
+                user.getBoardIds().removeIf(boardId::equals);
+            }
+            return user;
+        }) != null;
+    }
+
+    @Override
+    public boolean replacePasswordHash(String userId, String expectedHash, String newHash) {
+        return update(userId, user -> {
+            if (user == null || !expectedHash.equals(user.getPasswordHash())) {
+                return null;
+            }
+            user.setPasswordHash(newHash);
+            return user;
+        }) != null;
+    }
+
+    private static User copy(User user) {
+        User copy = new User();
+        BeanUtils.copyProperties(user, copy);
+        copy.setBoardIds(user.getBoardIds() == null ? new ArrayList<>() : new ArrayList<>(user.getBoardIds()));
+        return copy;
+    }
+}
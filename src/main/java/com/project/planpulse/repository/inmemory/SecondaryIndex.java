@@ -0,0 +1,117 @@
+package com.project.planpulse.repository.inmemory;
+
+import org.springframework.dao.DuplicateKeyException;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+// key -> document ids for one field of an in-memory repository; entries are kept in (key, id) order, so a lookup
+// comes back sorted by id and range scans over dates or counters are a head-set walk.
+// a unique index keeps a single owner per key and rejects a second one, like a unique Mongo index
+final class SecondaryIndex<T, K extends Comparable<? super K>> {
+
+    // id null sorts before every id, so (key, null) is the lower bound of the key's entries
+    private record Entry<K>(K key, String id) {
+    }
+
+    private final String name;
+    private final Function<T, Collection<K>> keys;
+    private final boolean unique;
+    private final ConcurrentSkipListSet<Entry<K>> entries;
+    private final ConcurrentHashMap<K, String> owners = new ConcurrentHashMap<>();
+
+    SecondaryIndex(String name, Function<T, Collection<K>> keys, boolean unique) {
+        this.name = name;
+        this.keys = keys;
+        this.unique = unique;
+        Comparator<Entry<K>> order = Comparator.<Entry<K>, K>comparing(Entry::key)
+                .thenComparing(Entry::id, Comparator.nullsFirst(Comparator.naturalOrder()));
+        this.entries = new ConcurrentSkipListSet<>(order);
+    }
+
+    // called with the document's previous and new state, both null-able; throws DuplicateKeyException before
+    // changing anything when a unique key is already owned by another document
+    void update(String id, T previous, T next) {
+        Set<K> before = keysOf(previous);
+        Set<K> after = keysOf(next);
+        for (K key : after) {
+            if (!before.contains(key)) {
+                add(id, key);
+            }
+        }
+        for (K key : before) {
+            if (!after.contains(key)) {
+                remove(id, key);
+            }
+        }
+    }
+
+    // ids with exactly this key, in id order
+    Stream<String> ids(K key) {
+        if (unique) {
+            return Stream.ofNullable(owners.get(key));
+        }
+        return entries.tailSet(new Entry<>(key, null)).stream()
+                .takeWhile(entry -> entry.key().equals(key))
+                .map(Entry::id);
+    }
+
+    // ids with this key that sort after afterId, for keyset pagination
+    Stream<String> idsAfter(K key, String afterId) {
+        return entries.tailSet(new Entry<>(key, afterId), false).stream()
+                .takeWhile(entry -> entry.key().equals(key))
+                .map(Entry::id);
+    }
+
+    // ids with a key in [from, to), in key order
+    Stream<String> idsBetween(K from, K to) {
+        return entries.subSet(new Entry<>(from, null), new Entry<>(to, null)).stream().map(Entry::id);
+    }
+
+    // ids whose key is strictly below bound, in key order
+    Stream<String> idsBelow(K bound) {
+        return entries.headSet(new Entry<>(bound, null)).stream().map(Entry::id);
+    }
+
+    private void add(String id, K key) {
+        if (!unique) {
+            entries.add(new Entry<>(key, id));
+            return;
+        }
+        owners.compute(key, (k, owner) -> {
+            if (owner != null && !owner.equals(id)) {
+                throw new DuplicateKeyException("Duplicate key " + key + " for index " + name);
+            }
+            return id;
+        });
+    }
+
+    private void remove(String id, K key) {
+        if (unique) {
+            owners.remove(key, id);
+        } else {
+            entries.remove(new Entry<>(key, id));
+        }
+    }
+
+    private Set<K> keysOf(T document) {
+        Set<K> result = new HashSet<>();
+        if (document != null) {
+            Collection<K> values = keys.apply(document);
+            if (values != null) {
+                for (K value : values) {
+                    if (value != null) {
+                        result.add(value);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,130 @@
+package com.project.planpulse.service;
+
+import com.project.planpulse.model.Board;
+import com.project.planpulse.repository.BoardRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// in-process ACL index: boardId -> creator and member ids, so permission checks skip loading the full board
+@Component
+public class BoardAccessIndex {
+
+    public record BoardAccess(String creatorId, Set<String> memberIds) {
+        public boolean allows(String userId) {
+            return userId != null && memberIds.contains(userId);
+        }
+    }
+
+    public record Stats(long hits, long misses, long evictions, int size) {
+    }
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @Value("${app.board-access-index.max-entries:100000}")
+    private int maxEntries;
+
+    private final ConcurrentHashMap<String, BoardAccess> entries = new ConcurrentHashMap<>();
+    // bumped by every write so a miss-load racing with a membership change never caches stale members
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // returns null when the board does not exist
+    public BoardAccess lookup(String boardId) {
+        if (boardId == null) {
+            return null;
+        }
+        BoardAccess access = entries.get(boardId);
+        if (access != null) {
+            hits.increment();
+            return access;
+        }
+        misses.increment();
+        long observed = generation.get();
+        Board board = boardRepository.findAccessById(boardId).orElse(null);
+        if (board == null) {
+            return null;
+        }
+        access = toAccess(board.getCreatorId(), board.getCollaboratorIds());
+        BoardAccess existing = entries.putIfAbsent(boardId.intern(), access);
+        if (existing != null) {
+            return existing;
+        }
+        if (generation.get() != observed) {
+            // a membership change landed while we were reading; drop our possibly stale copy
+            entries.remove(boardId, access);
+        } else {
+            evictIfFull();
+        }
+        return access;
+    }
+
+    public void onBoardCreated(String boardId, String creatorId) {
+        generation.incrementAndGet();
+        entries.put(boardId.intern(), toAccess(creatorId, null));
+        evictIfFull();
+    }
+
+    public void onMemberAdded(String boardId, String userId) {
+        generation.incrementAndGet();
+        entries.computeIfPresent(boardId, (id, access) -> {
+            Set<String> members = new HashSet<>(access.memberIds());
+            members.add(userId.intern());
+            return new BoardAccess(access.creatorId(), Set.copyOf(members));
+        });
+    }
+
+    public void onMemberRemoved(String boardId, String userId) {
+        generation.incrementAndGet();
+        entries.computeIfPresent(boardId, (id, access) -> {
+            if (!access.memberIds().contains(userId) || userId.equals(access.creatorId())) {
+                return access;
+            }
+            Set<String> members = new HashSet<>(access.memberIds());
+            members.remove(userId);
+            return new BoardAccess(access.creatorId(), Set.copyOf(members));
+        });
+    }
+
+    public void evict(String boardId) {
+        generation.incrementAndGet();
+        entries.remove(boardId);
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+    }
+
+    private BoardAccess toAccess(String creatorId, Iterable<String> collaboratorIds) {
+        Set<String> members = new HashSet<>();
+        String creator = creatorId == null ? null : creatorId.intern();
+        if (creator != null) {
+            members.add(creator);
+        }
+        if (collaboratorIds != null) {
+            for (String collaboratorId : collaboratorIds) {
+                members.add(collaboratorId.intern());
+            }
+        }
+        return new BoardAccess(creator, Set.copyOf(members));
+    }
+
+    private void evictIfFull() {
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() > maxEntries && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+            evictions.increment();
+        }
+    }
+}
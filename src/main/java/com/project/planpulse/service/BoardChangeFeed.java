@@ -0,0 +1,401 @@
+package com.project.planpulse.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.planpulse.exception.ServiceBusyException;
+import com.project.planpulse.model.Board;
+import com.project.planpulse.model.Task;
+import com.project.planpulse.model.TaskTombstone;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// in-process server-sent-events fan-out of board changes. Every event is serialized once into its SSE frame and the
+// same bytes are queued for each subscriber; a subscriber whose bounded queue fills up is dropped and reconnects
+// with Last-Event-ID, resuming from the board's recent history (or getting a reset event when it fell too far behind).
+// Only boards with a subscriber, now or recently, keep a channel, so writes to unwatched boards cost a map lookup;
+// a channel nobody has watched for idle-ttl-seconds is dropped, and the history of all channels together is held
+// under max-history-bytes. Events are published by the node that handled the write
+@Component
+public class BoardChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(BoardChangeFeed.class);
+    private static final byte[] HEARTBEAT = ": ping\n\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] WAKE_UP = new byte[0];
+    private static final int RETRY_AFTER_SECONDS = 5;
+
+    public record Stats(int subscribers, int boards, long historyBytes, long published, long dropped, long resumed, long reset,
+                        long rejected) {
+    }
+
+    private record Event(long id, byte[] frame) {
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.board-feed.history-size:64}")
+    private int historySize;
+
+    @Value("${app.board-feed.subscriber-buffer:64}")
+    private int subscriberBuffer;
+
+    @Value("${app.board-feed.max-subscribers:50000}")
+    private int maxSubscribers;
+
+    @Value("${app.board-feed.max-boards:20000}")
+    private int maxBoards;
+
+    @Value("${app.board-feed.max-history-bytes:33554432}")
+    private long maxHistoryBytes;
+
+    @Value("${app.board-feed.idle-ttl-seconds:300}")
+    private long idleTtlSeconds;
+
+    @Value("${app.board-feed.heartbeat-seconds:25}")
+    private long heartbeatSeconds;
+
+    // event ids are "<epoch>-<sequence>" with one sequence for all boards, so ids stay unique when a board's channel
+    // is evicted and created again, and a restart (new epoch) is never mistaken for a resumable position
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentHashMap<String, Channel> channels = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final AtomicLong historyBytes = new AtomicLong();
+    private final AtomicBoolean trimming = new AtomicBoolean();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder resumed = new LongAdder();
+    private final LongAdder reset = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public void taskCreated(Task task) {
+        publish(task.getBoardId(), "task.created", task);
+    }
+
+    public void taskUpdated(Task task) {
+        publish(task.getBoardId(), "task.updated", task);
+    }
+
+    public void taskDeleted(TaskTombstone tombstone) {
+        publish(tombstone.getBoardId(), "task.deleted", tombstone);
+    }
+
+    // one event per board for a bulk move, the tasks themselves were not re-read
+    public void taskStatusesChanged(String boardId, String status, List<String> taskIds) {
+        publish(boardId, "tasks.status", Map.of("status", status, "taskIds", taskIds));
+    }
+
+    public void tasksImported(String boardId, int count) {
+        publish(boardId, "tasks.imported", Map.of("count", count));
+    }
+
+    public void boardUpdated(Board board) {
+        publish(board.getId(), "board.updated", board);
+    }
+
+    // lastEventId is the Last-Event-ID header of a reconnect, null for a fresh subscription
+    public Subscription subscribe(String boardId, String lastEventId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            rejected.increment();
+            throw new ServiceBusyException("Too many open board feeds, please retry shortly", RETRY_AFTER_SECONDS);
+        }
+        try {
+            while (true) {
+                Channel channel = channels.computeIfAbsent(boardId, id -> new Channel());
+                Subscription subscription = channel.subscribe(lastEventId != null, parseEventId(lastEventId));
+                if (subscription != null) {
+                    evictIfFull();
+                    return subscription;
+                }
+                // evicted between the lookup and the subscribe, the next lookup creates a fresh channel
+            }
+        } catch (RuntimeException e) {
+            subscriberCount.decrementAndGet();
+            throw e;
+        }
+    }
+
+    // writes the subscription's events until it is closed or dropped; heartbeats keep idle connections (and any
+    // proxy in between) from timing out and surface a client that went away. Meant to block a virtual thread
+    public void stream(Subscription subscription, OutputStream out) {
+        try (subscription) {
+            out.flush();
+            while (true) {
+                byte[] frame = subscription.next(heartbeatSeconds);
+                if (frame == null) {
+                    return;
+                }
+                out.write(frame);
+                out.flush();
+            }
+        } catch (IOException e) {
+            // the client went away; the usual way a stream ends, not worth a log line per connection
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(subscriberCount.get(), channels.size(), historyBytes.get(), published.sum(), dropped.sum(),
+                resumed.sum(), reset.sum(), rejected.sum());
+    }
+
+    // drops the channels of boards nobody has watched for idleTtlSeconds, with their history
+    @Scheduled(initialDelayString = "${app.board-feed.sweep-interval-ms:30000}", fixedDelayString = "${app.board-feed.sweep-interval-ms:30000}")
+    public void sweepIdle() {
+        long idleNanos = TimeUnit.SECONDS.toNanos(idleTtlSeconds);
+        for (String boardId : channels.keySet()) {
+            channels.computeIfPresent(boardId, (id, channel) -> channel.retireIfIdle(idleNanos) ? null : channel);
+        }
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        channels.values().forEach(Channel::closeAll);
+    }
+
+    private void publish(String boardId, String type, Object data) {
+        Channel channel = boardId == null ? null : channels.get(boardId);
+        if (channel == null) {
+            return;
+        }
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(data);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not serialize {} event for board {}", type, boardId, e);
+            return;
+        }
+        channel.publish(type, json);
+        published.increment();
+        if (historyBytes.get() > maxHistoryBytes) {
+            trimHistory();
+        }
+    }
+
+    // over the byte budget: unwatched boards give up their channel first, then the oldest events of the watched ones
+    // go (a reconnect from before them gets a reset). One caller trims at a time, the others carry on publishing
+    private void trimHistory() {
+        if (!trimming.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Iterator<String> boardIds = channels.keySet().iterator();
+            while (historyBytes.get() > maxHistoryBytes && boardIds.hasNext()) {
+                channels.computeIfPresent(boardIds.next(), (boardId, channel) -> channel.retireIfIdle(0) ? null : channel);
+            }
+            Iterator<Channel> watched = channels.values().iterator();
+            while (historyBytes.get() > maxHistoryBytes && watched.hasNext()) {
+                watched.next().trimOldest(historyBytes.get() - maxHistoryBytes);
+            }
+        } finally {
+            trimming.set(false);
+        }
+    }
+
+    private void evictIfFull() {
+        Iterator<String> boardIds = channels.keySet().iterator();
+        while (channels.size() > maxBoards && boardIds.hasNext()) {
+            // only boards nobody is watching; they lose their history and a late reconnect gets a reset
+            channels.computeIfPresent(boardIds.next(), (boardId, channel) -> channel.retireIfIdle(0) ? null : channel);
+        }
+    }
+
+    // -1 when the id is missing, malformed or from another process
+    private long parseEventId(String lastEventId) {
+        if (lastEventId == null) {
+            return -1;
+        }
+        int dash = lastEventId.lastIndexOf('-');
+        if (dash <= 0 || !epoch.equals(lastEventId.substring(0, dash))) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private byte[] frame(long id, String type, byte[] json) {
+        byte[] head = ("id: " + epoch + "-" + id + "\nevent: " + type + "\ndata: ").getBytes(StandardCharsets.UTF_8);
+        byte[] frame = Arrays.copyOf(head, head.length + json.length + 2);
+        System.arraycopy(json, 0, frame, head.length, json.length);
+        frame[frame.length - 2] = '\n';
+        frame[frame.length - 1] = '\n';
+        return frame;
+    }
+
+    // one board: its recent events and current subscribers, guarded by the channel's monitor so a subscriber
+    // joining with a backlog never misses or repeats an event published concurrently
+    private final class Channel {
+
+        private final ArrayDeque<Event> history = new ArrayDeque<>();
+        private final Set<Subscription> subscribers = new HashSet<>();
+        // events with an id above this are all still in history
+        private long horizon = sequence.get();
+        private long bytes;
+        // System.nanoTime() when the last subscriber left
+        private long idleSince = System.nanoTime();
+        private boolean retired;
+
+        synchronized void publish(String type, byte[] json) {
+            if (retired) {
+                return;
+            }
+            long id = sequence.incrementAndGet();
+            Event event = new Event(id, frame(id, type, json));
+            if (history.size() == historySize) {
+                removeOldest();
+            }
+            history.addLast(event);
+            bytes += event.frame().length;
+            historyBytes.addAndGet(event.frame().length);
+            Iterator<Subscription> iterator = subscribers.iterator();
+            while (iterator.hasNext()) {
+                Subscription subscriber = iterator.next();
+                if (!subscriber.offer(event.frame())) {
+                    iterator.remove();
+                    subscriber.drop();
+                    dropped.increment();
+                    if (subscribers.isEmpty()) {
+                        idleSince = System.nanoTime();
+                    }
+                }
+            }
+        }
+
+        // null when the channel was retired
+        synchronized Subscription subscribe(boolean resume, long lastEventId) {
+            if (retired) {
+                return null;
+            }
+            List<byte[]> backlog = new ArrayList<>();
+            if (!resume) {
+                // a fresh subscriber loads the board itself and only needs what happens from now on
+            } else if (lastEventId >= horizon) {
+                for (Event event : history) {
+                    if (event.id() > lastEventId) {
+                        backlog.add(event.frame());
+                    }
+                }
+                resumed.increment();
+            } else {
+                // the events since lastEventId are gone: the client has to reload the board, then continue from here
+                long latest = history.isEmpty() ? horizon : history.getLast().id();
+                backlog.add(frame(latest, "reset", "{}".getBytes(StandardCharsets.US_ASCII)));
+                reset.increment();
+            }
+            Subscription subscription = new Subscription(this, backlog);
+            subscribers.add(subscription);
+            return subscription;
+        }
+
+        synchronized void unsubscribe(Subscription subscription) {
+            if (subscribers.remove(subscription) && subscribers.isEmpty()) {
+                idleSince = System.nanoTime();
+            }
+        }
+
+        // retires the channel when nobody has watched it for at least idleNanos; its history no longer counts
+        synchronized boolean retireIfIdle(long idleNanos) {
+            retired = subscribers.isEmpty() && System.nanoTime() - idleSince >= idleNanos;
+            if (retired) {
+                historyBytes.addAndGet(-bytes);
+                bytes = 0;
+                history.clear();
+            }
+            return retired;
+        }
+
+        // drops the oldest events until at least excess bytes are freed or the history is empty
+        synchronized void trimOldest(long excess) {
+            long freed = 0;
+            while (freed < excess && !history.isEmpty()) {
+                freed += removeOldest();
+            }
+        }
+
+        private long removeOldest() {
+            Event oldest = history.removeFirst();
+            horizon = oldest.id();
+            bytes -= oldest.frame().length;
+            historyBytes.addAndGet(-oldest.frame().length);
+            return oldest.frame().length;
+        }
+
+        synchronized void closeAll() {
+            subscribers.forEach(Subscription::drop);
+            subscribers.clear();
+            idleSince = System.nanoTime();
+        }
+    }
+
+    public final class Subscription implements AutoCloseable {
+
+        private final Channel channel;
+        private final ArrayDeque<byte[]> backlog;
+        private final BlockingQueue<byte[]> queue = new ArrayBlockingQueue<>(subscriberBuffer);
+        private volatile boolean open = true;
+        private boolean closed;
+
+        private Subscription(Channel channel, List<byte[]> backlog) {
+            this.channel = channel;
+            this.backlog = new ArrayDeque<>(backlog);
+        }
+
+        // the next frame to write: backlog first, then live events, a heartbeat after heartbeatSeconds of silence;
+        // null once the subscription was dropped
+        byte[] next(long timeoutSeconds) throws InterruptedException {
+            if (!backlog.isEmpty()) {
+                return backlog.removeFirst();
+            }
+            byte[] frame = open ? queue.poll(timeoutSeconds, TimeUnit.SECONDS) : null;
+            if (!open || frame == WAKE_UP) {
+                return null;
+            }
+            return frame == null ? HEARTBEAT : frame;
+        }
+
+        private boolean offer(byte[] frame) {
+            return queue.offer(frame);
+        }
+
+        // called with the channel's monitor held
+        private void drop() {
+            open = false;
+            queue.clear();
+            queue.offer(WAKE_UP);
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            open = false;
+            channel.unsubscribe(this);
+            subscriberCount.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.project.planpulse.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// encoded response bodies of board and task-list reads, so repeated reads of a board that has not changed skip
+// the load and the object mapping. An entry is only served for the board version it was loaded at, which every
+// write moves; the services also invalidate a board after writing so its stale bodies free their memory early
+@Component
+public class BoardPayloadCache {
+
+    public enum Kind {
+        BOARD, TASKS
+    }
+
+    public record Stats(long hits, long misses, long invalidations, long evictions, int entries, long bytes) {
+    }
+
+    private record Key(String boardId, Kind kind, PayloadFormat format) {
+    }
+
+    private record Entry(long version, byte[] body) {
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MappingJackson2CborHttpMessageConverter cborConverter;
+
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileConverter;
+
+    @Value("${app.payload-cache.max-bytes:134217728}")
+    private long maxBytes;
+
+    @Value("${app.payload-cache.max-entry-bytes:8388608}")
+    private int maxEntryBytes;
+
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong bytes = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    // version is the board version read before loading (the one in the ETag), so the loaded body is never older
+    // than the version it is cached under; the caller has checked the requester's access
+    public byte[] get(String boardId, Kind kind, long version, PayloadFormat format, Supplier<Object> loader) {
+        Key key = new Key(boardId, kind, format);
+        Entry entry = entries.get(key);
+        if (entry != null && entry.version() == version) {
+            hits.increment();
+            return entry.body();
+        }
+        misses.increment();
+        byte[] body = encode(format, loader.get());
+        if (body.length <= maxEntryBytes) {
+            store(key, new Entry(version, body));
+        }
+        return body;
+    }
+
+    public byte[] encode(PayloadFormat format, Object value) {
+        try {
+            return mapper(format).writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode response as " + format, e);
+        }
+    }
+
+    public void invalidate(String boardId) {
+        for (Kind kind : Kind.values()) {
+            for (PayloadFormat format : PayloadFormat.values()) {
+                Entry removed = entries.remove(new Key(boardId, kind, format));
+                if (removed != null) {
+                    bytes.addAndGet(-removed.body().length);
+                    invalidations.increment();
+                }
+            }
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), invalidations.sum(), evictions.sum(), entries.size(), bytes.get());
+    }
+
+    private void store(Key key, Entry entry) {
+        // a slower load of an older version never replaces a newer body
+        entries.compute(key, (k, existing) -> {
+            if (existing != null && existing.version() > entry.version()) {
+                return existing;
+            }
+            bytes.addAndGet(entry.body().length - (existing == null ? 0 : existing.body().length));
+            return entry;
+        });
+        evictIfFull();
+    }
+
+    private void evictIfFull() {
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (bytes.get() > maxBytes && iterator.hasNext()) {
+            Map.Entry<Key, Entry> next = iterator.next();
+            if (entries.remove(next.getKey(), next.getValue())) {
+                bytes.addAndGet(-next.getValue().body().length);
+                evictions.increment();
+            }
+        }
+    }
+
+    // the converters' own mappers, so a cached body is byte-for-byte what the converter would have written
+    private ObjectMapper mapper(PayloadFormat format) {
+        return switch (format) {
+            case JSON -> objectMapper;
+            case CBOR -> cborConverter.getObjectMapper();
+            case SMILE -> smileConverter.getObjectMapper();
+        };
+    }
+}
@@ -1,14 +1,18 @@
 package com.project.planpulse.service;
 
-import com.project.planpulse.model.Board;
-import com.project.planpulse.model.Task;
-import com.project.planpulse.model.User;
+import com.project.planpulse.dto.BoardChanges;
+import com.project.planpulse.model.*;
 import com.project.planpulse.repository.BoardRepository;
 import com.project.planpulse.repository.TaskRepository;
+import com.project.planpulse.repository.TaskTombstoneRepository;
 import com.project.planpulse.repository.UserRepository;
+import com.project.planpulse.service.BoardAccessIndex.BoardAccess;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -24,6 +28,21 @@ public class BoardService {
     @Autowired
     private TaskRepository taskRepository;
 
+    @Autowired
+    private TaskTombstoneRepository taskTombstoneRepository;
+
+    @Autowired
+    private BoardAccessIndex boardAccessIndex;
+
+    @Autowired
+    private BoardChangeFeed boardChangeFeed;
+
+    @Autowired
+    private BoardPayloadCache boardPayloadCache;
+
+    @Autowired
+    private TaskSearchIndex taskSearchIndex;
+
     public List<Board> getBoardsForUser(String userId) {
         if (!userRepository.existsById(userId)) {
             throw new RuntimeException("User not found");
@@ -38,102 +57,180 @@ public class BoardService {
         return new ArrayList<>(allBoards);
     }
 
+    // identifies the user's board list for its ETag: a digest of every board id and version, read without loading
+    // the boards
+    public String getBoardsDigest(String userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
+        Map<String, Long> versions = new TreeMap<>();
+        boardRepository.findVersionsByCreatorId(userId).forEach(board -> versions.put(board.getId(), board.getVersion()));
+        boardRepository.findVersionsByCollaborator(userId).forEach(board -> versions.put(board.getId(), board.getVersion()));
+        MessageDigest digest = sha256();
+        versions.forEach((boardId, version) -> digest.update((boardId + ":" + version + "\n").getBytes(StandardCharsets.US_ASCII)));
+        return HexFormat.of().formatHex(digest.digest(), 0, 16);
+    }
+
     public Board createBoard(Board board, String userId) {
         board.setCreatedAt(new Date());
         board.setUpdatedAt(new Date());
         board.setCreatorId(userId);
         board.setCollaboratorIds(new ArrayList<>());
-        board.setTaskIds(new ArrayList<>());
+        board.setStats(new BoardStats());
+        board.setVersion(0);
+        board.setPendingWrites(new ArrayList<>());
         board = boardRepository.save(board);
-        User user = userRepository.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
-        if (user.getBoardIds() == null) user.setBoardIds(new ArrayList<>());
-        user.getBoardIds().add(board.getId());
-        userRepository.save(user);
+        if (!userRepository.addBoardId(userId, board.getId())) {
+            boardRepository.deleteById(board.getId());
+            throw new RuntimeException("User not found");
+        }
+        boardAccessIndex.onBoardCreated(board.getId(), userId);
         return board;
     }
 
     public Board getBoardById(String boardId, String requesterId) {
-        Board board = boardRepository.findById(boardId).orElseThrow(() -> new RuntimeException("Board not found"));
-        validateAddPermission(board, requesterId);
-        return board;
+        validateAddPermission(boardId, requesterId, "Board not found");
+        return boardRepository.findById(boardId).orElseThrow(() -> new RuntimeException("Board not found"));
+    }
+
+    // every change to the board or its tasks moves the board version, so it tags the board and its task list alike
+    public long getBoardVersion(String boardId, String requesterId) {
+        validateAddPermission(boardId, requesterId, "Board not found");
+        Board board = boardRepository.findVersionById(boardId).orElseThrow(() -> new RuntimeException("Board not found"));
+        return board.getVersion();
     }
 
     // add a collaborator by email or username
     public Board addCollaborator(String requesterId, String boardId, String identifier) {
-        Board board = boardRepository.findById(boardId).orElseThrow(() -> new RuntimeException("Board not found"));
-        validateAddPermission(board, requesterId);
+        validateAddPermission(boardId, requesterId, "Board not found");
         User user;
         if (isEmail(identifier)) {
-            user = userRepository.findByEmail(identifier)
+            user = userRepository.findIdByEmail(identifier)
                     .orElseThrow(() -> new RuntimeException("Invalid user credentials"));
         } else {
-            user = userRepository.findByUsername(identifier)
+            user = userRepository.findIdByUsername(identifier)
                     .orElseThrow(() -> new RuntimeException("Invalid user credentials"));
         }
-
-        if (board.getCollaboratorIds() == null) {
-            board.setCollaboratorIds(new ArrayList<>());
+        if (user.getId().equals(requesterId)) {
+            throw new RuntimeException("The user already has access to the board.");
         }
-        if (!board.getCollaboratorIds().contains(user.getId()) && !user.getId().equals(requesterId)) {
-            board.getCollaboratorIds().add(user.getId());
-            board.setUpdatedAt(new Date());
-            board = boardRepository.save(board);
-            if (user.getBoardIds() == null) user.setBoardIds(new ArrayList<>());
-            user.getBoardIds().add(board.getId());
-            userRepository.save(user);
-            return board;
-        } else {
+        // $addToSet guarded by the filter; no match means the user already has access
+        Board board = boardRepository.addCollaborator(boardId, user.getId());
+        if (board == null) {
             throw new RuntimeException("The user already has access to the board.");
         }
+        boardAccessIndex.onMemberAdded(boardId, user.getId());
+        userRepository.addBoardId(user.getId(), boardId);
+        boardPayloadCache.invalidate(boardId);
+        boardChangeFeed.boardUpdated(board);
+        return board;
     }
 
     // add a new task to a board
     public Task addTaskToBoard(String boardId, Task newTask, String requesterId) {
-        Board board = boardRepository.findById(boardId)
-                .orElseThrow(() -> new RuntimeException("Board not found"));
-
         // requester must have permission to the board
-        validateAddPermission(board, requesterId);
+        validateAddPermission(boardId, requesterId, "Board not found");
+        if (newTask.getStatus() == null || !Task.STATUSES.contains(newTask.getStatus())) {
+            throw new RuntimeException("Invalid task status");
+        }
 
+        long version = boardRepository.beginWrite(boardId);
+        if (version == 0) {
+            throw new RuntimeException("Board not found");
+        }
+        newTask.setId(null); // always create, never overwrite an existing task
         newTask.setBoardId(boardId);
         newTask.setReporterId(requesterId);
         newTask.setCreatedAt(new Date());
         newTask.setUpdatedAt(new Date());
-        Task savedTask = taskRepository.save(newTask);
-
-        // adding the task ID to the board's taskIds
-        if (board.getTaskIds() == null) board.setTaskIds(new ArrayList<>());
-        board.getTaskIds().add(savedTask.getId());
-        board.setUpdatedAt(new Date());
-        boardRepository.save(board);
+        newTask.setVersion(version);
+        Task savedTask;
+        boolean released = false;
+        try {
+            savedTask = taskRepository.insert(newTask);
+            // membership is Task.boardId; the board only keeps its counters current
+            boardRepository.recordTasksAdded(boardId, version, Map.of(savedTask.getStatus(), 1L), savedTask.getTimeSpent());
+            released = true;
+        } finally {
+            if (!released) {
+                boardRepository.endWrite(boardId, version);
+            }
+        }
+        boardPayloadCache.invalidate(boardId);
+        taskSearchIndex.index(savedTask);
+        boardChangeFeed.taskCreated(savedTask);
 
         return savedTask;
     }
 
+    // subscribe before loading the board, so no change falls between the load and the first event
+    public BoardChangeFeed.Subscription subscribeToChanges(String boardId, String lastEventId, String requesterId) {
+        validateAddPermission(boardId, requesterId, "Board not found");
+        return boardChangeFeed.subscribe(boardId, lastEventId);
+    }
+
+    // delta sync: the tasks created, updated or deleted after the client's version
+    public BoardChanges getChangesSince(String boardId, long since, String requesterId) {
+        validateAddPermission(boardId, requesterId, "Board not found");
+        // the board is read before the tasks: every write at or below the returned version has landed by now
+        Board board = boardRepository.findById(boardId).orElseThrow(() -> new RuntimeException("Board not found"));
+        long version = syncedVersion(board);
+        if (since <= 0 || since > board.getVersion()) {
+            return new BoardChanges(version, true, board, taskRepository.findByBoardId(boardId), List.of());
+        }
+        List<Task> tasks = taskRepository.findByBoardIdAndVersionGreaterThanOrderByVersionAsc(boardId, since);
+        List<TaskTombstone> deleted = taskTombstoneRepository.findByBoardIdAndVersionGreaterThanOrderByVersionAsc(boardId, since);
+        return new BoardChanges(version, false, board.getVersion() > since ? board : null, tasks, deleted);
+    }
+
+    // the board's version, held back below the oldest task write that took a version but has not finished
+    static long syncedVersion(Board board) {
+        long version = board.getVersion();
+        if (board.getPendingWrites() != null) {
+            long expired = System.currentTimeMillis() - PendingWrite.TIMEOUT_MS;
+            for (PendingWrite pending : board.getPendingWrites()) {
+                if (pending.getStartedAt() == null || pending.getStartedAt().getTime() >= expired) {
+                    version = Math.min(version, pending.getVersion() - 1);
+                }
+            }
+        }
+        return version;
+    }
+
     public List<String> getCollaboratorUsernames(String boardId, String requesterId) {
-        Board board = boardRepository.findById(boardId).orElseThrow(() -> new RuntimeException("No such board"));
+        validateAddPermission(boardId, requesterId, "No such board");
+        Board board = boardRepository.findAccessById(boardId).orElseThrow(() -> new RuntimeException("No such board"));
         List<String> collaboratorIds = board.getCollaboratorIds();
         if (collaboratorIds == null || collaboratorIds.isEmpty()) {
             return new ArrayList<>();
         }
-        validateAddPermission(board, requesterId);
+        // resolve all collaborators in one query, then restore the board's ordering
+        Map<String, String> usernamesById = userRepository.findUsernamesByIdIn(collaboratorIds).stream()
+                .collect(Collectors.toMap(User::getId, User::getUsername));
         return collaboratorIds.stream()
-                .map(
-                        userId -> userRepository.findById(userId)
-                                .map(User::getUsername)
-                                .orElse(null) // for cases where a user might be deleted
-                )
-                .filter(Objects::nonNull) // filter out null values
+                .map(usernamesById::get)
+                .filter(Objects::nonNull) // for cases where a user might be deleted
                 .collect(Collectors.toList());
     }
 
-    private void validateAddPermission(Board board, String requesterId) {
-        if (!board.getCreatorId().equals(requesterId) &&
-                (board.getCollaboratorIds() == null || !board.getCollaboratorIds().contains(requesterId))) {
+    private void validateAddPermission(String boardId, String requesterId, String notFoundMessage) {
+        BoardAccess access = boardAccessIndex.lookup(boardId);
+        if (access == null) {
+            throw new RuntimeException(notFoundMessage);
+        }
+        if (!access.allows(requesterId)) {
             throw new RuntimeException("Permission denied: The user does not have access to add to this board.");
         }
     }
 
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     private boolean isEmail(String identifier) {
         String emailRegex = "^[A-Za-z0-9+_.-]+@[A-Za-z0-9.-]+$";
         return identifier.matches(emailRegex);
@@ -0,0 +1,79 @@
+package com.project.planpulse.service;
+
+import com.project.planpulse.model.Board;
+import com.project.planpulse.repository.BoardRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+// fills in the stats sub-document for boards created before the counters were introduced, and drops the task id
+// array those boards used to carry
+@Component
+public class BoardStatsBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(BoardStatsBackfill.class);
+    private static final int MAX_RETRY_PASSES = 5;
+    private static final long RETRY_DELAY_MS = 1000;
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillInBackground() {
+        Thread.ofVirtual().name("board-stats-backfill").start(this::backfill);
+    }
+
+    void backfill() {
+        long dropped;
+        try {
+            dropped = boardRepository.dropLegacyTaskIds();
+        } catch (RuntimeException e) {
+            log.warn("Dropping legacy board task ids failed", e);
+            dropped = 0;
+        }
+        if (dropped > 0) {
+            log.info("Dropped legacy task ids from {} boards", dropped);
+        }
+
+        int rebuilt = 0;
+        // boards with a task write in flight are retried once the writes have had time to land
+        List<String> busy = new ArrayList<>();
+        try (Stream<Board> boards = boardRepository.streamIdsWithoutStats()) {
+            Iterator<Board> iterator = boards.iterator();
+            while (iterator.hasNext()) {
+                String boardId = iterator.next().getId();
+                if (boardRepository.rebuildStats(boardId)) {
+                    rebuilt++;
+                } else {
+                    busy.add(boardId);
+                }
+            }
+            for (int pass = 1; pass <= MAX_RETRY_PASSES && !busy.isEmpty(); pass++) {
+                Thread.sleep(RETRY_DELAY_MS * pass);
+                int before = busy.size();
+                busy.removeIf(boardRepository::rebuildStats);
+                rebuilt += before - busy.size();
+            }
+        } catch (RuntimeException e) {
+            log.warn("Board stats backfill stopped after {} boards", rebuilt, e);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (rebuilt > 0) {
+            log.info("Rebuilt stats for {} boards", rebuilt);
+        }
+        if (!busy.isEmpty()) {
+            log.warn("Board stats backfill left {} busy boards for the next start", busy.size());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.project.planpulse.service;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// conditional GET for the board and task reads: the controller computes the ETag from the board versions alone, and
+// a client that still has that representation gets a bodiless 304 before the board or its tasks are loaded
+@Component
+public class ConditionalReads {
+
+    public enum Resource {
+        BOARD, BOARD_LIST, TASK_LIST
+    }
+
+    public record Stats(long notModified, long full) {
+    }
+
+    private final Map<Resource, LongAdder> notModified = new EnumMap<>(Resource.class);
+    private final Map<Resource, LongAdder> full = new EnumMap<>(Resource.class);
+
+    public ConditionalReads() {
+        for (Resource resource : Resource.values()) {
+            notModified.put(resource, new LongAdder());
+            full.put(resource, new LongAdder());
+        }
+    }
+
+    // sets the ETag (and a 304 when If-None-Match matches it); the caller returns without a body when this is true
+    public boolean notModified(ServletWebRequest request, String etag, Resource resource) {
+        // the client may keep the response but has to revalidate before using it; the data is per user, and the
+        // encoding follows Accept
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        request.getResponse().addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (request.checkNotModified(etag)) {
+            notModified.get(resource).increment();
+            return true;
+        }
+        full.get(resource).increment();
+        return false;
+    }
+
+    public Stats stats(Resource resource) {
+        return new Stats(notModified.get(resource).sum(), full.get(resource).sum());
+    }
+}
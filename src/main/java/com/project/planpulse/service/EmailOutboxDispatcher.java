@@ -0,0 +1,172 @@
+package com.project.planpulse.service;
+
+import com.project.planpulse.model.EmailOutboxMessage;
+import com.project.planpulse.repository.EmailOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// delivers the email outbox in the background: claims due messages in batches and hands each batch to
+// a single send call, so the SMTP connection is opened once per batch instead of once per message
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    public record Stats(long sent, long failedAttempts, long abandoned, long batches) {
+    }
+
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Value("${spring.mail.username}")
+    private String fromAddress;
+
+    @Value("${app.email-outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.email-outbox.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${app.email-outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${app.email-outbox.retry-base-seconds:30}")
+    private long retryBaseSeconds;
+
+    @Value("${app.email-outbox.retry-max-seconds:3600}")
+    private long retryMaxSeconds;
+
+    private final String workerId = UUID.randomUUID().toString();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("email-outbox").factory());
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failedAttempts = new LongAdder();
+    private final LongAdder abandoned = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    public void wakeUp() {
+        if (drainQueued.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    // picks up retries that became due and messages left behind by a restart
+    @Scheduled(initialDelayString = "${app.email-outbox.poll-interval-ms:15000}", fixedDelayString = "${app.email-outbox.poll-interval-ms:15000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public Stats stats() {
+        return new Stats(sent.sum(), failedAttempts.sum(), abandoned.sum(), batches.sum());
+    }
+
+    void drain() {
+        drainQueued.set(false);
+        try {
+            List<EmailOutboxMessage> batch;
+            do {
+                batch = outboxRepository.claimBatch(workerId, batchSize, leaseUntil());
+                if (!batch.isEmpty()) {
+                    send(batch);
+                }
+            } while (batch.size() == batchSize);
+        } catch (RuntimeException e) {
+            log.warn("Could not claim outbox messages", e);
+        }
+    }
+
+    private void send(List<EmailOutboxMessage> batch) {
+        batches.increment();
+        Map<MimeMessage, EmailOutboxMessage> byMime = new IdentityHashMap<>();
+        for (EmailOutboxMessage message : batch) {
+            try {
+                byMime.put(toMime(message), message);
+            } catch (MessagingException | RuntimeException e) {
+                // a malformed address or body will not get better on retry
+                fail(message, e, true);
+            }
+        }
+        if (byMime.isEmpty()) {
+            return;
+        }
+        Map<Object, Exception> failed = Map.of();
+        try {
+            mailSender.send(byMime.keySet().toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            // per-message failures, or every message not yet sent when the connection broke
+            failed = e.getFailedMessages();
+        } catch (RuntimeException e) {
+            Map<Object, Exception> all = new IdentityHashMap<>();
+            byMime.keySet().forEach(mime -> all.put(mime, e));
+            failed = all;
+        }
+        for (Map.Entry<MimeMessage, EmailOutboxMessage> entry : byMime.entrySet()) {
+            EmailOutboxMessage message = entry.getValue();
+            Exception error = failed.get(entry.getKey());
+            if (error != null) {
+                fail(message, error, false);
+            } else if (outboxRepository.markSent(message.getId(), workerId)) {
+                sent.increment();
+            } else {
+                log.warn("Outbox message {} was sent after its lease expired", message.getId());
+            }
+        }
+    }
+
+    private MimeMessage toMime(EmailOutboxMessage message) throws MessagingException {
+        MimeMessage mime = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(mime, false, "UTF-8");
+        helper.setFrom(fromAddress);
+        helper.setTo(message.getToAddress());
+        helper.setSubject(message.getSubject());
+        helper.setText(message.getBody());
+        return mime;
+    }
+
+    private void fail(EmailOutboxMessage message, Exception error, boolean permanent) {
+        boolean finalAttempt = permanent || message.getAttempts() >= maxAttempts;
+        outboxRepository.markAttemptFailed(message.getId(), workerId, error.getMessage(), retryAt(message.getAttempts()), finalAttempt);
+        failedAttempts.increment();
+        if (finalAttempt) {
+            abandoned.increment();
+            log.warn("Giving up on outbox message {} after {} attempts", message.getId(), message.getAttempts(), error);
+        } else {
+            log.info("Outbox message {} failed (attempt {}): {}", message.getId(), message.getAttempts(), error.getMessage());
+        }
+    }
+
+    // exponential backoff: base, 2x base, 4x base ... capped at retry-max-seconds
+    private Date retryAt(int attempts) {
+        int shift = Math.min(Math.max(attempts - 1, 0), 20);
+        long delaySeconds = Math.min(retryBaseSeconds << shift, retryMaxSeconds);
+        return new Date(System.currentTimeMillis() + delaySeconds * 1000);
+    }
+
+    private Date leaseUntil() {
+        return new Date(System.currentTimeMillis() + leaseSeconds * 1000);
+    }
+}
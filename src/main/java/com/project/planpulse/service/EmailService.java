@@ -1,10 +1,9 @@
 package com.project.planpulse.service;
 
+import com.project.planpulse.model.EmailOutboxMessage;
+import com.project.planpulse.repository.EmailOutboxRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.MailException;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -12,23 +11,17 @@ public class EmailService {
     @Value("${app.reset-password-url}")
     private String resetPasswordUrl; // <web-url>/reset-password?token=
 
-    @Value("${spring.mail.username}")
-    private String username;
+    @Autowired
+    private EmailOutboxRepository outboxRepository;
 
     @Autowired
-    private JavaMailSender mailSender;
+    private EmailOutboxDispatcher outboxDispatcher;
 
+    // only writes to the outbox; delivery and retries happen in EmailOutboxDispatcher
     public void sendPasswordResetEmail(String toEmail, String token) throws RuntimeException {
-        try {
-            String resetLink = resetPasswordUrl + token;
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setFrom(username);
-            message.setTo(toEmail);
-            message.setSubject("Password Reset Request");
-            message.setText("You requested a password reset. Click the link to reset your password: " + resetLink);
-            mailSender.send(message);
-        } catch (MailException e) {
-            throw new RuntimeException("Failed to send email", e);
-        }
+        String resetLink = resetPasswordUrl + token;
+        outboxRepository.save(new EmailOutboxMessage(toEmail, "Password Reset Request",
+                "You requested a password reset. Click the link to reset your password: " + resetLink));
+        outboxDispatcher.wakeUp();
     }
 }
@@ -0,0 +1,146 @@
+package com.project.planpulse.service;
+
+import com.project.planpulse.exception.ServiceBusyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+// BCrypt on a fixed pool sized to the cores with a bounded queue, so a login burst cannot starve cheap requests
+@Service
+public class PasswordHashingService {
+
+    public record Stats(int queueDepth, int activeHashes, long completed, long rejected, long hashNanosTotal, long hashNanosMax) {
+    }
+
+    @Value("${security.password.bcrypt-strength:10}")
+    private int strength;
+
+    @Value("${security.password.hashing-threads:0}")
+    private int threads; // 0 means one per available core
+
+    @Value("${security.password.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${security.password.retry-after-seconds:1}")
+    private int retryAfterSeconds;
+
+    @Value("${security.password.upgrade-on-login:false}")
+    private boolean upgradeOnLogin;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BCryptPasswordEncoder encoder;
+    private Timer hashTimer;
+    private ThreadPoolExecutor pool;
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder hashNanosTotal = new LongAdder();
+    private final AtomicInteger active = new AtomicInteger();
+    private volatile long hashNanosMax = 0;
+
+    @PostConstruct
+    void start() {
+        encoder = new BCryptPasswordEncoder(strength);
+        // a hash takes tens of milliseconds, so a histogram timer per hash costs nothing noticeable
+        hashTimer = Timer.builder("planpulse.password.hash")
+                .description("BCrypt encode/verify time on the hashing pool")
+                .tag("strength", String.valueOf(strength))
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        pool = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void stop() {
+        pool.shutdownNow();
+    }
+
+    public String encode(String rawPassword) {
+        return await(submit(() -> encoder.encode(rawPassword)));
+    }
+
+    public boolean matches(String rawPassword, String encodedPassword) {
+        return await(submit(() -> encoder.matches(rawPassword, encodedPassword)));
+    }
+
+    // rehashes at the configured cost in the background when a stored hash is weaker; skipped when the pool is busy
+    public void upgradeIfWeaker(String rawPassword, String encodedPassword, Consumer<String> onUpgraded) {
+        if (!upgradeOnLogin || encodedPassword == null || !encoder.upgradeEncoding(encodedPassword)) {
+            return;
+        }
+        try {
+            submit(() -> {
+                onUpgraded.accept(encoder.encode(rawPassword));
+                return null;
+            });
+        } catch (ServiceBusyException e) {
+            // the upgrade is retried on a later login
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(pool.getQueue().size(), active.get(), completed.sum(), rejected.sum(), hashNanosTotal.sum(), hashNanosMax);
+    }
+
+    private <T> Future<T> submit(Callable<T> hash) {
+        try {
+            return pool.submit(() -> {
+                active.incrementAndGet();
+                long start = System.nanoTime();
+                try {
+                    return hash.call();
+                } finally {
+                    recordHash(System.nanoTime() - start);
+                    active.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceBusyException("The server is busy, please retry shortly", retryAfterSeconds);
+        }
+    }
+
+    private void recordHash(long nanos) {
+        completed.increment();
+        hashTimer.record(nanos, TimeUnit.NANOSECONDS);
+        hashNanosTotal.add(nanos);
+        if (nanos > hashNanosMax) {
+            hashNanosMax = nanos;
+        }
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.project.planpulse.service;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+// response encodings of the board and task reads; the binary ones carry the same fields as JSON with less
+// bytes on the wire and cheaper parsing for clients that ask for them in Accept
+public enum PayloadFormat {
+
+    JSON(MediaType.APPLICATION_JSON, null),
+    CBOR(MediaType.APPLICATION_CBOR, "cbor"),
+    SMILE(new MediaType("application", "x-jackson-smile"), "smile");
+
+    private final MediaType mediaType;
+    private final String etagSuffix;
+
+    PayloadFormat(MediaType mediaType, String etagSuffix) {
+        this.mediaType = mediaType;
+        this.etagSuffix = etagSuffix;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    // the same data in another encoding is another representation, so it gets its own ETag
+    public String etag(String value) {
+        return etagSuffix == null ? "\"" + value + "\"" : "\"" + value + "-" + etagSuffix + "\"";
+    }
+
+    // the highest-quality encoding named in Accept; JSON for wildcards, anything unknown or no header at all
+    public static PayloadFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        PayloadFormat best = JSON;
+        double bestQuality = 0;
+        try {
+            for (MediaType accepted : MediaType.parseMediaTypes(accept)) {
+                PayloadFormat format = match(accepted);
+                if (format != null && accepted.getQualityValue() > bestQuality) {
+                    best = format;
+                    bestQuality = accepted.getQualityValue();
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        return best;
+    }
+
+    private static PayloadFormat match(MediaType accepted) {
+        for (PayloadFormat format : values()) {
+            if (format != JSON && accepted.equalsTypeAndSubtype(format.mediaType)) {
+                return format;
+            }
+        }
+        return accepted.includes(MediaType.APPLICATION_JSON) ? JSON : null;
+    }
+}
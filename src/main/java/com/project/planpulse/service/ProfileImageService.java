@@ -0,0 +1,326 @@
+package com.project.planpulse.service;
+
+import com.project.planpulse.model.User;
+import com.project.planpulse.repository.UserRepository;
+import com.project.planpulse.storage.BlobStore;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// serves profile images with strong content-hash ETags, conditional GET, single byte ranges and zero-copy writes;
+// the resolved file, MIME type and hash are cached per user so a render does not touch Mongo or rehash the file
+@Service
+public class ProfileImageService {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // localPath is null when the blob store is remote. variantsGenerated is ProfileImageVariants.generatedCount() when
+    // the image was loaded: an original cached for a size whose variant did not exist yet is reloaded once it moves
+    record ProfileImage(String blobKey, Path localPath, String mediaType, String etag, long lastModified, long length,
+                        long originalLength, boolean variant, long variantsGenerated) {
+        String filename() {
+            return blobKey.substring(blobKey.lastIndexOf('/') + 1);
+        }
+
+        ProfileImage withVariantsGenerated(long generated) {
+            return new ProfileImage(blobKey, localPath, mediaType, etag, lastModified, length, originalLength, variant, generated);
+        }
+    }
+
+    // size 0 is the original upload
+    private record Key(String userId, int size) {
+    }
+
+    public record Stats(long hits, long misses, long notModified, long partial, long sendfile, int size) {
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProfileImageVariants variants;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Value("${app.profile-image.cache-max-entries:50000}")
+    private int maxEntries;
+
+    @Value("${app.profile-image.max-age-seconds:31536000}")
+    private long maxAgeSeconds;
+
+    private final ConcurrentHashMap<Key, ProfileImage> images = new ConcurrentHashMap<>();
+    // bumped by every eviction so a miss-load racing with an image change never caches the old file
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+    private final LongAdder partial = new LongAdder();
+    private final LongAdder sendfile = new LongAdder();
+
+    // size picks a pre-generated variant; version is the ETag value the client last saw, and when it matches
+    // the response may be cached for good
+    public void serve(String userId, Integer size, String version, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        ProfileImage image = resolve(userId, variants.pickSize(size));
+        String etagValue = image.etag().substring(1, image.etag().length() - 1);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, etagValue.equals(version)
+                ? "private, max-age=" + maxAgeSeconds + ", immutable"
+                : "private, no-cache");
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(image.etag(), image.lastModified())) {
+            notModified.increment();
+            return;
+        }
+
+        long start = 0;
+        long end = image.length() - 1;
+        HttpRange range = requestedRange(request, image);
+        if (range != null) {
+            try {
+                start = range.getRangeStart(image.length());
+                end = range.getRangeEnd(image.length());
+                if (start >= image.length() || start > end) {
+                    throw new IllegalArgumentException("Range outside of the file");
+                }
+            } catch (IllegalArgumentException e) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + image.length());
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + image.length());
+            partial.increment();
+        }
+        long count = end - start + 1;
+        response.setContentType(image.mediaType());
+        response.setContentLengthLong(count);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + image.filename() + "\"");
+        if ("HEAD".equals(request.getMethod()) || count == 0) {
+            return;
+        }
+        if (image.variant()) {
+            variants.recordVariantServed(image.originalLength(), image.length());
+        }
+
+        if (image.localPath() == null) {
+            copyRemote(userId, image, start, count, response);
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // tomcat writes the file with sendfile once the request returns
+            request.setAttribute(SENDFILE_FILENAME, image.localPath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            sendfile.increment();
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(image.localPath(), StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            long remaining = count;
+            while (remaining > 0) {
+                long written = channel.transferTo(position, remaining, out);
+                if (written <= 0) {
+                    break;
+                }
+                position += written;
+                remaining -= written;
+            }
+        } catch (NoSuchFileException e) {
+            evict(userId);
+            throw new RuntimeException("File not found or not readable: " + image.filename());
+        }
+    }
+
+    private void copyRemote(String userId, ProfileImage image, long start, long count, HttpServletResponse response) throws IOException {
+        try (ReadableByteChannel channel = blobStore.open(image.blobKey(), start)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+            long remaining = count;
+            while (remaining > 0) {
+                buffer.clear();
+                if (remaining < buffer.capacity()) {
+                    buffer.limit((int) remaining);
+                }
+                int read = channel.read(buffer);
+                if (read == -1) {
+                    break;
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                remaining -= read;
+            }
+        } catch (IOException e) {
+            if (!response.isCommitted()) {
+                evict(userId);
+                throw new RuntimeException("File not found or not readable: " + image.filename());
+            }
+            throw e;
+        }
+    }
+
+    public void evict(String userId) {
+        generation.incrementAndGet();
+        images.remove(new Key(userId, 0));
+        for (int size : variants.sizes()) {
+            images.remove(new Key(userId, size));
+        }
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), notModified.sum(), partial.sum(), sendfile.sum(), images.size());
+    }
+
+    ProfileImage resolve(String userId, int size) {
+        Key key = new Key(userId, size);
+        ProfileImage image = images.get(key);
+        if (image != null) {
+            if (size != 0 && !image.variant() && image.variantsGenerated() != variants.generatedCount()) {
+                // served the original while the variant was missing, and variants have been generated since
+                images.remove(key, image);
+            } else if (image.localPath() == null || Files.isReadable(image.localPath())) {
+                hits.increment();
+                return image;
+            } else {
+                // the file went away underneath us (replaced on another node, cleaned up by hand)
+                images.remove(key, image);
+            }
+        }
+        misses.increment();
+        long observed = generation.get();
+        long variantsGenerated = variants.generatedCount();
+        image = size == 0 ? null : originalWithoutVariant(userId, size, variantsGenerated);
+        if (image == null) {
+            image = load(userId, size, variantsGenerated);
+        }
+        if (images.putIfAbsent(key, image) == null) {
+            if (generation.get() != observed) {
+                images.remove(key, image);
+            } else {
+                evictIfFull();
+            }
+        }
+        return image;
+    }
+
+    // the cached original when the variant for size has not been generated yet, so the fallback needs no Mongo read
+    // or hashing; null when the original is not cached or the variant exists
+    private ProfileImage originalWithoutVariant(String userId, int size, long variantsGenerated) {
+        ProfileImage original = images.get(new Key(userId, 0));
+        if (original == null || variants.find(original.blobKey(), size) != null) {
+            return null;
+        }
+        return original.withVariantsGenerated(variantsGenerated);
+    }
+
+    private ProfileImage load(String userId, int size, long variantsGenerated) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+
+        // profile image URL
+        String profileImageUrl = user.getProfileImageUrl();
+        if (profileImageUrl == null || profileImageUrl.isBlank() || !profileImageUrl.startsWith(UserService.UPLOAD_DIR)) {
+            throw new RuntimeException("No profile image found");
+        }
+        String blobKey = profileImageUrl.substring(UserService.UPLOAD_DIR.length());
+        MediaType mediaType = UserService.imageMediaType(blobKey);
+        if (mediaType == null) {
+            throw new RuntimeException("Unsupported file format: " + blobKey);
+        }
+
+        try {
+            BlobStore.StoredBlob original = blobStore.stat(blobKey);
+            if (original == null) {
+                throw new RuntimeException("File not found or not readable: " + blobKey);
+            }
+            String variantKey = size == 0 ? null : variants.find(blobKey, size);
+            BlobStore.StoredBlob served = variantKey == null ? null : blobStore.stat(variantKey);
+            if (served == null) {
+                served = original;
+            } else {
+                mediaType = UserService.imageMediaType(variantKey);
+            }
+            // content-addressed keys carry their hash; older files and variants are hashed once here
+            String hash = served == original ? BlobStore.contentHash(blobKey) : null;
+            if (hash == null) {
+                hash = contentHash(served.key());
+            }
+            return new ProfileImage(served.key(), served.localPath(), mediaType.toString(), "\"" + hash + "\"",
+                    served.lastModified(), served.size(), original.size(), served != original, variantsGenerated);
+        } catch (IOException e) {
+            throw new RuntimeException("File not found or not readable: " + blobKey);
+        }
+    }
+
+    // If-Range with a stale validator means the client's partial copy is outdated, so it gets the whole file
+    private HttpRange requestedRange(HttpServletRequest request, ProfileImage image) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null) {
+            return null;
+        }
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(image.etag())) {
+            long since = request.getDateHeader(HttpHeaders.IF_RANGE);
+            if (since < 0 || image.lastModified() / 1000 != since / 1000) {
+                return null;
+            }
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            // multipart/byteranges is not worth it for avatars; a multi-range request gets the full file
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private String contentHash(String blobKey) throws IOException {
+        try (InputStream in = Channels.newInputStream(blobStore.open(blobKey, 0))) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void evictIfFull() {
+        Iterator<Key> keys = images.keySet().iterator();
+        while (images.size() > maxEntries && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+}
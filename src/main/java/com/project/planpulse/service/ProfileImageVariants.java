@@ -0,0 +1,244 @@
+package com.project.planpulse.service;
+
+import jakarta.annotation.PreDestroy;
+import com.project.planpulse.storage.BlobStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+// pre-generates small avatar variants next to each uploaded original (abc.png -> abc@64.jpg), off the request thread;
+// they are stored as derived objects of the blob and deleted with it
+// opaque images become JPEG, images with transparency stay PNG
+@Component
+public class ProfileImageVariants {
+
+    private static final Logger log = LoggerFactory.getLogger(ProfileImageVariants.class);
+
+    public record Stats(int queued, int active, long generated, long failed, long variantResponses, long bytesSaved) {
+    }
+
+    private final int[] sizes;
+    private final float jpegQuality;
+    private final long maxPixels;
+    private final ThreadPoolExecutor executor;
+    private final BlobStore blobStore;
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder variantResponses = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    public ProfileImageVariants(BlobStore blobStore,
+                                @Value("${app.profile-image.variant-sizes:32,64,256}") int[] sizes,
+                                @Value("${app.profile-image.jpeg-quality:0.85}") float jpegQuality,
+                                @Value("${app.profile-image.max-pixels:40000000}") long maxPixels,
+                                @Value("${app.profile-image.resize-threads:2}") int threads,
+                                @Value("${app.profile-image.resize-queue-capacity:1000}") int queueCapacity) {
+        this.blobStore = blobStore;
+        this.sizes = Arrays.stream(sizes).sorted().toArray();
+        this.jpegQuality = jpegQuality;
+        this.maxPixels = maxPixels;
+        AtomicInteger threadCount = new AtomicInteger();
+        // resizing is CPU bound, so it gets a small pool of platform threads; when the queue is full the upload
+        // simply keeps serving its original
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-resize-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public void generateAsync(String blobKey) {
+        if (inFlight.add(blobKey)) {
+            try {
+                executor.execute(() -> {
+                    try {
+                        generate(blobKey);
+                    } finally {
+                        inFlight.remove(blobKey);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // queue full (or shutting down): the task never runs, so a later upload of the content may try again
+                inFlight.remove(blobKey);
+                log.debug("Resize queue full, no variants for {} for now", blobKey);
+            }
+        }
+    }
+
+    public int[] sizes() {
+        return sizes.clone();
+    }
+
+    // smallest configured variant that still covers the requested size, 0 (the original) when larger than all of them
+    public int pickSize(Integer requested) {
+        if (requested == null || requested <= 0) {
+            return 0;
+        }
+        for (int size : sizes) {
+            if (size >= requested) {
+                return size;
+            }
+        }
+        return 0;
+    }
+
+    // key of the variant, null while it has not been generated (yet)
+    public String find(String blobKey, int size) {
+        for (String extension : new String[]{".jpg", ".png"}) {
+            String variantKey = BlobStore.derivedKey(blobKey, size + extension);
+            try {
+                if (blobStore.stat(variantKey) != null) {
+                    return variantKey;
+                }
+            } catch (IOException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    // moves whenever a set of variants has been written
+    public long generatedCount() {
+        return generated.sum();
+    }
+
+    public void recordVariantServed(long originalLength, long variantLength) {
+        variantResponses.increment();
+        // a counter never goes down; variants are only kept when smaller, this guards against an original replaced since
+        bytesSaved.add(Math.max(0, originalLength - variantLength));
+    }
+
+    public Stats stats() {
+        return new Stats(executor.getQueue().size(), executor.getActiveCount(), generated.sum(), failed.sum(), variantResponses.sum(), bytesSaved.sum());
+    }
+
+    void generate(String blobKey) {
+        if (Arrays.stream(sizes).allMatch(size -> find(blobKey, size) != null)) {
+            // identical content uploaded before: the blob and its variants are shared
+            return;
+        }
+        try {
+            BufferedImage source = read(blobKey);
+            if (source == null) {
+                return;
+            }
+            BlobStore.StoredBlob original = blobStore.stat(blobKey);
+            boolean alpha = source.getColorModel().hasAlpha();
+            for (int size : sizes) {
+                BufferedImage resized = resize(source, size, alpha);
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                if (alpha) {
+                    ImageIO.write(resized, "png", out);
+                } else {
+                    writeJpeg(resized, out);
+                }
+                if (original != null && out.size() >= original.size()) {
+                    // a small or well-compressed original re-encodes larger; it is served as is for this size
+                    continue;
+                }
+                blobStore.writeDerived(blobKey, size + (alpha ? ".png" : ".jpg"), out.toByteArray());
+            }
+            generated.increment();
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+            log.warn("Failed to generate variants for {}", blobKey, e);
+        }
+    }
+
+    // decodes the original, or returns null when it should keep being served as is. The dimensions come from the
+    // header first: a small file can declare a huge canvas, and decoding it would allocate width x height pixels
+    private BufferedImage read(String blobKey) throws IOException {
+        try (InputStream in = Channels.newInputStream(blobStore.open(blobKey, 0));
+             ImageInputStream imageIn = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = imageIn == null ? null : ImageIO.getImageReaders(imageIn);
+            if (readers == null || !readers.hasNext()) {
+                // no ImageIO reader for this format (e.g. webp); the original keeps being served
+                log.debug("No image reader for {}, skipping variants", blobKey);
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageIn, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    failed.increment();
+                    log.warn("Image {} is {}x{}, over {} pixels, skipping variants", blobKey, reader.getWidth(0), reader.getHeight(0), maxPixels);
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // fits the image into size x size; downscales in halving steps, which keeps bilinear filtering from aliasing
+    static BufferedImage resize(BufferedImage source, int size, boolean alpha) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        double scale = Math.min(1.0, (double) size / Math.max(width, height));
+        int targetWidth = Math.max(1, (int) Math.round(width * scale));
+        int targetHeight = Math.max(1, (int) Math.round(height * scale));
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage current = source;
+        int currentWidth = width;
+        int currentHeight = height;
+        do {
+            currentWidth = Math.max(currentWidth / 2, targetWidth);
+            currentHeight = Math.max(currentHeight / 2, targetHeight);
+            BufferedImage next = new BufferedImage(currentWidth, currentHeight, type);
+            Graphics2D graphics = next.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(current, 0, 0, currentWidth, currentHeight, null);
+            graphics.dispose();
+            current = next;
+        } while (currentWidth != targetWidth || currentHeight != targetHeight);
+        return current;
+    }
+
+    private void writeJpeg(BufferedImage image, OutputStream out) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream imageOut = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(imageOut);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.project.planpulse.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.planpulse.dto.TaskImportResult;
+import com.project.planpulse.dto.TaskImportResult.RowError;
+import com.project.planpulse.model.Task;
+import com.project.planpulse.repository.BoardRepository;
+import com.project.planpulse.repository.TaskRepository;
+import com.project.planpulse.service.BoardAccessIndex.BoardAccess;
+import com.project.planpulse.util.CsvRecordReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+// bulk task import: the body is parsed row by row and inserted in batches, so memory is bounded for any upload size
+@Service
+public class TaskImportService {
+
+    public enum Format {NDJSON, CSV}
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_ROW_LENGTH = 64 * 1024;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final Set<String> PRIORITIES = Set.of("LOW", "MEDIUM", "HIGH");
+    private static final Set<String> CSV_COLUMNS = Set.of("title", "description", "assigneeId", "priority", "status", "timeSpent", "deadline");
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @Autowired
+    private BoardAccessIndex boardAccessIndex;
+
+    @Autowired
+    private BoardChangeFeed boardChangeFeed;
+
+    @Autowired
+    private BoardPayloadCache boardPayloadCache;
+
+    @Autowired
+    private TaskSearchIndex taskSearchIndex;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Validator validator;
+
+    public TaskImportResult importTasks(String boardId, InputStream body, Format format, String requesterId) throws IOException {
+        BoardAccess access = boardAccessIndex.lookup(boardId);
+        if (access == null) {
+            throw new RuntimeException("Board not found");
+        }
+        if (!access.allows(requesterId)) {
+            throw new RuntimeException("Permission denied: The user does not have access to add to this board.");
+        }
+        ImportRun run = new ImportRun(boardId, requesterId);
+        Reader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        if (format == Format.CSV) {
+            readCsv(reader, run);
+        } else {
+            readNdjson(reader, run);
+        }
+        run.flush();
+        return run.result();
+    }
+
+    private void readNdjson(Reader reader, ImportRun run) throws IOException {
+        StringBuilder line = new StringBuilder();
+        long row = 0;
+        while (true) {
+            line.setLength(0);
+            boolean tooLong = false;
+            int c;
+            while ((c = reader.read()) != -1 && c != '\n') {
+                if (line.length() < MAX_ROW_LENGTH) {
+                    line.append((char) c);
+                } else {
+                    tooLong = true;
+                }
+            }
+            if (c == -1 && line.isEmpty()) {
+                return;
+            }
+            row++;
+            if (tooLong) {
+                run.reject(row, "Row exceeds " + MAX_ROW_LENGTH + " characters");
+            } else if (!line.toString().isBlank()) {
+                try {
+                    run.accept(row, objectMapper.readValue(line.toString(), Task.class));
+                } catch (JsonProcessingException e) {
+                    run.reject(row, "Malformed JSON: " + e.getOriginalMessage());
+                }
+            }
+        }
+    }
+
+    private void readCsv(Reader reader, ImportRun run) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader, MAX_ROW_LENGTH);
+        List<String> header;
+        try {
+            header = csv.next();
+        } catch (CsvRecordReader.UnterminatedQuoteException | CsvRecordReader.RecordTooLongException e) {
+            throw new RuntimeException("Malformed CSV header: " + e.getMessage());
+        }
+        if (header == null) {
+            return;
+        }
+        header = header.stream().map(String::trim).collect(Collectors.toList());
+        if (!header.contains("title") || !CSV_COLUMNS.containsAll(header)) {
+            throw new RuntimeException("CSV header must include title and may only use: " + String.join(", ", new TreeSet<>(CSV_COLUMNS)));
+        }
+        while (true) {
+            List<String> record;
+            try {
+                record = csv.next();
+            } catch (CsvRecordReader.RecordTooLongException e) {
+                run.reject(csv.getRecordNumber() - 1, e.getMessage());
+                continue;
+            } catch (CsvRecordReader.UnterminatedQuoteException e) {
+                // the rest of the body went into that one field; the rows before it are still imported
+                run.reject(csv.getRecordNumber() - 1, "Unterminated quoted field");
+                return;
+            }
+            if (record == null) {
+                return;
+            }
+            long row = csv.getRecordNumber() - 1; // data rows are numbered from 1, after the header
+            if (record.size() == 1 && record.get(0).isBlank()) {
+                continue;
+            }
+            if (record.size() != header.size()) {
+                run.reject(row, "Expected " + header.size() + " columns but found " + record.size());
+                continue;
+            }
+            try {
+                run.accept(row, toTask(header, record));
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                run.reject(row, e.getMessage());
+            }
+        }
+    }
+
+    private Task toTask(List<String> header, List<String> record) {
+        Task task = new Task();
+        for (int i = 0; i < header.size(); i++) {
+            String value = record.get(i);
+            if (value.isEmpty()) {
+                continue;
+            }
+            switch (header.get(i)) {
+                case "title" -> task.setTitle(value);
+                case "description" -> task.setDescription(value);
+                case "assigneeId" -> task.setAssigneeId(value);
+                case "priority" -> task.setPriority(value);
+                case "status" -> task.setStatus(value);
+                case "timeSpent" -> {
+                    try {
+                        task.setTimeSpent(Long.parseLong(value.trim()));
+                    } catch (NumberFormatException e) {
+                        throw new IllegalArgumentException("timeSpent must be a whole number of minutes");
+                    }
+                }
+                case "deadline" -> task.setDeadline(parseDate(value.trim()));
+                default -> {
+                }
+            }
+        }
+        return task;
+    }
+
+    private Date parseDate(String value) {
+        if (value.length() == 10) {
+            return Date.from(LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant());
+        }
+        return Date.from(Instant.parse(value));
+    }
+
+    private String validate(Task task) {
+        Set<ConstraintViolation<Task>> violations = validator.validate(task);
+        if (!violations.isEmpty()) {
+            return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+        }
+        if (task.getStatus() == null || !Task.STATUSES.contains(task.getStatus())) {
+            return "Invalid task status";
+        }
+        if (task.getPriority() == null || !PRIORITIES.contains(task.getPriority())) {
+            return "Invalid task priority";
+        }
+        if (task.getTimeSpent() < 0) {
+            return "timeSpent cannot be negative";
+        }
+        return null;
+    }
+
+    // per-request state: the current batch and the running totals
+    private class ImportRun {
+        private final String boardId;
+        private final String requesterId;
+        private final List<Task> batch = new ArrayList<>(BATCH_SIZE);
+        private final List<RowError> errors = new ArrayList<>();
+        private long imported = 0;
+        private long failed = 0;
+
+        ImportRun(String boardId, String requesterId) {
+            this.boardId = boardId;
+            this.requesterId = requesterId;
+        }
+
+        void accept(long row, Task task) {
+            String error = validate(task);
+            if (error != null) {
+                reject(row, error);
+                return;
+            }
+            Date now = new Date();
+            task.setId(null);
+            task.setBoardId(boardId);
+            task.setReporterId(requesterId);
+            task.setCreatedAt(now);
+            task.setUpdatedAt(now);
+            batch.add(task);
+            if (batch.size() >= BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        void reject(long row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(row, message));
+            }
+        }
+
+        // one insertMany and one board counter update per batch
+        void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            long version = boardRepository.beginWrite(boardId);
+            if (version == 0) {
+                throw new RuntimeException("Board not found");
+            }
+            boolean released = false;
+            try {
+                batch.forEach(task -> task.setVersion(version));
+                taskRepository.insert(batch);
+                Map<String, Long> countsByStatus = new HashMap<>();
+                long timeSpent = 0;
+                for (Task task : batch) {
+                    countsByStatus.merge(task.getStatus(), 1L, Long::sum);
+                    timeSpent += task.getTimeSpent();
+                }
+                boardRepository.recordTasksAdded(boardId, version, countsByStatus, timeSpent);
+                released = true;
+            } finally {
+                if (!released) {
+                    boardRepository.endWrite(boardId, version);
+                }
+            }
+            boardPayloadCache.invalidate(boardId);
+            batch.forEach(taskSearchIndex::index);
+            // subscribers reload the board rather than receive hundreds of task events
+            boardChangeFeed.tasksImported(boardId, batch.size());
+            imported += batch.size();
+            batch.clear();
+        }
+
+        TaskImportResult result() {
+            return new TaskImportResult(imported, failed, errors, failed > errors.size());
+        }
+    }
+}
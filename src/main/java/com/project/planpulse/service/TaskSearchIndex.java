@@ -0,0 +1,502 @@
+package com.project.planpulse.service;
+
+import com.project.planpulse.exception.ServiceBusyException;
+import com.project.planpulse.model.Board;
+import com.project.planpulse.model.Task;
+import com.project.planpulse.repository.BoardRepository;
+import com.project.planpulse.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+// in-process full-text index over task titles and descriptions. Sharded by board: each board keeps a sorted term
+// dictionary (a prefix is a range scan) with postings of its own, so a search only touches the boards the requester
+// can see and writes to different boards never contend. Every query term must match, as a whole term or as a
+// prefix, and hits are ranked with BM25 over the searched boards. Tasks are indexed as they are written; on startup
+// the index is rebuilt from Mongo, several boards at a time, and searches get 503 until that finishes
+@Component
+public class TaskSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskSearchIndex.class);
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_WEIGHT = 2; // a title term counts as this many occurrences
+    private static final float PREFIX_WEIGHT = 0.5f; // an index term that only starts with the query term
+    private static final int MAX_EXPANSIONS = 64; // index terms one query term may match by prefix, per board
+    private static final int MAX_TERM_LENGTH = 40; // longer tokens are cut, they are ids or URLs rather than words
+    private static final int MAX_QUERY_TERMS = 8;
+    private static final int RETRY_AFTER_SECONDS = 5;
+
+    public record Hits(int matched, List<String> taskIds) {
+    }
+
+    public record Stats(int boards, long documents, long terms, long searches, long updates, boolean ready) {
+    }
+
+    private record Hit(String taskId, double score) {
+    }
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Value("${app.task-search.rebuild-threads:4}")
+    private int rebuildThreads;
+
+    @Value("${app.task-search.rebuild-retry-initial-ms:1000}")
+    private long retryInitialMs;
+
+    @Value("${app.task-search.rebuild-retry-max-ms:60000}")
+    private long retryMaxMs;
+
+    private final ConcurrentHashMap<String, BoardIndex> boards = new ConcurrentHashMap<>();
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder updates = new LongAdder();
+    private volatile boolean ready;
+
+    // adds the task, or replaces its earlier text
+    public void index(Task task) {
+        if (task.getId() == null || task.getBoardId() == null) {
+            return;
+        }
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : tokenize(task.getTitle())) {
+            frequencies.merge(term, TITLE_WEIGHT, Integer::sum);
+        }
+        for (String term : tokenize(task.getDescription())) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        boards.computeIfAbsent(task.getBoardId(), id -> new BoardIndex()).put(task.getId(), task.getVersion(), frequencies);
+        updates.increment();
+    }
+
+    public void remove(String boardId, String taskId) {
+        BoardIndex board = boards.get(boardId);
+        if (board != null) {
+            board.remove(taskId);
+            updates.increment();
+        }
+    }
+
+    public void removeBoards(Collection<String> boardIds) {
+        boardIds.forEach(boards::remove);
+    }
+
+    // the best-ranked task ids among the given boards; the caller has checked the requester may see them
+    public Hits search(String query, Collection<String> boardIds, int limit) {
+        if (!ready) {
+            throw new ServiceBusyException("Search is starting up, please retry shortly", RETRY_AFTER_SECONDS);
+        }
+        searches.increment();
+        List<String> terms = tokenize(query).stream().distinct().limit(MAX_QUERY_TERMS).toList();
+        if (terms.isEmpty()) {
+            return new Hits(0, List.of());
+        }
+        List<BoardIndex> searched = new ArrayList<>();
+        for (String boardId : boardIds) {
+            BoardIndex board = boards.get(boardId);
+            if (board != null) {
+                searched.add(board);
+            }
+        }
+
+        // first pass: collection statistics for BM25 over the searched boards
+        long documents = 0;
+        long totalLength = 0;
+        long[] documentFrequencies = new long[terms.size()];
+        for (BoardIndex board : searched) {
+            documents += board.count(terms, documentFrequencies);
+            totalLength += board.liveLength();
+        }
+        if (documents == 0) {
+            return new Hits(0, List.of());
+        }
+        double[] idf = new double[terms.size()];
+        for (int i = 0; i < idf.length; i++) {
+            long df = documentFrequencies[i];
+            idf[i] = Math.log(1 + (documents - df + 0.5) / (df + 0.5));
+        }
+        double averageLength = Math.max(1, (double) totalLength / documents);
+
+        // second pass: score the tasks matching every term, keeping the best `limit` in a min-heap
+        PriorityQueue<Hit> best = new PriorityQueue<>(Comparator.comparingDouble(Hit::score));
+        int matched = 0;
+        for (BoardIndex board : searched) {
+            matched += board.score(terms, idf, averageLength, best, limit);
+        }
+        List<String> taskIds = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            taskIds.add(best.poll().taskId());
+        }
+        Collections.reverse(taskIds);
+        return new Hits(matched, taskIds);
+    }
+
+    public Stats stats() {
+        long documents = 0;
+        long terms = 0;
+        for (BoardIndex board : boards.values()) {
+            documents += board.live();
+            terms += board.terms();
+        }
+        return new Stats(boards.size(), documents, terms, searches.sum(), updates.sum(), ready);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        Thread.ofVirtual().name("task-search-rebuild").start(this::rebuild);
+    }
+
+    // retries with exponential backoff until the board ids could be read to the end and every board was indexed;
+    // boards indexed by an earlier attempt are not read again
+    void rebuild() {
+        Set<String> indexedBoards = ConcurrentHashMap.newKeySet();
+        long delayMs = retryInitialMs;
+        try {
+            while (!rebuild(indexedBoards)) {
+                log.warn("Task search rebuild is retried in {} ms, {} boards indexed so far", delayMs, indexedBoards.size());
+                Thread.sleep(delayMs);
+                delayMs = Math.min(delayMs * 2, retryMaxMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // one board per worker; tasks written meanwhile are indexed by their writers, and a board's stale read never
+    // replaces a newer version of a task. False when reading the board ids or any board failed
+    private boolean rebuild(Set<String> indexedBoards) throws InterruptedException {
+        long start = System.nanoTime();
+        ExecutorService workers = Executors.newFixedThreadPool(rebuildThreads, Thread.ofPlatform().name("task-search-rebuild-", 0).daemon().factory());
+        Semaphore queued = new Semaphore(rebuildThreads * 4);
+        AtomicLong indexed = new AtomicLong();
+        AtomicInteger failed = new AtomicInteger();
+        int boardCount = 0;
+        try (Stream<Board> ids = boardRepository.streamAllIds()) {
+            Iterator<Board> iterator = ids.iterator();
+            while (iterator.hasNext()) {
+                String boardId = iterator.next().getId();
+                if (indexedBoards.contains(boardId)) {
+                    continue;
+                }
+                queued.acquire();
+                boardCount++;
+                workers.execute(() -> {
+                    try {
+                        indexed.addAndGet(rebuildBoard(boardId));
+                        indexedBoards.add(boardId);
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                        log.warn("Could not index the tasks of board {} for search", boardId, e);
+                    } finally {
+                        queued.release();
+                    }
+                });
+            }
+            workers.shutdown();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            throw e;
+        } catch (RuntimeException e) {
+            // the boards already handed to a worker finish and are skipped by the next attempt
+            workers.shutdown();
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            log.error("Task search rebuild stopped after {} boards, search stays unavailable until it is retried", boardCount, e);
+            return false;
+        }
+        // search opens once every board was read; the ones that failed are indexed by the retries
+        ready = true;
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (failed.get() > 0) {
+            log.warn("Indexed {} tasks of {} boards for search in {} ms, {} boards failed", indexed.get(), boardCount, millis, failed.get());
+            return false;
+        } else {
+            log.info("Indexed {} tasks of {} boards for search in {} ms", indexed.get(), boardCount, millis);
+        }
+        return true;
+    }
+
+    private long rebuildBoard(String boardId) {
+        long count = 0;
+        try (Stream<Task> tasks = taskRepository.streamSearchFieldsByBoardId(boardId)) {
+            Iterator<Task> iterator = tasks.iterator();
+            while (iterator.hasNext()) {
+                index(iterator.next());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    // lowercase letter and digit runs, accents folded away ("Café" -> "cafe")
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKD);
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < normalized.length(); ) {
+            int codePoint = normalized.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (Character.isLetterOrDigit(codePoint)) {
+                if (token.length() < MAX_TERM_LENGTH) {
+                    token.appendCodePoint(Character.toLowerCase(codePoint));
+                }
+            } else if (Character.getType(codePoint) != Character.NON_SPACING_MARK && !token.isEmpty()) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (!token.isEmpty()) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    // append-only (document, frequency) pairs in document order
+    private static final class Postings {
+
+        private int[] documents = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        void add(int document, int frequency) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            documents[size] = document;
+            frequencies[size] = frequency;
+            size++;
+        }
+    }
+
+    @FunctionalInterface
+    private interface MatchConsumer {
+        void accept(int document, float frequency);
+    }
+
+    // one board's shard. Documents are numbered in the order they were added; replacing or removing a task only
+    // marks its old number dead, and the dead numbers are squeezed out once they outnumber the live ones
+    private static final class BoardIndex {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        private final TreeMap<String, Postings> dictionary = new TreeMap<>();
+        private final HashMap<String, Integer> documentsByTask = new HashMap<>();
+        // per document number; a null task id marks a dead document
+        private String[] taskIds = new String[8];
+        private long[] versions = new long[8];
+        private int[] lengths = new int[8];
+        private int size;
+        private int live;
+        private long liveLength;
+
+        void put(String taskId, long version, Map<String, Integer> frequencies) {
+            lock.writeLock().lock();
+            try {
+                Integer existing = documentsByTask.get(taskId);
+                if (existing != null) {
+                    if (versions[existing] > version) {
+                        return;
+                    }
+                    kill(existing);
+                }
+                if (size == taskIds.length) {
+                    taskIds = Arrays.copyOf(taskIds, size * 2);
+                    versions = Arrays.copyOf(versions, size * 2);
+                    lengths = Arrays.copyOf(lengths, size * 2);
+                }
+                int document = size++;
+                int length = 0;
+                for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                    dictionary.computeIfAbsent(entry.getKey(), term -> new Postings()).add(document, entry.getValue());
+                    length += entry.getValue();
+                }
+                taskIds[document] = taskId;
+                versions[document] = version;
+                lengths[document] = length;
+                documentsByTask.put(taskId, document);
+                live++;
+                liveLength += length;
+                compactIfSparse();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void remove(String taskId) {
+            lock.writeLock().lock();
+            try {
+                Integer existing = documentsByTask.remove(taskId);
+                if (existing != null) {
+                    kill(existing);
+                    compactIfSparse();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        // live documents, adding each term's matching live documents to documentFrequencies
+        int count(List<String> terms, long[] documentFrequencies) {
+            lock.readLock().lock();
+            try {
+                for (int i = 0; i < terms.size(); i++) {
+                    BitSet matching = new BitSet(size);
+                    forEachMatch(terms.get(i), (document, frequency) -> matching.set(document));
+                    documentFrequencies[i] += matching.cardinality();
+                }
+                return live;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // offers every document matching all terms to the heap, returns how many matched
+        int score(List<String> terms, double[] idf, double averageLength, PriorityQueue<Hit> best, int limit) {
+            lock.readLock().lock();
+            try {
+                float[][] termFrequencies = new float[terms.size()][];
+                for (int i = 0; i < terms.size(); i++) {
+                    float[] frequencies = new float[size];
+                    forEachMatch(terms.get(i), (document, frequency) -> frequencies[document] += frequency);
+                    termFrequencies[i] = frequencies;
+                }
+                int matched = 0;
+                for (int document = 0; document < size; document++) {
+                    double score = 0;
+                    for (int i = 0; i < terms.size() && score >= 0; i++) {
+                        float frequency = termFrequencies[i][document];
+                        if (frequency == 0) {
+                            score = -1;
+                        } else {
+                            double norm = K1 * (1 - B + B * lengths[document] / averageLength);
+                            score += idf[i] * frequency * (K1 + 1) / (frequency + norm);
+                        }
+                    }
+                    if (score < 0) {
+                        continue;
+                    }
+                    matched++;
+                    if (best.size() < limit) {
+                        best.add(new Hit(taskIds[document], score));
+                    } else if (score > best.peek().score()) {
+                        best.poll();
+                        best.add(new Hit(taskIds[document], score));
+                    }
+                }
+                return matched;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        long liveLength() {
+            lock.readLock().lock();
+            try {
+                return liveLength;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        int live() {
+            lock.readLock().lock();
+            try {
+                return live;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        int terms() {
+            lock.readLock().lock();
+            try {
+                return dictionary.size();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // the term itself at full weight and the longer terms starting with it, MAX_EXPANSIONS terms at most
+        private void forEachMatch(String term, MatchConsumer consumer) {
+            int expansions = 0;
+            for (Map.Entry<String, Postings> entry : dictionary.subMap(term, true, term + Character.MAX_VALUE, false).entrySet()) {
+                float weight = entry.getKey().length() == term.length() ? 1 : PREFIX_WEIGHT;
+                Postings postings = entry.getValue();
+                for (int k = 0; k < postings.size; k++) {
+                    int document = postings.documents[k];
+                    if (taskIds[document] != null) {
+                        consumer.accept(document, postings.frequencies[k] * weight);
+                    }
+                }
+                if (++expansions == MAX_EXPANSIONS) {
+                    return;
+                }
+            }
+        }
+
+        private void kill(int document) {
+            taskIds[document] = null;
+            live--;
+            liveLength -= lengths[document];
+        }
+
+        private void compactIfSparse() {
+            int dead = size - live;
+            if (dead < 64 || dead < live) {
+                return;
+            }
+            int[] renumbered = new int[size];
+            int next = 0;
+            for (int document = 0; document < size; document++) {
+                if (taskIds[document] != null) {
+                    renumbered[document] = next;
+                    taskIds[next] = taskIds[document];
+                    versions[next] = versions[document];
+                    lengths[next] = lengths[document];
+                    documentsByTask.put(taskIds[next], next);
+                    next++;
+                } else {
+                    renumbered[document] = -1;
+                }
+            }
+            Arrays.fill(taskIds, next, size, null);
+            size = next;
+            Iterator<Postings> iterator = dictionary.values().iterator();
+            while (iterator.hasNext()) {
+                Postings postings = iterator.next();
+                int kept = 0;
+                for (int k = 0; k < postings.size; k++) {
+                    int document = renumbered[postings.documents[k]];
+                    if (document >= 0) {
+                        postings.documents[kept] = document;
+                        postings.frequencies[kept] = postings.frequencies[k];
+                        kept++;
+                    }
+                }
+                postings.size = kept;
+                if (kept == 0) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+}
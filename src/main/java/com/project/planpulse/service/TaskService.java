@@ -1,25 +1,56 @@
 package com.project.planpulse.service;
 
+import com.project.planpulse.dto.BulkStatusUpdateResult;
+import com.project.planpulse.dto.BulkStatusUpdateResult.Outcome;
+import com.project.planpulse.dto.BulkStatusUpdateResult.TaskOutcome;
+import com.project.planpulse.dto.TaskPage;
+import com.project.planpulse.dto.TaskSearchResult;
 import com.project.planpulse.model.Board;
 import com.project.planpulse.model.Task;
+import com.project.planpulse.model.TaskTombstone;
 import com.project.planpulse.repository.BoardRepository;
 import com.project.planpulse.repository.TaskRepository;
+import com.project.planpulse.repository.TaskTombstoneRepository;
+import com.project.planpulse.repository.TaskRepositoryCustom.StatusChange;
+import com.project.planpulse.service.BoardAccessIndex.BoardAccess;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
-import java.util.Date;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.stream.Stream;
 
 @Service
 public class TaskService {
 
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_STATUS_UPDATE_ATTEMPTS = 3;
+    private static final int MAX_BULK_STATUS_TASKS = 1000;
+    private static final int MAX_SEARCH_RESULTS = 100;
+    private static final int MAX_SEARCH_QUERY_LENGTH = 200;
+
     @Autowired
     private TaskRepository taskRepository;
 
     @Autowired
     private BoardRepository boardRepository;
 
+    @Autowired
+    private TaskTombstoneRepository taskTombstoneRepository;
+
+    @Autowired
+    private BoardAccessIndex boardAccessIndex;
+
+    @Autowired
+    private BoardChangeFeed boardChangeFeed;
+
+    @Autowired
+    private BoardPayloadCache boardPayloadCache;
+
+    @Autowired
+    private TaskSearchIndex taskSearchIndex;
+
     // create a new task
     public Task createTask(Task task) {
         task.setCreatedAt(new Date());
@@ -30,48 +61,327 @@ public class TaskService {
 
     public Task getTaskById(String taskId, String requesterId) {
         Task task = taskRepository.findById(taskId).orElseThrow(() -> new RuntimeException("Task not found"));
-        Board board = boardRepository.findById(task.getBoardId()).orElseThrow(() -> new RuntimeException("Invalid Details"));
-        validatePermission(board, requesterId);
+        BoardAccess access = boardAccessIndex.lookup(task.getBoardId());
+        if (access == null) {
+            throw new RuntimeException("Invalid Details");
+        }
+        validatePermission(access, requesterId);
         return task;
     }
 
     // retrieve all tasks for a given board
     public List<Task> getTasksByBoard(String boardId, String requesterId) {
-        Board board = boardRepository.findById(boardId).orElseThrow(() -> new RuntimeException("Invalid board details"));
-        validatePermission(board, requesterId);
+        validateBoardAccess(boardId, requesterId);
         return taskRepository.findByBoardId(boardId);
     }
 
+    // the board version moves with every task write; read before the tasks, it never tags a newer list than it names
+    public long getTasksVersion(String boardId, String requesterId) {
+        validateBoardAccess(boardId, requesterId);
+        Board board = boardRepository.findVersionById(boardId).orElseThrow(() -> new RuntimeException("Invalid board details"));
+        return board.getVersion();
+    }
+
+    // one page of a board's tasks in id order; pass the previous page's nextCursor to continue
+    public TaskPage getTaskPage(String boardId, String cursor, int limit, String requesterId) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new RuntimeException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (cursor != null && !ObjectId.isValid(cursor)) {
+            throw new RuntimeException("Invalid cursor");
+        }
+        validateBoardAccess(boardId, requesterId);
+        // fetch one extra task to learn whether another page exists
+        List<Task> tasks = cursor == null
+                ? taskRepository.findByBoardIdOrderByIdAsc(boardId, Limit.of(limit + 1))
+                : taskRepository.findByBoardIdAndIdGreaterThanOrderByIdAsc(boardId, cursor, Limit.of(limit + 1));
+        if (tasks.size() <= limit) {
+            return new TaskPage(tasks, null);
+        }
+        List<Task> page = tasks.subList(0, limit);
+        return new TaskPage(page, page.get(limit - 1).getId());
+    }
+
+    // full-text search over the titles and descriptions of one board's tasks, or of every board the requester can see
+    public TaskSearchResult searchTasks(String query, String boardId, int limit, String requesterId) {
+        if (query == null || query.isBlank()) {
+            throw new RuntimeException("Search query is required");
+        }
+        if (query.length() > MAX_SEARCH_QUERY_LENGTH) {
+            throw new RuntimeException("Search query is too long");
+        }
+        if (limit < 1 || limit > MAX_SEARCH_RESULTS) {
+            throw new RuntimeException("Result limit must be between 1 and " + MAX_SEARCH_RESULTS);
+        }
+        Set<String> boardIds = new HashSet<>();
+        if (boardId != null) {
+            validateBoardAccess(boardId, requesterId);
+            boardIds.add(boardId);
+        } else {
+            boardRepository.findVersionsByCreatorId(requesterId).forEach(board -> boardIds.add(board.getId()));
+            boardRepository.findVersionsByCollaborator(requesterId).forEach(board -> boardIds.add(board.getId()));
+        }
+        TaskSearchIndex.Hits hits = taskSearchIndex.search(query, boardIds, limit);
+        if (hits.taskIds().isEmpty()) {
+            return new TaskSearchResult(hits.matched(), List.of());
+        }
+        // the index keeps no task text; load the hits in one query and restore the ranking
+        Map<String, Task> tasksById = new HashMap<>();
+        taskRepository.findAllById(hits.taskIds()).forEach(task -> tasksById.put(task.getId(), task));
+        List<Task> tasks = hits.taskIds().stream()
+                .map(tasksById::get)
+                .filter(Objects::nonNull) // deleted since it was indexed
+                .toList();
+        return new TaskSearchResult(hits.matched(), tasks);
+    }
+
+    // lazily reads a board's tasks from a database cursor; the caller must close the stream
+    public Stream<Task> streamTasksByBoard(String boardId, String requesterId) {
+        validateBoardAccess(boardId, requesterId);
+        return taskRepository.streamByBoardIdOrderByIdAsc(boardId);
+    }
+
+    private void validateBoardAccess(String boardId, String requesterId) {
+        BoardAccess access = boardAccessIndex.lookup(boardId);
+        if (access == null) {
+            throw new RuntimeException("Invalid board details");
+        }
+        validatePermission(access, requesterId);
+    }
+
     // update the task's status
     public Task updateTaskStatus(String taskId, String status, String requesterId) {
         if (requesterId == null || requesterId.isBlank() || status == null || status.isBlank() || taskId == null || taskId.isBlank()) {
             throw new RuntimeException("Invalid credentials");
         }
-        Task task = getTaskById(taskId, requesterId);
         if (isInvalidStatus(status)) {
             throw new RuntimeException("Invalid status transition");
         }
-        task.setStatus(status);
-        task.setUpdatedAt(new Date());
-        return taskRepository.save(task);
+        Task current = validateTaskAccess(taskId, requesterId);
+        String boardId = current.getBoardId();
+        long version = boardRepository.beginWrite(boardId);
+        if (version == 0) {
+            throw new RuntimeException("Board not found");
+        }
+        // every way out releases the version, including a failed access check on a retry
+        boolean released = false;
+        try {
+            // the update is conditional on the status we read, so the board's status counters stay exact
+            for (int attempt = 0; attempt < MAX_STATUS_UPDATE_ATTEMPTS; attempt++) {
+                if (attempt > 0) {
+                    current = validateTaskAccess(taskId, requesterId);
+                }
+                Task updated = taskRepository.updateStatus(taskId, current.getStatus(), status, version);
+                if (updated != null) {
+                    if (!status.equals(current.getStatus())) {
+                        boardRepository.recordStatusChange(boardId, version, current.getStatus(), status, 1);
+                        released = true;
+                        boardPayloadCache.invalidate(boardId);
+                        boardChangeFeed.taskUpdated(updated);
+                    } else {
+                        boardRepository.endWrite(boardId, version);
+                        released = true;
+                    }
+                    return updated;
+                }
+            }
+        } finally {
+            if (!released) {
+                boardRepository.endWrite(boardId, version);
+            }
+        }
+        throw new RuntimeException("The task was modified concurrently, please retry");
+    }
+
+    // moves many tasks to one status: one projected read, one permission check per board, one bulkWrite
+    public BulkStatusUpdateResult updateTaskStatuses(List<String> taskIds, String status, String requesterId) {
+        if (taskIds == null || taskIds.isEmpty()) {
+            throw new RuntimeException("At least one task id is required");
+        }
+        if (taskIds.size() > MAX_BULK_STATUS_TASKS) {
+            throw new RuntimeException("At most " + MAX_BULK_STATUS_TASKS + " tasks can be updated at once");
+        }
+        if (status == null || isInvalidStatus(status)) {
+            throw new RuntimeException("Invalid status transition");
+        }
+        Set<String> requestedIds = new LinkedHashSet<>();
+        for (String taskId : taskIds) {
+            if (taskId != null && ObjectId.isValid(taskId)) {
+                requestedIds.add(taskId);
+            }
+        }
+        Map<String, Task> tasksById = new HashMap<>();
+        for (Task task : taskRepository.findRefsByIdIn(requestedIds)) {
+            tasksById.put(task.getId(), task);
+        }
+
+        Map<String, Boolean> allowedByBoard = new HashMap<>();
+        // one board version per board, taken when its first task is about to change
+        Map<String, Long> versionsByBoard = new HashMap<>();
+        Map<String, Outcome> outcomes = new HashMap<>();
+        List<StatusChange> changes = new ArrayList<>();
+        Set<String> applied = new HashSet<>();
+        Map<String, List<String>> movedIdsByBoard = new HashMap<>();
+        // boards whose version was released; if anything below throws, the others are released on the way out
+        Set<String> releasedBoards = new HashSet<>();
+        try {
+            for (String taskId : requestedIds) {
+                Task task = tasksById.get(taskId);
+                if (task == null) {
+                    continue;
+                }
+                boolean allowed = allowedByBoard.computeIfAbsent(task.getBoardId(), boardId -> {
+                    BoardAccess access = boardAccessIndex.lookup(boardId);
+                    return access != null && access.allows(requesterId);
+                });
+                if (!allowed) {
+                    outcomes.put(taskId, Outcome.FORBIDDEN);
+                } else if (status.equals(task.getStatus())) {
+                    outcomes.put(taskId, Outcome.UNCHANGED);
+                } else {
+                    long version = versionsByBoard.computeIfAbsent(task.getBoardId(), boardRepository::beginWrite);
+                    if (version == 0) {
+                        // the board was deleted since the access check; its tasks are reported as not found
+                        continue;
+                    }
+                    changes.add(new StatusChange(taskId, task.getStatus(), version));
+                }
+            }
+
+            long modified = taskRepository.updateStatuses(changes, status);
+            if (modified == changes.size()) {
+                changes.forEach(change -> applied.add(change.taskId()));
+            } else {
+                // some tasks changed underneath us; an update landed only if the task carries its board version, which
+                // nothing but this request wrote (a concurrent move to the same status has already counted itself)
+                Map<String, Long> versionsByTask = new HashMap<>();
+                changes.forEach(change -> versionsByTask.put(change.taskId(), change.version()));
+                for (Task task : taskRepository.findBulkStatusVersionsByIdIn(versionsByTask.keySet())) {
+                    List<Long> written = task.getBulkStatusVersions();
+                    if (written != null && written.contains(versionsByTask.get(task.getId()))) {
+                        applied.add(task.getId());
+                    }
+                }
+            }
+
+            Map<String, Map<String, Long>> movedByBoard = new HashMap<>();
+            for (StatusChange change : changes) {
+                if (applied.contains(change.taskId())) {
+                    outcomes.put(change.taskId(), Outcome.UPDATED);
+                    String boardId = tasksById.get(change.taskId()).getBoardId();
+                    movedByBoard.computeIfAbsent(boardId, id -> new HashMap<>())
+                            .merge(change.expectedStatus(), 1L, Long::sum);
+                    movedIdsByBoard.computeIfAbsent(boardId, id -> new ArrayList<>()).add(change.taskId());
+                } else {
+                    outcomes.put(change.taskId(), Outcome.CONFLICT);
+                }
+            }
+            versionsByBoard.forEach((boardId, version) -> {
+                Map<String, Long> countsByFromStatus = movedByBoard.get(boardId);
+                if (countsByFromStatus != null) {
+                    boardRepository.recordStatusChanges(boardId, version, countsByFromStatus, status);
+                    boardPayloadCache.invalidate(boardId);
+                } else {
+                    boardRepository.endWrite(boardId, version);
+                }
+                releasedBoards.add(boardId);
+            });
+        } finally {
+            versionsByBoard.forEach((boardId, version) -> {
+                if (!releasedBoards.contains(boardId)) {
+                    boardRepository.endWrite(boardId, version);
+                }
+            });
+        }
+        movedIdsByBoard.forEach((boardId, movedIds) -> boardChangeFeed.taskStatusesChanged(boardId, status, movedIds));
+
+        List<TaskOutcome> results = new ArrayList<>(taskIds.size());
+        for (String taskId : taskIds) {
+            results.add(new TaskOutcome(taskId, outcomes.getOrDefault(taskId, Outcome.NOT_FOUND)));
+        }
+        return new BulkStatusUpdateResult(status, applied.size(), results);
     }
 
-    private void validatePermission(Board board, String requesterId) {
-        if (!board.getCreatorId().equals(requesterId) &&
-                (board.getCollaboratorIds() == null || !board.getCollaboratorIds().contains(requesterId))) {
+    private void validatePermission(BoardAccess access, String requesterId) {
+        if (!access.allows(requesterId)) {
             throw new RuntimeException("Permission denied: The user does not have access to add to this board.");
         }
     }
 
     // Track time spent on a task
     public Task trackTime(String taskId, long minutes, String requesterId) {
-        Task task = getTaskById(taskId, requesterId);
-        task.setTimeSpent(task.getTimeSpent() + minutes);
-        task.setUpdatedAt(new Date());
-        return taskRepository.save(task);
+        Task task = validateTaskAccess(taskId, requesterId);
+        long version = boardRepository.beginWrite(task.getBoardId());
+        if (version == 0) {
+            throw new RuntimeException("Board not found");
+        }
+        Task updated;
+        boolean released = false;
+        try {
+            // $inc on the server, so concurrent calls never lose increments
+            updated = taskRepository.incrementTimeSpent(taskId, minutes, version);
+            if (updated == null) {
+                throw new RuntimeException("Task not found");
+            }
+            boardRepository.recordTimeSpent(updated.getBoardId(), version, minutes);
+            released = true;
+        } finally {
+            if (!released) {
+                boardRepository.endWrite(task.getBoardId(), version);
+            }
+        }
+        boardPayloadCache.invalidate(updated.getBoardId());
+        boardChangeFeed.taskUpdated(updated);
+        return updated;
+    }
+
+    // the task leaves a tombstone behind, so delta sync can tell clients it is gone
+    public TaskTombstone deleteTask(String taskId, String requesterId) {
+        Task task = validateTaskAccess(taskId, requesterId);
+        long version = boardRepository.beginWrite(task.getBoardId());
+        if (version == 0) {
+            throw new RuntimeException("Board not found");
+        }
+        TaskTombstone tombstone = new TaskTombstone();
+        Task removed;
+        boolean released = false;
+        try {
+            removed = taskRepository.removeById(taskId);
+            if (removed == null) {
+                throw new RuntimeException("Task not found");
+            }
+            tombstone.setId(taskId);
+            tombstone.setBoardId(removed.getBoardId());
+            tombstone.setVersion(version);
+            tombstone.setDeletedAt(new Date());
+            taskTombstoneRepository.save(tombstone);
+            boardRepository.recordTasksRemoved(removed.getBoardId(), version, Map.of(removed.getStatus(), 1L), removed.getTimeSpent());
+            released = true;
+        } finally {
+            if (!released) {
+                boardRepository.endWrite(task.getBoardId(), version);
+            }
+        }
+        boardPayloadCache.invalidate(removed.getBoardId());
+        taskSearchIndex.remove(removed.getBoardId(), taskId);
+        boardChangeFeed.taskDeleted(tombstone);
+        return tombstone;
+    }
+
+    // checks access with a projected task lookup and the in-memory board index, without loading either document
+    // returns the task with only boardId and status loaded
+    private Task validateTaskAccess(String taskId, String requesterId) {
+        Task task = taskRepository.findRefById(taskId)
+                .orElseThrow(() -> new RuntimeException("Task not found"));
+        BoardAccess access = boardAccessIndex.lookup(task.getBoardId());
+        if (access == null) {
+            throw new RuntimeException("Invalid Details");
+        }
+        validatePermission(access, requesterId);
+        return task;
     }
 
     private boolean isInvalidStatus(String newStatus) {
-        return !(Set.of("TO_DO", "IN_PROGRESS", "IN_REVIEW", "DONE").contains(newStatus));
+        return !Task.STATUSES.contains(newStatus);
     }
 }
@@ -0,0 +1,198 @@
+package com.project.planpulse.service;
+
+import com.project.planpulse.model.Board;
+import com.project.planpulse.model.UserDeletionJob;
+import com.project.planpulse.repository.BoardRepository;
+import com.project.planpulse.repository.TaskRepository;
+import com.project.planpulse.repository.TaskTombstoneRepository;
+import com.project.planpulse.repository.UserDeletionJobRepository;
+import com.project.planpulse.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// runs the account deletion cascade in the background: throttled batches of server-side deleteMany/updateMany,
+// with every step idempotent so a job whose worker died is simply resumed from the top once its lease expires
+@Component
+public class UserDeletionJobRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(UserDeletionJobRunner.class);
+
+    @Autowired
+    private UserDeletionJobRepository jobRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BoardRepository boardRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskTombstoneRepository taskTombstoneRepository;
+
+    @Autowired
+    private BoardAccessIndex boardAccessIndex;
+
+    @Autowired
+    private TaskSearchIndex taskSearchIndex;
+
+    @Value("${app.user-deletion.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.user-deletion.batch-pause-ms:50}")
+    private long batchPauseMillis;
+
+    @Value("${app.user-deletion.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Value("${app.user-deletion.max-attempts:5}")
+    private int maxAttempts;
+
+    private final String workerId = UUID.randomUUID().toString();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(Thread.ofVirtual().name("user-deletion").factory());
+    private final AtomicBoolean drainQueued = new AtomicBoolean();
+
+    public void wakeUp() {
+        if (drainQueued.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    // picks up jobs left behind by a restart or a crashed instance
+    @Scheduled(initialDelayString = "${app.user-deletion.poll-interval-ms:30000}", fixedDelayString = "${app.user-deletion.poll-interval-ms:30000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    void drain() {
+        drainQueued.set(false);
+        try {
+            UserDeletionJob job;
+            while ((job = jobRepository.claimNext(workerId, leaseUntil())) != null) {
+                run(job);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not claim user deletion jobs", e);
+        }
+    }
+
+    private void run(UserDeletionJob job) {
+        try {
+            userRepository.deleteById(job.getUserId());
+            deleteUnsharedBoards(job);
+            leaveSharedBoards(job);
+            jobRepository.markCompleted(job.getId(), workerId);
+            log.info("User deletion job {} completed", job.getId());
+        } catch (LeaseLostException e) {
+            log.warn("User deletion job {} was taken over by another worker", job.getId());
+        } catch (RuntimeException e) {
+            boolean finalAttempt = job.getAttempts() >= maxAttempts;
+            Date retryAt = new Date(System.currentTimeMillis() + job.getAttempts() * 60_000L);
+            jobRepository.markAttemptFailed(job.getId(), workerId, e.getMessage(), retryAt, finalAttempt);
+            log.warn("User deletion job {} failed (attempt {})", job.getId(), job.getAttempts(), e);
+        }
+    }
+
+    // boards the user created that nobody else uses go away together with their tasks
+    private void deleteUnsharedBoards(UserDeletionJob job) {
+        while (true) {
+            List<String> boardIds = boardRepository.findUnsharedIdsByCreatorId(job.getUserId(), PageRequest.of(0, batchSize))
+                    .stream().map(Board::getId).toList();
+            if (boardIds.isEmpty()) {
+                return;
+            }
+            deleteBoards(boardIds);
+            recordProgress(job, boardIds.size(), 0);
+            pause();
+        }
+    }
+
+    // the user leaves every board they collaborate on; boards left without any member are deleted
+    private void leaveSharedBoards(UserDeletionJob job) {
+        String userId = job.getUserId();
+        while (true) {
+            List<Board> boards = boardRepository.findRefsByCollaborator(userId, PageRequest.of(0, batchSize));
+            if (boards.isEmpty()) {
+                return;
+            }
+            List<String> boardIds = boards.stream().map(Board::getId).toList();
+            // orphans are decided before the $pull, so a crash in between cannot leave them unreachable
+            List<Board> lastMemberBoards = boardRepository.findSingleCollaboratorRefsByIdIn(boardIds);
+            Set<String> creatorIds = new HashSet<>();
+            lastMemberBoards.forEach(board -> {
+                if (board.getCreatorId() != null) creatorIds.add(board.getCreatorId());
+            });
+            Set<String> existingCreators = new HashSet<>();
+            if (!creatorIds.isEmpty()) {
+                userRepository.findIdsByIdIn(creatorIds).forEach(user -> existingCreators.add(user.getId()));
+            }
+            List<String> orphanIds = lastMemberBoards.stream()
+                    .filter(board -> board.getCreatorId() == null || !existingCreators.contains(board.getCreatorId()))
+                    .map(Board::getId)
+                    .toList();
+            if (!orphanIds.isEmpty()) {
+                deleteBoards(orphanIds);
+            }
+            List<String> remaining = new ArrayList<>(boardIds);
+            remaining.removeAll(orphanIds);
+            long removed = 0;
+            if (!remaining.isEmpty()) {
+                removed = boardRepository.removeCollaboratorFromBoards(remaining, userId);
+                remaining.forEach(boardId -> boardAccessIndex.onMemberRemoved(boardId, userId));
+            }
+            recordProgress(job, orphanIds.size(), removed);
+            pause();
+        }
+    }
+
+    private void deleteBoards(List<String> boardIds) {
+        taskRepository.deleteByBoardIdIn(boardIds);
+        taskTombstoneRepository.deleteByBoardIdIn(boardIds);
+        boardRepository.deleteAllById(boardIds);
+        boardIds.forEach(boardAccessIndex::evict);
+        taskSearchIndex.removeBoards(boardIds);
+    }
+
+    private void recordProgress(UserDeletionJob job, long boardsDeleted, long collaborationsRemoved) {
+        if (!jobRepository.recordProgress(job.getId(), workerId, leaseUntil(), boardsDeleted, collaborationsRemoved)) {
+            throw new LeaseLostException();
+        }
+    }
+
+    private Date leaseUntil() {
+        return new Date(System.currentTimeMillis() + leaseSeconds * 1000);
+    }
+
+    private void pause() {
+        if (batchPauseMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(batchPauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while deleting user data", e);
+        }
+    }
+
+    private static class LeaseLostException extends RuntimeException {
+    }
+}
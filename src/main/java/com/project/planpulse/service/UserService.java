@@ -1,33 +1,25 @@
 package com.project.planpulse.service;
 
-import com.project.planpulse.model.Board;
+import com.project.planpulse.dto.UserSummary;
 import com.project.planpulse.model.PasswordResetToken;
-import com.project.planpulse.model.Task;
 import com.project.planpulse.model.User;
-import com.project.planpulse.repository.BoardRepository;
+import com.project.planpulse.model.UserDeletionJob;
 import com.project.planpulse.repository.PasswordResetTokenRepository;
-import com.project.planpulse.repository.TaskRepository;
+import com.project.planpulse.repository.UserDeletionJobRepository;
 import com.project.planpulse.repository.UserRepository;
+import com.project.planpulse.storage.BlobStorageService;
+import com.project.planpulse.util.StreamingFileWriter;
 import com.project.planpulse.validation.EmailValidator;
 import com.project.planpulse.validation.PasswordValidator;
 import com.project.planpulse.validation.UsernameValidator;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
 import java.io.IOException;
-import java.net.MalformedURLException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardOpenOption;
+import java.io.InputStream;
 import java.util.*;
 
 @Service
@@ -37,21 +29,34 @@ public class UserService {
     private UserRepository userRepository;
 
     @Autowired
-    private BoardRepository boardRepository;
+    private PasswordResetTokenRepository passwordResetTokenRepository;
 
     @Autowired
-    private TaskRepository taskRepository;
+    private EmailService emailService;
 
     @Autowired
-    private PasswordResetTokenRepository passwordResetTokenRepository;
+    private UserDeletionJobRepository userDeletionJobRepository;
 
     @Autowired
-    private EmailService emailService;
+    private UserDeletionJobRunner userDeletionJobRunner;
 
+    @Autowired
+    private ProfileImageService profileImageService;
 
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Autowired
+    private ProfileImageVariants profileImageVariants;
 
-    private static final String UPLOAD_DIR = "uploads/";
+    @Autowired
+    private BlobStorageService blobStorageService;
+
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    static final String UPLOAD_DIR = "uploads/"; // profile image URL prefix, followed by the blob key
+
+    @Value("${app.profile-image.max-upload-bytes:5242880}")
+    private long maxUploadBytes;
 
 
     // user registration with multipart
@@ -77,7 +82,7 @@ public class UserService {
         user.setLastname(lastName);
         user.setUsername(username);
         user.setEmail(email);
-        user.setPasswordHash(passwordEncoder.encode(password));
+        user.setPasswordHash(passwordHashingService.encode(password));
         user.setProfileImageUrl(profileImageUrl);
         user.setBoardIds(new ArrayList<>());
         return userRepository.save(user);
@@ -130,7 +135,9 @@ public class UserService {
             existingUser.setProfileImageUrl(newImageUrl);
         }
 
-        return userRepository.save(existingUser);
+        User saved = userRepository.save(existingUser);
+        profileImageService.evict(userId);
+        return saved;
     }
 
     private void validateUserRegistrationFields(String firstName, String lastName, String username, String email, String password, String confirmPassword) {
@@ -179,144 +186,97 @@ public class UserService {
         if (originalFilename == null || !hasValidImageExtension(originalFilename)) {
             throw new RuntimeException("Invalid file extension. Supported formats are: .jpg, .jpeg, .png, .gif.");
         }
-        // validate file content (magic number check)
-        if (!isValidImageMagicNumber(file)) {
-            throw new RuntimeException("Uploaded file is not a valid image.");
+        if (file.getSize() > maxUploadBytes) {
+            throw new RuntimeException("File is too large. The maximum size is " + maxUploadBytes + " bytes.");
         }
-        // unique filename generation below
-        String extension = originalFilename.contains(".") ? originalFilename.substring(originalFilename.lastIndexOf('.')) : "";
-        String uniqueFilename = UUID.randomUUID() + "-" + System.currentTimeMillis() + extension;
-
-        // create directory if it does not exist
-        File uploadDir = new File(UPLOAD_DIR);
-        if (!uploadDir.exists()) {
-            boolean uploadResult = uploadDir.mkdirs();
-            if (!uploadResult) throw new IOException("Failed to create upload directory: " + UPLOAD_DIR);
+        // same content, same blob: the extension is normalized so .JPEG and .jpg uploads share it too
+        String extension = originalFilename.substring(originalFilename.lastIndexOf('.')).toLowerCase();
+        if (extension.equals(".jpeg")) {
+            extension = ".jpg";
         }
 
-        // save file to the uploads directory
-        Path filePath = Paths.get(UPLOAD_DIR, uniqueFilename);
-        Files.write(filePath, file.getBytes(), StandardOpenOption.CREATE_NEW);
-        System.out.println("File saved to: " + filePath.toAbsolutePath());
+        // the upload is streamed into the blob store; the magic number check runs on the first bytes
+        // and the size limit while copying, so it never sits in the heap
+        String blobKey;
+        try (InputStream in = file.getInputStream()) {
+            blobKey = blobStorageService.store(in, extension, maxUploadBytes, 8, this::isValidImageMagicNumber);
+        } catch (StreamingFileWriter.RejectedHeaderException e) {
+            throw new RuntimeException("Uploaded file is not a valid image.");
+        } catch (StreamingFileWriter.TooLargeException e) {
+            throw new RuntimeException("File is too large. The maximum size is " + maxUploadBytes + " bytes.");
+        }
+        // avatar sizes are generated in the background; until then the original is served
+        profileImageVariants.generateAsync(blobKey);
         // relative URL for storage in the database
-        return UPLOAD_DIR + uniqueFilename;
+        return UPLOAD_DIR + blobKey;
     }
 
+    // drops the user's reference; the blob itself goes once nobody references it any more
     private void deleteProfileImage(String imageUrl) {
-        // uploads/filename.extension - file format processed
         if (imageUrl == null || !imageUrl.startsWith(UPLOAD_DIR)) {
             return;
         }
-        String filename = imageUrl.substring(UPLOAD_DIR.length());
-        Path filePath = Paths.get(UPLOAD_DIR, filename);
-        try {
-            boolean isDeleted = Files.deleteIfExists(filePath);
-            if (isDeleted) {
-                System.out.println("Deleted profile image: " + filePath.toAbsolutePath());
-            } else {
-                System.err.println("No file found to delete at: " + filePath.toAbsolutePath());
-            }
-        } catch (IOException e) {
-            System.err.println("Failed to delete profile image: " + filePath + " - " + e.getMessage());
-        }
-    }
-
-    public ResponseEntity<Resource> loadProfileImage(String userId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        // profile image URL
-        String profileImageUrl = user.getProfileImageUrl();
-        if (profileImageUrl == null || profileImageUrl.isBlank()) {
-            throw new RuntimeException("No profile image found");
-        }
-
-        String filename = profileImageUrl.substring(UPLOAD_DIR.length());
-
-        // ensure the file format is supported
-        if (!hasValidImageExtension(filename)) {
-            throw new RuntimeException("Unsupported file format: " + filename);
-        }
-
-        // load the resource from storage
-        Path filePath = Paths.get(UPLOAD_DIR, filename).normalize();
-        try {
-            Resource resource = new UrlResource(filePath.toUri());
-            if (!resource.exists() || !resource.isReadable()) {
-                throw new RuntimeException("File not found or not readable: " + filename);
-            }
-
-            // get the mime type of the image
-            MediaType contentType = checkContentType(filename);
-
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + resource.getFilename() + "\"")
-                    .contentType(contentType)
-                    .body(resource);
-        } catch (MalformedURLException e) {
-            throw new RuntimeException("File not found or not readable: " + filename);
-        }
+        blobStorageService.release(imageUrl.substring(UPLOAD_DIR.length()));
     }
 
-    public MediaType checkContentType(String fileName) {
-        try {
-            String mimeType = Files.probeContentType(Paths.get(fileName));
-            return mimeType != null ? MediaType.parseMediaType(mimeType) : MediaType.APPLICATION_OCTET_STREAM;
-        } catch (IOException e) {
-            return MediaType.APPLICATION_OCTET_STREAM; // default to binary stream if MIME type is unknown
-        }
+    // MIME type from the extension, so serving never has to probe the file; null for unsupported formats
+    static MediaType imageMediaType(String filename) {
+        String lowerCaseFilename = filename.toLowerCase();
+        if (lowerCaseFilename.endsWith(".jpg") || lowerCaseFilename.endsWith(".jpeg")) return MediaType.IMAGE_JPEG;
+        if (lowerCaseFilename.endsWith(".png")) return MediaType.IMAGE_PNG;
+        if (lowerCaseFilename.endsWith(".gif")) return MediaType.IMAGE_GIF;
+        if (lowerCaseFilename.endsWith(".webp")) return MediaType.parseMediaType("image/webp");
+        if (lowerCaseFilename.endsWith(".bmp")) return MediaType.parseMediaType("image/bmp");
+        return null;
     }
 
 
-    public void deleteUser(String userId) throws RuntimeException {
+    // the account is removed right away; its boards and tasks are cleaned up by a background job
+    public UserDeletionJob deleteUser(String userId) throws RuntimeException {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
+        // record the job first, so the cascade still runs if we crash after removing the user
+        UserDeletionJob job = userDeletionJobRepository.save(new UserDeletionJob(userId));
+
         // delete user profile image if exists
         String imageUrl = user.getProfileImageUrl();
         if (imageUrl != null && !imageUrl.isBlank()) {
             deleteProfileImage(imageUrl);
         }
 
-        // handle boards created by the user
-        List<Board> createdBoards = boardRepository.findByCreatorId(userId);
-        for (Board board : createdBoards) {
-            List<String> collaboratorIds = board.getCollaboratorIds();
+        userRepository.deleteById(userId);
+        profileImageService.evict(userId);
+        userDeletionJobRunner.wakeUp();
+        return job;
+    }
 
-            // check if the board has no other collaborators and remove the board along with tasks
-            if (collaboratorIds == null || collaboratorIds.isEmpty()) {
-                List<Task> tasks = taskRepository.findByBoardId(board.getId());
-                taskRepository.deleteAll(tasks);
-                boardRepository.delete(board);
-            }
+    public UserDeletionJob getDeletionJob(String jobId, String requesterId) {
+        UserDeletionJob job = userDeletionJobRepository.findById(jobId)
+                .orElseThrow(() -> new RuntimeException("Deletion job not found"));
+        if (!job.getUserId().equals(requesterId)) {
+            throw new RuntimeException("Unauthorized access");
         }
+        return job;
+    }
 
-        // handle boards where the user is a collaborator
-        List<Board> collaboratingBoards = boardRepository.findByCollaboratorIdsContaining(userId);
-        for (Board board : collaboratingBoards) {
-            List<String> collaboratorIds = board.getCollaboratorIds();
-            if (collaboratorIds != null) {
-                // remove the user from collaborators
-                collaboratorIds.remove(userId);
-            }
-
-            // if no collaborators and no creator remain then delete the board & tasks
-            boolean noRemainingUsers = (collaboratorIds == null || collaboratorIds.isEmpty())
-                    && (board.getCreatorId() == null || !userRepository.existsById(board.getCreatorId()));
-
-            if (noRemainingUsers) {
-                // delete the board & tasks
-                List<Task> tasks = taskRepository.findByBoardId(board.getId());
-                taskRepository.deleteAll(tasks);
-                boardRepository.delete(board);
-            } else {
-                // update the board with the remaining collaborators
-                board.setCollaboratorIds(collaboratorIds);
-                boardRepository.save(board);
+    // batched id -> summary lookup; unknown ids are skipped and the input order is kept
+    public Map<String, UserSummary> getUserSummaries(Collection<String> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, UserSummary> summariesById = new HashMap<>();
+        for (UserSummary summary : userRepository.findSummariesByIdIn(new LinkedHashSet<>(userIds))) {
+            summariesById.put(summary.id(), summary);
+        }
+        Map<String, UserSummary> ordered = new LinkedHashMap<>();
+        for (String userId : userIds) {
+            UserSummary summary = summariesById.get(userId);
+            if (summary != null) {
+                ordered.put(userId, summary);
             }
         }
-
-        userRepository.deleteById(userId);
+        return ordered;
     }
 
     public User getUserById(String userId) throws RuntimeException {
@@ -342,12 +302,9 @@ public class UserService {
                 lowerCaseFilename.endsWith(".bmp");
     }
 
-    private boolean isValidImageMagicNumber(MultipartFile file) throws IOException {
-        byte[] headerBytes = new byte[8];
-        try (var inputStream = file.getInputStream()) {
-            if (inputStream.read(headerBytes) < 8) {
-                return false; // File too small to be valid
-            }
+    private boolean isValidImageMagicNumber(byte[] headerBytes) {
+        if (headerBytes.length < 8) {
+            return false; // File too small to be valid
         }
 
         // JPEG: FF D8 FF
@@ -377,7 +334,8 @@ public class UserService {
 
     public User authenticateByUsername(String username, String password) {
         User user = userRepository.findByUsername(username).orElseThrow(() -> new RuntimeException("Invalid login credentials"));
-        if (user != null && passwordEncoder.matches(password, user.getPasswordHash())) {
+        if (user != null && passwordHashingService.matches(password, user.getPasswordHash())) {
+            upgradePasswordHash(user, password);
             return user;
         }
         return null;
@@ -385,12 +343,20 @@ public class UserService {
 
     public User authenticateByEmail(String email, String password) {
         User user = userRepository.findByEmail(email).orElseThrow(() -> new RuntimeException("Invalid login credentials"));
-        if (user != null && passwordEncoder.matches(password, user.getPasswordHash())) {
+        if (user != null && passwordHashingService.matches(password, user.getPasswordHash())) {
+            upgradePasswordHash(user, password);
             return user;
         }
         return null;
     }
 
+    // opt-in (security.password.upgrade-on-login): rehash at the configured cost, unless the password changed meanwhile
+    private void upgradePasswordHash(User user, String password) {
+        String currentHash = user.getPasswordHash();
+        passwordHashingService.upgradeIfWeaker(password, currentHash,
+                upgradedHash -> userRepository.replacePasswordHash(user.getId(), currentHash, upgradedHash));
+    }
+
     public void initiatePasswordReset(String email) throws RuntimeException {
         User user = userRepository.findByEmail(email).orElseThrow(() -> new RuntimeException("Invalid credentials"));
         PasswordResetToken resetToken = new PasswordResetToken(user.getId(), 15); // 15 mins expiry time
@@ -412,7 +378,7 @@ public class UserService {
             throw new RuntimeException("Token has expired");
         }
         User user = userRepository.findById(resetToken.getUserId()).orElseThrow(() -> new RuntimeException("Invalid token or credentials"));
-        user.setPasswordHash(passwordEncoder.encode(newPassword));
+        user.setPasswordHash(passwordHashingService.encode(newPassword));
         userRepository.save(user);
         passwordResetTokenRepository.delete(resetToken);
     }
@@ -427,10 +393,10 @@ public class UserService {
         if (!isValidPassword(newPassword)) {
             throw new RuntimeException("Password does not meet requirements");
         }
-        if (!passwordEncoder.matches(currentPassword, user.getPasswordHash())) {
+        if (!passwordHashingService.matches(currentPassword, user.getPasswordHash())) {
             throw new RuntimeException("Current password is incorrect");
         }
-        String hashedPassword = passwordEncoder.encode(newPassword);
+        String hashedPassword = passwordHashingService.encode(newPassword);
         user.setPasswordHash(hashedPassword);
         userRepository.save(user);
     }
@@ -0,0 +1,126 @@
+package com.project.planpulse.storage;
+
+import com.project.planpulse.model.BlobRef;
+import com.project.planpulse.repository.BlobRefRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Predicate;
+
+// reference-counted access to the blob store: identical uploads share one blob, and a blob is only deleted after
+// its count stayed at zero for a grace period, so a concurrent upload of the same content can never lose its file
+@Service
+public class BlobStorageService {
+
+    private static final Logger log = LoggerFactory.getLogger(BlobStorageService.class);
+    private static final int ACQUIRE_ATTEMPTS = 50;
+    private static final int SWEEP_BATCH_SIZE = 100;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private BlobRefRepository blobRefRepository;
+
+    @Value("${app.storage.delete-grace-seconds:3600}")
+    private long deleteGraceSeconds;
+
+    // returns the key of the stored blob, which holds one new reference
+    public String store(InputStream in, String extension, long maxBytes, int headerLength, Predicate<byte[]> headerCheck) throws IOException {
+        BlobStore.StagedBlob staged = blobStore.stage(in, extension, maxBytes, headerLength, headerCheck);
+        try {
+            // the reference is taken before the content becomes visible, so the sweeper cannot delete it underneath us
+            acquire(staged);
+        } catch (RuntimeException e) {
+            blobStore.discard(staged);
+            throw e;
+        }
+        try {
+            blobStore.commit(staged);
+        } catch (IOException | RuntimeException e) {
+            blobRefRepository.release(staged.key());
+            throw e;
+        }
+        return staged.key();
+    }
+
+    public void release(String key) {
+        if (key == null || key.isBlank()) {
+            return;
+        }
+        long remaining = blobRefRepository.release(key);
+        if (remaining == -1 && BlobStore.contentHash(key) == null) {
+            // files stored before content addressing belong to exactly one user
+            try {
+                blobStore.delete(key);
+            } catch (IOException e) {
+                log.warn("Failed to delete blob {}", key, e);
+            }
+        }
+    }
+
+    @Scheduled(initialDelayString = "${app.storage.sweep-interval-ms:3600000}", fixedDelayString = "${app.storage.sweep-interval-ms:3600000}")
+    public void sweep() {
+        try {
+            Date cutoff = new Date(System.currentTimeMillis() - deleteGraceSeconds * 1000);
+            List<BlobRef> unreferenced;
+            int deleted = 0;
+            do {
+                unreferenced = blobRefRepository.findByRefCountAndUpdatedAtBefore(0, cutoff, PageRequest.of(0, SWEEP_BATCH_SIZE));
+                int progress = 0;
+                for (BlobRef ref : unreferenced) {
+                    // DELETING records are leftovers of an interrupted sweep and are finished off
+                    if (!"DELETING".equals(ref.getState()) && !blobRefRepository.markDeleting(ref.getId(), cutoff)) {
+                        continue;
+                    }
+                    try {
+                        blobStore.delete(ref.getId());
+                        blobRefRepository.removeDeleting(ref.getId());
+                        progress++;
+                    } catch (IOException e) {
+                        log.warn("Failed to delete blob {}", ref.getId(), e);
+                    }
+                }
+                deleted += progress;
+                if (progress == 0) {
+                    break;
+                }
+            } while (unreferenced.size() == SWEEP_BATCH_SIZE);
+            if (deleted > 0) {
+                log.info("Deleted {} unreferenced blobs", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Blob sweep failed", e);
+        }
+    }
+
+    private void acquire(BlobStore.StagedBlob staged) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                blobRefRepository.acquire(staged.key(), staged.size());
+                return;
+            } catch (DuplicateKeyException e) {
+                // the sweeper is deleting this exact content right now; wait for it to finish, then store it again
+                if (attempt == ACQUIRE_ATTEMPTS) {
+                    throw new RuntimeException("Storage is busy, please retry the upload");
+                }
+                try {
+                    Thread.sleep(100);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException("Interrupted while storing the upload");
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.project.planpulse.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.util.HexFormat;
+import java.util.function.Predicate;
+
+// content-addressed file storage: a blob's key is derived from the SHA-256 of its content, spread over a two-level
+// shard tree (ab/cd/abcd...ef.png), so identical uploads share one object; reference counting lives in BlobStorageService
+public interface BlobStore {
+
+    // content streamed into the store but not yet visible under its key
+    record StagedBlob(String key, String sha256, long size, Object handle) {
+    }
+
+    // localPath is null for remote stores
+    record StoredBlob(String key, long size, long lastModified, Path localPath) {
+    }
+
+    // headerCheck sees the first headerLength bytes before anything is stored
+    StagedBlob stage(InputStream in, String extension, long maxBytes, int headerLength, Predicate<byte[]> headerCheck) throws IOException;
+
+    // makes the staged content visible under its key; a no-op besides cleanup when the content is already stored
+    void commit(StagedBlob staged) throws IOException;
+
+    void discard(StagedBlob staged);
+
+    // null when there is no object under the key
+    StoredBlob stat(String key) throws IOException;
+
+    ReadableByteChannel open(String key, long position) throws IOException;
+
+    // stores an object derived from a blob (e.g. a resized variant) under key@suffix; it is deleted with the blob
+    void writeDerived(String key, String suffix, byte[] content) throws IOException;
+
+    // removes the blob and everything derived from it
+    void delete(String key) throws IOException;
+
+    static String contentKey(String sha256, String extension) {
+        return sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256 + extension;
+    }
+
+    static String derivedKey(String key, String suffix) {
+        int dot = key.lastIndexOf('.');
+        int slash = key.lastIndexOf('/');
+        String base = dot > slash ? key.substring(0, dot) : key;
+        return base + "@" + suffix;
+    }
+
+    // the content hash a key was derived from, or null for keys from before content addressing and for derived objects
+    static String contentHash(String key) {
+        String name = key.substring(key.lastIndexOf('/') + 1);
+        int dot = name.indexOf('.');
+        String hash = dot < 0 ? name : name.substring(0, dot);
+        if (hash.length() != 64 || key.indexOf('/') != 2 || !name.startsWith(key.substring(0, 2) + key.substring(3, 5))) {
+            return null;
+        }
+        try {
+            HexFormat.of().parseHex(hash);
+            return hash;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.project.planpulse.storage;
+
+import com.google.cloud.ReadChannel;
+import com.google.cloud.storage.*;
+import com.project.planpulse.util.StreamingFileWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Predicate;
+
+// blobs as objects in a GCS bucket, credentials from the environment (application default credentials)
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "gcs")
+public class GcsBlobStore implements BlobStore {
+
+    private static final int PRECONDITION_FAILED = 412;
+
+    private final Storage storage;
+    private final String bucket;
+    private final String prefix;
+
+    public GcsBlobStore(@Value("${app.storage.gcs.bucket}") String bucket,
+                        @Value("${app.storage.gcs.prefix:uploads/}") String prefix) {
+        this.storage = StorageOptions.getDefaultInstance().getService();
+        this.bucket = bucket;
+        this.prefix = prefix;
+    }
+
+    @Override
+    public StagedBlob stage(InputStream in, String extension, long maxBytes, int headerLength, Predicate<byte[]> headerCheck) throws IOException {
+        // the key is only known once the whole upload is hashed, so it is spooled locally first
+        Path directory = Path.of(System.getProperty("java.io.tmpdir"));
+        StreamingFileWriter.Result spooled = StreamingFileWriter.spool(in, directory, maxBytes, headerLength, headerCheck);
+        return new StagedBlob(BlobStore.contentKey(spooled.sha256(), extension), spooled.sha256(), spooled.size(), spooled.file());
+    }
+
+    @Override
+    public void commit(StagedBlob staged) throws IOException {
+        Path temp = (Path) staged.handle();
+        try {
+            BlobInfo info = BlobInfo.newBuilder(blobId(staged.key())).setContentType(URLConnection.guessContentTypeFromName(staged.key())).build();
+            storage.createFrom(info, temp, Storage.BlobWriteOption.doesNotExist());
+        } catch (StorageException e) {
+            // the same content is already stored
+            if (e.getCode() != PRECONDITION_FAILED) {
+                throw new IOException("Failed to store blob " + staged.key(), e);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public void discard(StagedBlob staged) {
+        try {
+            Files.deleteIfExists((Path) staged.handle());
+        } catch (IOException ignored) {
+            // a leftover temp file is harmless
+        }
+    }
+
+    @Override
+    public BlobStore.StoredBlob stat(String key) throws IOException {
+        try {
+            Blob blob = storage.get(blobId(key));
+            if (blob == null) {
+                return null;
+            }
+            long updated = blob.getUpdateTimeOffsetDateTime() == null ? 0 : blob.getUpdateTimeOffsetDateTime().toInstant().toEpochMilli();
+            return new BlobStore.StoredBlob(key, blob.getSize(), updated, null);
+        } catch (StorageException e) {
+            throw new IOException("Failed to read blob " + key, e);
+        }
+    }
+
+    @Override
+    public ReadableByteChannel open(String key, long position) throws IOException {
+        try {
+            ReadChannel reader = storage.reader(blobId(key));
+            reader.seek(position);
+            return reader;
+        } catch (StorageException e) {
+            throw new IOException("Failed to read blob " + key, e);
+        }
+    }
+
+    @Override
+    public void writeDerived(String key, String suffix, byte[] content) throws IOException {
+        try {
+            String derivedKey = BlobStore.derivedKey(key, suffix);
+            BlobInfo info = BlobInfo.newBuilder(blobId(derivedKey)).setContentType(URLConnection.guessContentTypeFromName(derivedKey)).build();
+            storage.create(info, content);
+        } catch (StorageException e) {
+            throw new IOException("Failed to store derived blob of " + key, e);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            String derivedPrefix = prefix + BlobStore.derivedKey(key, "");
+            for (Blob derived : storage.list(bucket, Storage.BlobListOption.prefix(derivedPrefix)).iterateAll()) {
+                storage.delete(derived.getBlobId());
+            }
+            storage.delete(blobId(key));
+        } catch (StorageException e) {
+            throw new IOException("Failed to delete blob " + key, e);
+        }
+    }
+
+    private BlobId blobId(String key) {
+        return BlobId.of(bucket, prefix + key);
+    }
+}
@@ -0,0 +1,110 @@
+package com.project.planpulse.storage;
+
+import com.project.planpulse.util.StreamingFileWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.function.Predicate;
+
+// blobs as files under a root directory; the shard directories keep every directory small at millions of files
+@Component
+@ConditionalOnProperty(name = "app.storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalBlobStore implements BlobStore {
+
+    private final Path root;
+
+    public LocalBlobStore(@Value("${app.storage.local.root:uploads}") String root) {
+        this.root = Paths.get(root).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public StagedBlob stage(InputStream in, String extension, long maxBytes, int headerLength, Predicate<byte[]> headerCheck) throws IOException {
+        Files.createDirectories(root);
+        // staged next to the tree, so the commit is a rename on the same file system
+        StreamingFileWriter.Result spooled = StreamingFileWriter.spool(in, root, maxBytes, headerLength, headerCheck);
+        return new StagedBlob(BlobStore.contentKey(spooled.sha256(), extension), spooled.sha256(), spooled.size(), spooled.file());
+    }
+
+    @Override
+    public void commit(StagedBlob staged) throws IOException {
+        Path temp = (Path) staged.handle();
+        try {
+            Path target = resolve(staged.key());
+            if (!Files.exists(target)) {
+                Files.createDirectories(target.getParent());
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public void discard(StagedBlob staged) {
+        try {
+            Files.deleteIfExists((Path) staged.handle());
+        } catch (IOException ignored) {
+            // a leftover temp file is harmless
+        }
+    }
+
+    @Override
+    public StoredBlob stat(String key) throws IOException {
+        Path path = resolve(key);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            return new StoredBlob(key, attributes.size(), attributes.lastModifiedTime().toMillis(), path);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+    }
+
+    @Override
+    public ReadableByteChannel open(String key, long position) throws IOException {
+        FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ);
+        channel.position(position);
+        return channel;
+    }
+
+    @Override
+    public void writeDerived(String key, String suffix, byte[] content) throws IOException {
+        Path target = resolve(BlobStore.derivedKey(key, suffix));
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".derived-", ".tmp");
+        try {
+            Files.write(temp, content);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Path path = resolve(key);
+        String derivedPrefix = resolve(BlobStore.derivedKey(key, "")).getFileName().toString();
+        if (Files.isDirectory(path.getParent())) {
+            try (DirectoryStream<Path> derived = Files.newDirectoryStream(path.getParent(), derivedPrefix + "*")) {
+                for (Path file : derived) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        Files.deleteIfExists(path);
+    }
+
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root)) {
+            throw new RuntimeException("Invalid blob key: " + key);
+        }
+        return path;
+    }
+}
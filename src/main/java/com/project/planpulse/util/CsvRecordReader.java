@@ -0,0 +1,121 @@
+package com.project.planpulse.util;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// incremental RFC 4180 reader: quoted fields, escaped quotes and embedded newlines, one record at a time
+public class CsvRecordReader {
+
+    private final Reader reader;
+    private final int maxRecordLength;
+    private long recordNumber = 0;
+    private int pending = -2; // -2 means no look-ahead character buffered
+
+    public CsvRecordReader(Reader reader, int maxRecordLength) {
+        this.reader = reader;
+        this.maxRecordLength = maxRecordLength;
+    }
+
+    // 1-based number of the record last returned by next()
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    // returns null at end of input
+    public List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean sawAnything = false;
+        int length = 0;
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                if (!sawAnything) {
+                    return null;
+                }
+                if (quoted) {
+                    recordNumber++;
+                    throw new UnterminatedQuoteException(recordNumber);
+                }
+                break;
+            }
+            sawAnything = true;
+            if (++length > maxRecordLength) {
+                recordNumber++;
+                skipRestOfRecord(quoted);
+                throw new RecordTooLongException(recordNumber, maxRecordLength);
+            }
+            if (quoted) {
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        unread(next);
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r') {
+                    int next = read();
+                    if (next != '\n') {
+                        unread(next);
+                    }
+                }
+                break;
+            } else {
+                field.append((char) c);
+            }
+        }
+        fields.add(field.toString());
+        recordNumber++;
+        return fields;
+    }
+
+    private void skipRestOfRecord(boolean quoted) throws IOException {
+        int c;
+        while ((c = read()) != -1) {
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (!quoted && c == '\n') {
+                return;
+            }
+        }
+    }
+
+    private int read() throws IOException {
+        if (pending != -2) {
+            int c = pending;
+            pending = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    private void unread(int c) {
+        pending = c;
+    }
+
+    public static class RecordTooLongException extends IOException {
+        public RecordTooLongException(long recordNumber, int maxRecordLength) {
+            super("Record " + recordNumber + " exceeds " + maxRecordLength + " characters");
+        }
+    }
+
+    // the quote opened in this record is never closed, so the rest of the input was read into its last field
+    public static class UnterminatedQuoteException extends IOException {
+        public UnterminatedQuoteException(long recordNumber) {
+            super("Unterminated quoted field in record " + recordNumber);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.project.planpulse.util;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+// bounded cache of already verified tokens, keyed by a SHA-256 digest of the token
+@Component
+public class JwtTokenCache {
+
+    public record Stats(long hits, long misses, long verified, long rejected, int size) {
+    }
+
+    private record TokenDigest(long a, long b, long c, long d) {
+    }
+
+    private record VerifiedToken(String subject, long expiresAtMillis) {
+    }
+
+    private static final MessageDigest SHA_256_PROTOTYPE;
+
+    static {
+        try {
+            SHA_256_PROTOTYPE = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private final int maxEntries;
+    private final long maxTtlMillis;
+    private final ConcurrentHashMap<TokenDigest, VerifiedToken> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder verified = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    public JwtTokenCache(@Value("${jwt.cache.max-entries:10000}") int maxEntries,
+                         @Value("${jwt.cache.max-ttl-seconds:900}") long maxTtlSeconds) {
+        this.maxEntries = maxEntries;
+        this.maxTtlMillis = maxTtlSeconds * 1000;
+    }
+
+    // returns the token subject, or null if the token is invalid or expired
+    public String resolveSubject(String token) {
+        if (maxEntries <= 0) {
+            return verify(token, null);
+        }
+        TokenDigest digest = digest(token);
+        VerifiedToken cached = entries.get(digest);
+        if (cached != null) {
+            if (System.currentTimeMillis() < cached.expiresAtMillis()) {
+                hits.increment();
+                return cached.subject();
+            }
+            entries.remove(digest, cached);
+        }
+        return verify(token, digest);
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), verified.sum(), rejected.sum(), entries.size());
+    }
+
+    private String verify(String token, TokenDigest digest) {
+        misses.increment();
+        Claims claims = JwtUtil.parseClaims(token);
+        if (claims == null || claims.getSubject() == null) {
+            rejected.increment();
+            return null;
+        }
+        verified.increment();
+        if (digest != null) {
+            long now = System.currentTimeMillis();
+            long expiresAt = now + maxTtlMillis;
+            Date expiration = claims.getExpiration();
+            if (expiration != null) {
+                expiresAt = Math.min(expiresAt, expiration.getTime());
+            }
+            makeRoom(now);
+            entries.put(digest, new VerifiedToken(claims.getSubject(), expiresAt));
+        }
+        return claims.getSubject();
+    }
+
+    // a sweep goes down to 90% of the cap, so the next one is a tenth of the cap misses away; misses arriving during a
+    // sweep skip it and may overshoot the cap by a few entries
+    private void makeRoom(long now) {
+        if (entries.size() < maxEntries || !evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            evict(now, maxEntries - Math.max(1, maxEntries / 10));
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private void evict(long now, int target) {
+        entries.values().removeIf(entry -> entry.expiresAtMillis() <= now);
+        Iterator<Map.Entry<TokenDigest, VerifiedToken>> iterator = entries.entrySet().iterator();
+        while (entries.size() > target && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static TokenDigest digest(String token) {
+        MessageDigest sha256;
+        try {
+            sha256 = (MessageDigest) SHA_256_PROTOTYPE.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("SHA-256 digest cannot be cloned", e);
+        }
+        ByteBuffer hash = ByteBuffer.wrap(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        return new TokenDigest(hash.getLong(), hash.getLong(), hash.getLong(), hash.getLong());
+    }
+}
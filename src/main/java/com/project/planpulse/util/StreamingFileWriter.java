@@ -0,0 +1,92 @@
+package com.project.planpulse.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.function.Predicate;
+
+// copies an upload to disk through one fixed buffer: the leading bytes are checked before anything is written,
+// the size limit and SHA-256 are applied while copying, and nothing is left behind when the copy fails
+public final class StreamingFileWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public record Result(Path file, String sha256, long size) {
+    }
+
+    public static class TooLargeException extends IOException {
+        public TooLargeException(long maxBytes) {
+            super("Upload exceeds " + maxBytes + " bytes");
+        }
+    }
+
+    public static class RejectedHeaderException extends IOException {
+        public RejectedHeaderException() {
+            super("Upload content does not match the expected format");
+        }
+    }
+
+    private StreamingFileWriter() {
+    }
+
+    // leaves the content in a temp file in directory, for callers that name the file by its hash; the caller moves
+    // or deletes the returned file. headerCheck sees the first headerLength bytes (fewer if the input is shorter)
+    public static Result spool(InputStream in, Path directory, long maxBytes, int headerLength, Predicate<byte[]> headerCheck) throws IOException {
+        byte[] header = in.readNBytes(headerLength);
+        if (!headerCheck.test(header)) {
+            throw new RejectedHeaderException();
+        }
+        MessageDigest digest = sha256();
+        Path temp = Files.createTempFile(directory, ".upload-", ".tmp");
+        boolean complete = false;
+        try {
+            long size = 0;
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocate(Math.max(BUFFER_SIZE, header.length));
+                buffer.put(header);
+                int read;
+                while (true) {
+                    if (buffer.position() > 0) {
+                        size += buffer.position();
+                        if (size > maxBytes) {
+                            throw new TooLargeException(maxBytes);
+                        }
+                        digest.update(buffer.array(), 0, buffer.position());
+                        buffer.flip();
+                        while (buffer.hasRemaining()) {
+                            channel.write(buffer);
+                        }
+                        buffer.clear();
+                    }
+                    read = in.read(buffer.array(), 0, buffer.capacity());
+                    if (read == -1) {
+                        break;
+                    }
+                    buffer.position(read);
+                }
+                channel.force(false);
+            }
+            complete = true;
+            return new Result(temp, HexFormat.of().formatHex(digest.digest()), size);
+        } finally {
+            if (!complete) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.project.planpulse.replay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.project.planpulse.filter.TrafficTrace;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// replays a trace written by TrafficRecordingFilter against a running instance:
+//   gradle replay --args="--trace=traffic/trace.ndjson --target=http://localhost:8080 --scale=2"
+// Seeds its own users/boards/tasks, maps the trace's aliases onto them, then sends every request at its recorded
+// offset divided by scale, each on its own virtual thread. Latency is measured from the scheduled send time, so a
+// slow server shows up as latency instead of silently lowering the offered rate. Requests with a non-JSON body
+// (multipart uploads, CSV/NDJSON imports) are skipped
+public final class ReplayTool {
+
+    private static final Pattern PATH_VARIABLE = Pattern.compile("\\{([^}:]+)(:[^}]*)?}");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Map<String, String> options;
+    private final URI target;
+    private SeededDataset dataset;
+
+    private static final class EndpointStats {
+        final Histogram latencyMicros = new ConcurrentHistogram(3);
+        final LongAdder errors = new LongAdder();
+        final LongAdder statusMismatches = new LongAdder();
+    }
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+    private final LongAdder skipped = new LongAdder();
+
+    private ReplayTool(Map<String, String> options) {
+        this.options = options;
+        this.target = URI.create(options.getOrDefault("target", "http://localhost:8080"));
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+        }
+        if (!options.containsKey("trace")) {
+            System.err.println("Usage: --trace=<file> [--target=http://localhost:8080] [--scale=1.0] [--limit=<requests>]"
+                    + " [--users=20] [--boards=50] [--tasks-per-board=20] [--seed=42] [--report=build/replay/report.json]");
+            System.exit(2);
+        }
+        new ReplayTool(options).run();
+    }
+
+    private void run() throws IOException, InterruptedException {
+        List<TrafficTrace> traces = readTraces(Path.of(options.get("trace")), Integer.parseInt(options.getOrDefault("limit", "0")));
+        if (traces.isEmpty()) {
+            System.out.println("Trace is empty, nothing to replay");
+            return;
+        }
+        double scale = Double.parseDouble(options.getOrDefault("scale", "1.0"));
+
+        System.out.println("Seeding " + target + " ...");
+        dataset = SeededDataset.seed(client, target, objectMapper,
+                Integer.parseInt(options.getOrDefault("users", "20")),
+                Integer.parseInt(options.getOrDefault("boards", "50")),
+                Integer.parseInt(options.getOrDefault("tasks-per-board", "20")),
+                Long.parseLong(options.getOrDefault("seed", "42")));
+
+        System.out.println("Replaying " + traces.size() + " requests at " + scale + "x the recorded rate ...");
+        long firstAt = traces.get(0).at();
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (TrafficTrace trace : traces) {
+                long scheduled = start + (long) (TimeUnit.MILLISECONDS.toNanos(trace.at() - firstAt) / scale);
+                long wait = scheduled - System.nanoTime();
+                if (wait > 0) {
+                    TimeUnit.NANOSECONDS.sleep(wait);
+                }
+                executor.execute(() -> replay(trace, scheduled));
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        report(traces.size(), elapsedNanos, scale);
+    }
+
+    private List<TrafficTrace> readTraces(Path file, int limit) throws IOException {
+        List<TrafficTrace> traces = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    traces.add(objectMapper.readValue(line, TrafficTrace.class));
+                }
+            }
+        }
+        // the recorder writes in completion order
+        traces.sort(Comparator.comparingLong(TrafficTrace::at));
+        return limit > 0 && traces.size() > limit ? traces.subList(0, limit) : traces;
+    }
+
+    private void replay(TrafficTrace trace, long scheduled) {
+        if (trace.contentType() != null) {
+            skipped.increment();
+            return;
+        }
+        EndpointStats stats = endpoints.computeIfAbsent(trace.method() + " " + trace.route(), key -> new EndpointStats());
+        try {
+            HttpRequest.Builder request = HttpRequest.newBuilder(target.resolve(uri(trace))).timeout(Duration.ofSeconds(30));
+            if (trace.user() != null) {
+                request.header("Authorization", user(TrafficTrace.parseAlias(trace.user())).token());
+            }
+            HttpRequest.BodyPublisher body = HttpRequest.BodyPublishers.noBody();
+            if (trace.body() != null) {
+                request.header("Content-Type", "application/json");
+                body = HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(resolve(null, trace.body())));
+            }
+            HttpResponse<Void> response = client.send(request.method(trace.method(), body).build(), HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() >= 400) {
+                stats.errors.increment();
+            }
+            if (response.statusCode() / 100 != trace.status() / 100) {
+                stats.statusMismatches.increment();
+            }
+        } catch (IOException | RuntimeException e) {
+            stats.errors.increment();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        stats.latencyMicros.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled)));
+    }
+
+    private String uri(TrafficTrace trace) {
+        Matcher matcher = PATH_VARIABLE.matcher(trace.route());
+        StringBuilder path = new StringBuilder();
+        while (matcher.find()) {
+            String name = matcher.group(1);
+            String value = trace.path() == null ? null : trace.path().get(name);
+            matcher.appendReplacement(path, Matcher.quoteReplacement(
+                    URLEncoder.encode(value == null ? "" : resolve(name, value), StandardCharsets.UTF_8).replace("+", "%20")));
+        }
+        matcher.appendTail(path);
+        if (trace.query() != null && !trace.query().isEmpty()) {
+            StringJoiner query = new StringJoiner("&", "?", "");
+            trace.query().forEach((name, value) -> query.add(URLEncoder.encode(name, StandardCharsets.UTF_8) + "="
+                    + URLEncoder.encode(resolve(name, value), StandardCharsets.UTF_8)));
+            path.append(query);
+        }
+        return path.toString();
+    }
+
+    // the reverse of TrafficSanitizer: markers become seeded ids, the seeded password, or filler of the recorded length
+    private String resolve(String name, String value) {
+        if (TrafficTrace.SECRET.equals(value)) {
+            return SeededDataset.PASSWORD;
+        }
+        if (TrafficTrace.DATE.equals(value)) {
+            return Instant.now().plus(Duration.ofDays(7)).toString();
+        }
+        if (value.startsWith(TrafficTrace.LENGTH_PREFIX)) {
+            return "x".repeat(Math.min(Integer.parseInt(value.substring(TrafficTrace.LENGTH_PREFIX.length())), 100_000));
+        }
+        TrafficTrace.Alias alias = TrafficTrace.parseAlias(value);
+        if (alias == null) {
+            return value;
+        }
+        return switch (alias.kind()) {
+            case "board" -> dataset.boards.get(alias.ordinal() % dataset.boards.size());
+            case "user" -> {
+                SeededDataset.SeededUser user = user(alias);
+                String lower = name == null ? "" : name.toLowerCase();
+                yield lower.equals("identifier") || lower.contains("username") ? user.username()
+                        : lower.contains("email") ? user.email()
+                        : user.id();
+            }
+            default -> dataset.tasks.get(alias.ordinal() % dataset.tasks.size());
+        };
+    }
+
+    private JsonNode resolve(String name, JsonNode shape) {
+        if (shape.isObject()) {
+            ObjectNode body = JsonNodeFactory.instance.objectNode();
+            shape.fields().forEachRemaining(field -> body.set(field.getKey(), resolve(field.getKey(), field.getValue())));
+            return body;
+        }
+        if (shape.isArray()) {
+            ArrayNode body = JsonNodeFactory.instance.arrayNode();
+            shape.forEach(element -> body.add(resolve(name, element)));
+            return body;
+        }
+        if (shape.isTextual()) {
+            return TextNode.valueOf(resolve(name, shape.textValue()));
+        }
+        return shape;
+    }
+
+    private SeededDataset.SeededUser user(TrafficTrace.Alias alias) {
+        return dataset.users.get(alias.ordinal() % dataset.users.size());
+    }
+
+    private void report(int requests, long elapsedNanos, double scale) throws IOException {
+        double seconds = elapsedNanos / 1e9;
+        ObjectNode report = objectMapper.createObjectNode();
+        report.put("target", target.toString());
+        report.put("trace", options.get("trace"));
+        report.put("scale", scale);
+        report.put("requests", requests);
+        report.put("skipped", skipped.sum());
+        report.put("seconds", seconds);
+        ObjectNode byEndpoint = report.putObject("endpoints");
+
+        System.out.printf("%n%-55s %8s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        new TreeMap<>(endpoints).forEach((endpoint, stats) -> {
+            Histogram histogram = stats.latencyMicros;
+            long count = histogram.getTotalCount();
+            System.out.printf("%-55s %8d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n", endpoint, count, stats.errors.sum(),
+                    count / seconds, millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                    histogram.getMaxValue() / 1000.0);
+            ObjectNode entry = byEndpoint.putObject(endpoint);
+            entry.put("count", count);
+            entry.put("errors", stats.errors.sum());
+            entry.put("statusMismatches", stats.statusMismatches.sum());
+            entry.put("throughput", count / seconds);
+            ObjectNode percentiles = entry.putObject("latencyMillis");
+            percentiles.put("p50", millis(histogram, 50));
+            percentiles.put("p90", millis(histogram, 90));
+            percentiles.put("p99", millis(histogram, 99));
+            percentiles.put("p99.9", millis(histogram, 99.9));
+            percentiles.put("max", histogram.getMaxValue() / 1000.0);
+        });
+        System.out.printf("%n%d requests (%d skipped) in %.1f s%n", requests, skipped.sum(), seconds);
+
+        Path reportFile = Path.of(options.getOrDefault("report", "build/replay/report.json"));
+        if (reportFile.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(reportFile.toAbsolutePath().getParent());
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(reportFile.toFile(), report);
+        System.out.println("Report written to " + reportFile.toAbsolutePath());
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+}
@@ -0,0 +1,112 @@
+package com.project.planpulse.replay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// users, boards and tasks created through the public API before a replay, so the run works against any backend
+// (MongoDB or the inmemory profile). Every user is a member of every board, the contents come from a fixed seed
+final class SeededDataset {
+
+    static final String PASSWORD = "Replay-pass1";
+
+    private static final String[] STATUSES = {"TO_DO", "IN_PROGRESS", "IN_REVIEW", "DONE"};
+    private static final String[] PRIORITIES = {"LOW", "MEDIUM", "HIGH"};
+
+    record SeededUser(String id, String username, String email, String token) {
+    }
+
+    final List<SeededUser> users = new ArrayList<>();
+    final List<String> boards = new ArrayList<>();
+    final List<String> tasks = new ArrayList<>();
+
+    private final HttpClient client;
+    private final URI target;
+    private final ObjectMapper objectMapper;
+
+    private SeededDataset(HttpClient client, URI target, ObjectMapper objectMapper) {
+        this.client = client;
+        this.target = target;
+        this.objectMapper = objectMapper;
+    }
+
+    static SeededDataset seed(HttpClient client, URI target, ObjectMapper objectMapper,
+                              int userCount, int boardCount, int tasksPerBoard, long seed) throws IOException, InterruptedException {
+        SeededDataset dataset = new SeededDataset(client, target, objectMapper);
+        Random random = new Random(seed);
+        // usernames must not collide with an earlier run against the same database
+        String run = Long.toString(System.currentTimeMillis(), 36);
+        for (int i = 0; i < userCount; i++) {
+            dataset.users.add(dataset.register("replay_" + run + "_" + i));
+        }
+        for (int b = 0; b < boardCount; b++) {
+            SeededUser creator = dataset.users.get(b % userCount);
+            JsonNode board = dataset.post("/boards/create-board", creator.token(), Map.of("title", "Replay board " + b));
+            String boardId = board.get("id").asText();
+            dataset.boards.add(boardId);
+            for (SeededUser user : dataset.users) {
+                if (user != creator) {
+                    dataset.post("/boards/add-user/" + boardId + "/" + user.username(), creator.token(), null);
+                }
+            }
+            for (int t = 0; t < tasksPerBoard; t++) {
+                Map<String, Object> task = Map.of(
+                        "title", "Replay task " + b + "-" + t,
+                        "description", "x".repeat(20 + random.nextInt(200)),
+                        "status", STATUSES[random.nextInt(STATUSES.length)],
+                        "priority", PRIORITIES[random.nextInt(PRIORITIES.length)],
+                        "assigneeId", dataset.users.get(random.nextInt(userCount)).id());
+                dataset.tasks.add(dataset.post("/boards/add-task/" + boardId, creator.token(), task).get("id").asText());
+            }
+        }
+        return dataset;
+    }
+
+    private SeededUser register(String username) throws IOException, InterruptedException {
+        String email = username + "@replay.test";
+        String boundary = "replay-" + Long.toHexString(System.nanoTime());
+        StringBuilder body = new StringBuilder();
+        Map<String, String> fields = Map.of("firstname", "Replay", "lastname", "User", "username", username,
+                "email", email, "password", PASSWORD, "confirmPassword", PASSWORD);
+        fields.forEach((name, value) -> body.append("--").append(boundary).append("\r\n")
+                .append("Content-Disposition: form-data; name=\"").append(name).append("\"\r\n\r\n")
+                .append(value).append("\r\n"));
+        body.append("--").append(boundary).append("--\r\n");
+        HttpRequest request = HttpRequest.newBuilder(target.resolve("/auth/register"))
+                .header("Content-Type", "multipart/form-data; boundary=" + boundary)
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString(), StandardCharsets.UTF_8))
+                .build();
+        JsonNode response = send(request);
+        return new SeededUser(response.get("userId").asText(), username, email, response.get("token").asText());
+    }
+
+    private JsonNode post(String path, String token, Object body) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(target.resolve(path)).header("Authorization", token);
+        if (body == null) {
+            request.POST(HttpRequest.BodyPublishers.noBody());
+        } else {
+            request.header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+        }
+        return send(request.build());
+    }
+
+    private JsonNode send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() >= 300) {
+            throw new IOException("Seeding failed: " + request.method() + " " + request.uri() + " -> " + response.statusCode()
+                    + " " + new String(response.body(), StandardCharsets.UTF_8));
+        }
+        return response.body().length == 0 ? objectMapper.nullNode() : objectMapper.readTree(response.body());
+    }
+}
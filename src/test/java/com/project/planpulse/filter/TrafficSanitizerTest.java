@@ -0,0 +1,55 @@
+package com.project.planpulse.filter;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class TrafficSanitizerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void sameEntityKeepsItsAliasAcrossParameterNames() {
+        TrafficSanitizer sanitizer = new TrafficSanitizer(1000);
+        String boardId = "6710c2f1a9e4b35d2c8f0a17";
+
+        assertEquals("@board:0", sanitizer.value("boardId", "/boards/add-task/{boardId}", boardId));
+        assertEquals("@board:0", sanitizer.value("id", "/boards/{id}", boardId));
+        assertEquals("@board:1", sanitizer.value("boardId", "/boards/add-task/{boardId}", "6710c2f1a9e4b35d2c8f0a18"));
+        assertEquals("@task:0", sanitizer.value("id", "/tasks/{id}", boardId));
+        assertEquals("@id:0", sanitizer.value("cursor", "/tasks/board/{boardId}/page", boardId));
+        assertEquals("50", sanitizer.value("limit", "/tasks/board/{boardId}/page", "50"));
+    }
+
+    @Test
+    void bodyShapeKeepsStructureButNoText() throws Exception {
+        TrafficSanitizer sanitizer = new TrafficSanitizer(1000);
+        JsonNode body = objectMapper.readTree("""
+                {"title":"Quarterly numbers","status":"IN_REVIEW","timeSpent":90,"deadline":"2026-12-01T00:00:00Z",
+                 "taskIds":["6710c2f1a9e4b35d2c8f0a17","6710c2f1a9e4b35d2c8f0a18"],"password":"Sup3r-Secret_pw",
+                 "identifier":"jane@example.com"}""");
+
+        JsonNode shape = sanitizer.shape(null, body, "/tasks/status");
+
+        assertEquals(objectMapper.readTree("""
+                {"title":"s:17","status":"IN_REVIEW","timeSpent":90,"deadline":"@date",
+                 "taskIds":["@task:0","@task:1"],"password":"@secret","identifier":"@user:0"}"""), shape);
+        assertFalse(shape.toString().contains("jane"));
+        assertEquals(new TrafficTrace.Alias("task", 1), TrafficTrace.parseAlias(shape.get("taskIds").get(1).textValue()));
+    }
+
+    @Test
+    void aliasesStopGrowingAtTheCap() {
+        TrafficSanitizer sanitizer = new TrafficSanitizer(2);
+        sanitizer.alias("board", "a");
+        sanitizer.alias("board", "b");
+        TrafficTrace.Alias alias = TrafficTrace.parseAlias(sanitizer.alias("board", "c"));
+
+        assertEquals("board", alias.kind());
+        assertEquals(Math.floorMod("c".hashCode(), 2), alias.ordinal());
+        assertEquals("@board:1", sanitizer.alias("board", "b"));
+    }
+}
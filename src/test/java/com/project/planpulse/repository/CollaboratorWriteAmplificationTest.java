@@ -0,0 +1,110 @@
+package com.project.planpulse.repository;
+
+import com.project.planpulse.model.Board;
+import com.project.planpulse.model.User;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.convert.UpdateMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// bytes sent to MongoDB when adding one collaborator: whole-document saves vs. $addToSet updates
+class CollaboratorWriteAmplificationTest {
+
+    private MongoMappingContext mappingContext;
+    private MappingMongoConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        mappingContext = new MongoMappingContext();
+        mappingContext.afterPropertiesSet();
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.afterPropertiesSet();
+    }
+
+    @Test
+    void membershipUpdateSizeDoesNotGrowWithTheMemberList() {
+        int[] memberCounts = {10, 200, 2000};
+        long[] saveBytes = new long[memberCounts.length];
+        long[] updateBytes = new long[memberCounts.length];
+        for (int i = 0; i < memberCounts.length; i++) {
+            saveBytes[i] = wholeDocumentSaveBytes(memberCounts[i]);
+            updateBytes[i] = atomicUpdateBytes();
+            // the saved documents carry every member, so each step up makes a save cost more updates' worth
+            if (i > 0) {
+                double before = (double) saveBytes[i - 1] / updateBytes[i - 1];
+                double after = (double) saveBytes[i] / updateBytes[i];
+                assertTrue(after > before * 5, "members=" + memberCounts[i] + " save/update " + before + " -> " + after);
+            }
+        }
+        assertEquals(updateBytes[0], updateBytes[memberCounts.length - 1]);
+        assertTrue(saveBytes[memberCounts.length - 1] > 100 * updateBytes[memberCounts.length - 1]);
+    }
+
+    // the old path re-saved the board and the user after appending the new ids in memory
+    private long wholeDocumentSaveBytes(int members) {
+        Board board = new Board();
+        board.setId(new ObjectId().toHexString());
+        board.setTitle("Sprint board");
+        board.setCreatorId(new ObjectId().toHexString());
+        board.setCollaboratorIds(ids(members));
+        User user = new User();
+        user.setId(new ObjectId().toHexString());
+        user.setFirstname("Ada");
+        user.setLastname("Lovelace");
+        user.setUsername("ada");
+        user.setEmail("ada@example.com");
+        user.setPasswordHash("$2a$10$abcdefghijklmnopqrstuuCp2GyJkJ1Fq8m3a1b0Zb7o1Y8m9C2e");
+        user.setBoardIds(ids(members / 10));
+        return bsonSize(write(board)) + bsonSize(write(user));
+    }
+
+    private long atomicUpdateBytes() {
+        String boardId = new ObjectId().toHexString();
+        String userId = new ObjectId().toHexString();
+        MongoPersistentEntity<?> boardEntity = mappingContext.getRequiredPersistentEntity(Board.class);
+        MongoPersistentEntity<?> userEntity = mappingContext.getRequiredPersistentEntity(User.class);
+        return mappedSize(BoardRepositoryCustomImpl.addCollaboratorQuery(boardId, userId),
+                BoardRepositoryCustomImpl.addCollaboratorUpdate(userId), boardEntity)
+                + mappedSize(UserRepositoryCustomImpl.byId(userId), UserRepositoryCustomImpl.addBoardIdUpdate(boardId), userEntity);
+    }
+
+    private long mappedSize(Query query, Update update, MongoPersistentEntity<?> entity) {
+        Document filter = new QueryMapper(converter).getMappedObject(query.getQueryObject(), entity);
+        Document mappedUpdate = new UpdateMapper(converter).getMappedObject(update.getUpdateObject(), entity);
+        return bsonSize(filter) + bsonSize(mappedUpdate);
+    }
+
+    private Document write(Object entity) {
+        Document document = new Document();
+        converter.write(entity, document);
+        return document;
+    }
+
+    private static long bsonSize(Document document) {
+        return new RawBsonDocument(document, new DocumentCodec()).getByteBuffer().remaining();
+    }
+
+    private static List<String> ids(int count) {
+        List<String> ids = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            ids.add(new ObjectId().toHexString());
+        }
+        return ids;
+    }
+}
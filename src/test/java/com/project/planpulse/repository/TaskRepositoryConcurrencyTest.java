@@ -0,0 +1,86 @@
+package com.project.planpulse.repository;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.project.planpulse.model.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+// runs against a real MongoDB, e.g. PLANPULSE_TEST_MONGODB_URI=mongodb://localhost:27017
+@EnabledIfEnvironmentVariable(named = "PLANPULSE_TEST_MONGODB_URI", matches = ".+")
+class TaskRepositoryConcurrencyTest {
+
+    private static final int CALLERS = 500;
+
+    private MongoClient mongoClient;
+    private MongoTemplate mongoTemplate;
+    private TaskRepository taskRepository;
+
+    @BeforeEach
+    void setUp() {
+        mongoClient = MongoClients.create(System.getenv("PLANPULSE_TEST_MONGODB_URI"));
+        mongoTemplate = new MongoTemplate(mongoClient, "planpulse_test_" + UUID.randomUUID().toString().replace("-", ""));
+        taskRepository = new MongoRepositoryFactory(mongoTemplate)
+                .getRepository(TaskRepository.class, RepositoryFragments.just(new TaskRepositoryCustomImpl(mongoTemplate)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        mongoTemplate.getDb().drop();
+        mongoClient.close();
+    }
+
+    @Test
+    void concurrentTimeTrackingLosesNoIncrements() throws Exception {
+        Task task = new Task();
+        task.setTitle("concurrency");
+        task.setBoardId("board-1");
+        String taskId = taskRepository.save(task).getId();
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Task>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return taskRepository.incrementTimeSpent(taskId, 1, 1);
+                }));
+            }
+            start.countDown();
+            for (Future<Task> result : results) {
+                assertNotNull(result.get());
+            }
+        }
+
+        assertEquals(CALLERS, taskRepository.findById(taskId).orElseThrow().getTimeSpent());
+    }
+
+    @Test
+    void updateStatusReturnsTheModifiedTask() {
+        Task task = new Task();
+        task.setTitle("status");
+        task.setBoardId("board-1");
+        String taskId = taskRepository.save(task).getId();
+
+        Task updated = taskRepository.updateStatus(taskId, "TO_DO", "IN_PROGRESS", 1);
+
+        assertEquals("IN_PROGRESS", updated.getStatus());
+        assertEquals("IN_PROGRESS", taskRepository.findById(taskId).orElseThrow().getStatus());
+    }
+}
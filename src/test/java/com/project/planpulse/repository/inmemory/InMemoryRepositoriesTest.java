@@ -0,0 +1,167 @@
+package com.project.planpulse.repository.inmemory;
+
+import com.project.planpulse.model.Board;
+import com.project.planpulse.model.EmailOutboxMessage;
+import com.project.planpulse.model.Task;
+import com.project.planpulse.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryRepositoriesTest {
+
+    @Test
+    void concurrentTimeTrackingLosesNoIncrements() throws Exception {
+        InMemoryTaskRepository taskRepository = new InMemoryTaskRepository();
+        String taskId = taskRepository.save(task("board-1", "TO_DO")).getId();
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Task>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 500; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return taskRepository.incrementTimeSpent(taskId, 1, 1);
+                }));
+            }
+            start.countDown();
+            for (Future<Task> result : results) {
+                assertNotNull(result.get());
+            }
+        }
+
+        assertEquals(500, taskRepository.findById(taskId).orElseThrow().getTimeSpent());
+    }
+
+    @Test
+    void uniqueIndexRejectsDuplicatesAndFollowsUpdates() {
+        InMemoryUserRepository userRepository = new InMemoryUserRepository();
+        User jane = userRepository.save(user("jane", "jane@example.com"));
+
+        assertThrows(DuplicateKeyException.class, () -> userRepository.save(user("jane", "other@example.com")));
+        // the failed save must not leave its email behind in the other index
+        assertFalse(userRepository.existsByEmail("other@example.com"));
+
+        jane.setEmail("jane.doe@example.com");
+        userRepository.save(jane);
+        assertFalse(userRepository.existsByEmail("jane@example.com"));
+        assertEquals(jane.getId(), userRepository.findByEmail("jane.doe@example.com").orElseThrow().getId());
+        userRepository.save(user("janet", "jane@example.com"));
+    }
+
+    @Test
+    void tasksArePagedInIdOrderAndReindexedOnStatusChange() {
+        InMemoryTaskRepository taskRepository = new InMemoryTaskRepository();
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(taskRepository.save(task("board-1", "TO_DO")).getId());
+        }
+        taskRepository.save(task("board-2", "TO_DO"));
+
+        List<Task> first = taskRepository.findByBoardIdOrderByIdAsc("board-1", Limit.of(2));
+        List<Task> next = taskRepository.findByBoardIdAndIdGreaterThanOrderByIdAsc("board-1", first.get(1).getId(), Limit.of(10));
+        assertEquals(ids.subList(0, 2), first.stream().map(Task::getId).toList());
+        assertEquals(ids.subList(2, 5), next.stream().map(Task::getId).toList());
+
+        assertNotNull(taskRepository.updateStatus(ids.get(0), "TO_DO", "DONE", 1));
+        assertNull(taskRepository.updateStatus(ids.get(0), "TO_DO", "DONE", 1));
+        assertEquals(List.of(ids.get(0)), taskRepository.findByStatus("DONE").stream().map(Task::getId).toList());
+        assertEquals(5, taskRepository.findByStatus("TO_DO").size());
+    }
+
+    @Test
+    void collaboratorChangesAreAtomicAndReturnedDocumentsAreCopies() {
+        InMemoryBoardRepository boardRepository = new InMemoryBoardRepository(new InMemoryTaskRepository());
+        Board board = new Board();
+        board.setCreatorId("creator");
+        String boardId = boardRepository.save(board).getId();
+
+        assertNotNull(boardRepository.addCollaborator(boardId, "bob"));
+        assertNull(boardRepository.addCollaborator(boardId, "bob"));
+        assertNull(boardRepository.addCollaborator(boardId, "creator"));
+        assertEquals(1, boardRepository.findByCollaboratorIdsContaining("bob").size());
+
+        // mutating a loaded board without saving it changes nothing
+        boardRepository.findById(boardId).orElseThrow().getCollaboratorIds().add("mallory");
+        assertTrue(boardRepository.findByCollaboratorIdsContaining("mallory").isEmpty());
+
+        assertTrue(boardRepository.removeCollaborator(boardId, "bob"));
+        assertTrue(boardRepository.findByCollaboratorIdsContaining("bob").isEmpty());
+        assertEquals(1, boardRepository.findUnsharedIdsByCreatorId("creator", Pageable.unpaged()).size());
+    }
+
+    @Test
+    void statsAreRebuiltOnlyWhileNoTaskWriteIsInFlight() {
+        InMemoryTaskRepository taskRepository = new InMemoryTaskRepository();
+        InMemoryBoardRepository boardRepository = new InMemoryBoardRepository(taskRepository);
+        Board board = new Board();
+        board.setStats(null);
+        String boardId = boardRepository.save(board).getId();
+        taskRepository.save(task(boardId, "TO_DO"));
+        assertEquals(1, boardRepository.streamIdsWithoutStats().count());
+
+        long version = boardRepository.beginWrite(boardId);
+        assertFalse(boardRepository.rebuildStats(boardId));
+        assertNull(boardRepository.findById(boardId).orElseThrow().getStats());
+
+        // the write lands and counts itself; the rebuild then sees its task and does not count it twice
+        taskRepository.save(task(boardId, "DONE"));
+        boardRepository.recordTasksAdded(boardId, version, Map.of("DONE", 1L), 0);
+        assertTrue(boardRepository.rebuildStats(boardId));
+        Board rebuilt = boardRepository.findById(boardId).orElseThrow();
+        assertEquals(2, rebuilt.getStats().getTaskCount());
+        assertEquals(1L, rebuilt.getStats().getStatusCounts().get("DONE"));
+        assertEquals(0, boardRepository.streamIdsWithoutStats().count());
+    }
+
+    @Test
+    void finishedOutboxMessagesKeepNoBody() {
+        InMemoryEmailOutboxRepository outbox = new InMemoryEmailOutboxRepository();
+        Date leaseUntil = new Date(System.currentTimeMillis() + 60_000);
+        String sent = outbox.save(new EmailOutboxMessage("a@example.com", "Reset", "https://example.com/reset?token=a")).getId();
+        String failed = outbox.save(new EmailOutboxMessage("b@example.com", "Reset", "https://example.com/reset?token=b")).getId();
+        outbox.claimBatch("w1", 2, leaseUntil);
+
+        assertTrue(outbox.markSent(sent, "w1"));
+        outbox.markAttemptFailed(failed, "w1", "refused", new Date(), false);
+        EmailOutboxMessage retried = outbox.findById(failed).orElseThrow();
+        assertNotNull(retried.getBody(), "a retry still needs the body");
+        assertNull(retried.getFinishedAt());
+
+        outbox.claimBatch("w1", 1, leaseUntil);
+        outbox.markAttemptFailed(failed, "w1", "refused", new Date(), true);
+        for (String id : List.of(sent, failed)) {
+            EmailOutboxMessage message = outbox.findById(id).orElseThrow();
+            assertNull(message.getBody());
+            assertNotNull(message.getFinishedAt());
+        }
+    }
+
+    private static Task task(String boardId, String status) {
+        Task task = new Task();
+        task.setTitle("task");
+        task.setBoardId(boardId);
+        task.setStatus(status);
+        task.setDeadline(new Date());
+        return task;
+    }
+
+    private static User user(String username, String email) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(email);
+        return user;
+    }
+}
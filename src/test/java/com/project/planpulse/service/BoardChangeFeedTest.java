@@ -0,0 +1,176 @@
+package com.project.planpulse.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.planpulse.exception.ServiceBusyException;
+import com.project.planpulse.model.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// drives subscriptions directly; a dropped or closed subscription ends stream(), so its output can be inspected
+class BoardChangeFeedTest {
+
+    private static final Pattern EVENT = Pattern.compile("id: (\\S+)\nevent: (\\S+)\ndata: (.*)\n\n");
+
+    private BoardChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        feed = new BoardChangeFeed();
+        ReflectionTestUtils.setField(feed, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(feed, "historySize", 4);
+        ReflectionTestUtils.setField(feed, "subscriberBuffer", 3);
+        ReflectionTestUtils.setField(feed, "maxSubscribers", 2);
+        ReflectionTestUtils.setField(feed, "maxBoards", 10);
+        ReflectionTestUtils.setField(feed, "maxHistoryBytes", 1L << 20);
+        ReflectionTestUtils.setField(feed, "idleTtlSeconds", 300L);
+        ReflectionTestUtils.setField(feed, "heartbeatSeconds", 1L);
+    }
+
+    @Test
+    void slowSubscriberIsDroppedAndResumesFromHistory() throws Exception {
+        BoardChangeFeed.Subscription subscription = feed.subscribe("b1", null);
+        for (int i = 1; i <= 4; i++) {
+            feed.taskUpdated(task("t" + i, "b1"));
+        }
+        // the fourth event did not fit the buffer of three
+        assertEquals(1, feed.stats().dropped());
+        List<String[]> delivered = events(drain(subscription));
+        assertTrue(delivered.isEmpty(), "a dropped subscriber gets nothing more");
+
+        BoardChangeFeed.Subscription resumed = feed.subscribe("b1", idOfEvent(2));
+        feed.closeAll();
+        List<String[]> replayed = events(drain(resumed));
+        assertEquals(List.of("t3", "t4"), replayed.stream().map(event -> taskId(event[2])).toList());
+        assertEquals(0, feed.stats().subscribers());
+    }
+
+    @Test
+    void reconnectBehindTheHistoryGetsReset() throws Exception {
+        feed.subscribe("b1", null).close();
+        for (int i = 1; i <= 6; i++) {
+            feed.taskCreated(task("t" + i, "b1"));
+        }
+        BoardChangeFeed.Subscription subscription = feed.subscribe("b1", idOfEvent(1));
+        feed.closeAll();
+        List<String[]> delivered = events(drain(subscription));
+        assertEquals(1, delivered.size());
+        assertEquals("reset", delivered.get(0)[1]);
+        // the reset carries the newest id, so the next reconnect resumes from there
+        assertEquals(idOfEvent(6), delivered.get(0)[0]);
+
+        BoardChangeFeed.Subscription foreign = feed.subscribe("b1", "otherepoch-3");
+        feed.closeAll();
+        assertEquals("reset", events(drain(foreign)).get(0)[1]);
+    }
+
+    @Test
+    void unwatchedBoardsAreSkippedAndSubscribersAreBounded() {
+        feed.taskCreated(task("t1", "b1"));
+        assertEquals(0, feed.stats().published());
+
+        BoardChangeFeed.Subscription first = feed.subscribe("b1", null);
+        feed.subscribe("b2", null);
+        assertThrows(ServiceBusyException.class, () -> feed.subscribe("b3", null));
+        first.close();
+        assertNotNull(feed.subscribe("b3", null));
+        assertEquals(1, feed.stats().rejected());
+    }
+
+    @Test
+    void historyStaysUnderTheByteBudgetIdleBoardsFirst() throws Exception {
+        ReflectionTestUtils.setField(feed, "maxHistoryBytes", 1000L);
+        ReflectionTestUtils.setField(feed, "historySize", 100);
+        ReflectionTestUtils.setField(feed, "subscriberBuffer", 100);
+        feed.subscribe("b1", null).close();
+        feed.taskCreated(task("t1", "b1"));
+        feed.taskCreated(task("t2", "b1"));
+        BoardChangeFeed.Subscription watched = feed.subscribe("b2", null);
+        for (int i = 3; i <= 12; i++) {
+            feed.taskCreated(task("t" + i, "b2"));
+            assertTrue(feed.stats().historyBytes() <= 1000, "history " + feed.stats().historyBytes());
+        }
+        // the unwatched board went first, then the oldest events of the watched one
+        assertEquals(1, feed.stats().boards());
+        watched.close();
+        BoardChangeFeed.Subscription late = feed.subscribe("b2", idOfEvent(3));
+        feed.closeAll();
+        assertEquals("reset", events(drain(late)).get(0)[1]);
+    }
+
+    @Test
+    void boardsNobodyWatchesExpire() {
+        feed.subscribe("b1", null).close();
+        BoardChangeFeed.Subscription watched = feed.subscribe("b2", null);
+        feed.taskCreated(task("t1", "b1"));
+        feed.taskCreated(task("t2", "b2"));
+        feed.sweepIdle();
+        assertEquals(2, feed.stats().boards());
+
+        ReflectionTestUtils.setField(feed, "idleTtlSeconds", 0L);
+        feed.sweepIdle();
+        assertEquals(1, feed.stats().boards());
+        watched.close();
+        feed.sweepIdle();
+        assertEquals(0, feed.stats().boards());
+        assertEquals(0, feed.stats().historyBytes());
+    }
+
+    @Test
+    void quietStreamGetsHeartbeats() throws Exception {
+        BoardChangeFeed.Subscription subscription = feed.subscribe("b1", null);
+        Thread closer = Thread.ofVirtual().start(() -> {
+            try {
+                Thread.sleep(1500);
+            } catch (InterruptedException ignored) {
+            }
+            feed.closeAll();
+        });
+        String output = drain(subscription);
+        closer.join();
+        assertTrue(output.startsWith(": ping\n\n"), output);
+    }
+
+    private String drain(BoardChangeFeed.Subscription subscription) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        feed.stream(subscription, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    // [id, type, data] per event frame
+    private static List<String[]> events(String output) {
+        List<String[]> events = new ArrayList<>();
+        Matcher matcher = EVENT.matcher(output);
+        while (matcher.find()) {
+            events.add(new String[]{matcher.group(1), matcher.group(2), matcher.group(3)});
+        }
+        return events;
+    }
+
+    private String idOfEvent(long sequence) {
+        return ReflectionTestUtils.getField(feed, "epoch") + "-" + sequence;
+    }
+
+    private static String taskId(String json) {
+        Matcher matcher = Pattern.compile("\"id\":\"([^\"]+)\"").matcher(json);
+        assertTrue(matcher.find(), json);
+        return matcher.group(1);
+    }
+
+    private static Task task(String id, String boardId) {
+        Task task = new Task();
+        task.setId(id);
+        task.setBoardId(boardId);
+        task.setTitle("Task " + id);
+        return task;
+    }
+}
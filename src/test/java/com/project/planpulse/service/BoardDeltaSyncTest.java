@@ -0,0 +1,224 @@
+package com.project.planpulse.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.planpulse.dto.BoardChanges;
+import com.project.planpulse.dto.BulkStatusUpdateResult;
+import com.project.planpulse.model.Board;
+import com.project.planpulse.model.Task;
+import com.project.planpulse.model.TaskTombstone;
+import com.project.planpulse.model.User;
+import com.project.planpulse.repository.TaskRepositoryCustom.StatusChange;
+import com.project.planpulse.repository.inmemory.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// board and task services over the in-memory repositories
+class BoardDeltaSyncTest {
+
+    private InMemoryBoardRepository boardRepository;
+    private BoardService boardService;
+    private TaskService taskService;
+    private String userId;
+    private Runnable beforeBulkStatusWrite = () -> {
+    };
+
+    @BeforeEach
+    void setUp() {
+        InMemoryUserRepository userRepository = new InMemoryUserRepository();
+        InMemoryTaskRepository taskRepository = new InMemoryTaskRepository() {
+            @Override
+            public long updateStatuses(List<StatusChange> changes, String status) {
+                beforeBulkStatusWrite.run();
+                return super.updateStatuses(changes, status);
+            }
+        };
+        InMemoryTaskTombstoneRepository tombstoneRepository = new InMemoryTaskTombstoneRepository();
+        boardRepository = new InMemoryBoardRepository(taskRepository);
+
+        BoardAccessIndex accessIndex = new BoardAccessIndex();
+        ReflectionTestUtils.setField(accessIndex, "boardRepository", boardRepository);
+        ReflectionTestUtils.setField(accessIndex, "maxEntries", 100);
+        BoardChangeFeed feed = new BoardChangeFeed();
+        ReflectionTestUtils.setField(feed, "objectMapper", new ObjectMapper());
+        BoardPayloadCache payloadCache = BoardPayloadCacheTest.newCache(1 << 20);
+        TaskSearchIndex searchIndex = new TaskSearchIndex();
+
+        boardService = new BoardService();
+        ReflectionTestUtils.setField(boardService, "boardRepository", boardRepository);
+        ReflectionTestUtils.setField(boardService, "userRepository", userRepository);
+        ReflectionTestUtils.setField(boardService, "taskRepository", taskRepository);
+        ReflectionTestUtils.setField(boardService, "taskTombstoneRepository", tombstoneRepository);
+        ReflectionTestUtils.setField(boardService, "boardAccessIndex", accessIndex);
+        ReflectionTestUtils.setField(boardService, "boardChangeFeed", feed);
+        ReflectionTestUtils.setField(boardService, "boardPayloadCache", payloadCache);
+        ReflectionTestUtils.setField(boardService, "taskSearchIndex", searchIndex);
+
+        taskService = new TaskService();
+        ReflectionTestUtils.setField(taskService, "taskRepository", taskRepository);
+        ReflectionTestUtils.setField(taskService, "boardRepository", boardRepository);
+        ReflectionTestUtils.setField(taskService, "taskTombstoneRepository", tombstoneRepository);
+        ReflectionTestUtils.setField(taskService, "boardAccessIndex", accessIndex);
+        ReflectionTestUtils.setField(taskService, "boardChangeFeed", feed);
+        ReflectionTestUtils.setField(taskService, "boardPayloadCache", payloadCache);
+        ReflectionTestUtils.setField(taskService, "taskSearchIndex", searchIndex);
+
+        User user = new User();
+        user.setUsername("jane");
+        user.setEmail("jane@example.com");
+        userId = userRepository.save(user).getId();
+    }
+
+    @Test
+    void returnsOnlyWhatChangedAfterTheClientsVersion() {
+        String boardId = createBoard();
+        Task first = addTask(boardId);
+        Task second = addTask(boardId);
+        Task third = addTask(boardId);
+
+        BoardChanges initial = boardService.getChangesSince(boardId, 0, userId);
+        assertTrue(initial.full());
+        assertEquals(3, initial.tasks().size());
+        assertEquals(6, initial.version());
+
+        taskService.updateTaskStatus(first.getId(), "DONE", userId);
+        taskService.trackTime(first.getId(), 30, userId);
+        TaskTombstone deleted = taskService.deleteTask(second.getId(), userId);
+
+        BoardChanges delta = boardService.getChangesSince(boardId, initial.version(), userId);
+        assertFalse(delta.full());
+        assertEquals(12, delta.version());
+        assertEquals(List.of(first.getId()), delta.tasks().stream().map(Task::getId).toList());
+        assertEquals(30, delta.tasks().get(0).getTimeSpent());
+        assertEquals(List.of(second.getId()), delta.deleted().stream().map(TaskTombstone::getId).toList());
+        assertEquals(11, deleted.getVersion());
+        assertEquals(2, delta.board().getStats().getTaskCount());
+
+        BoardChanges unchanged = boardService.getChangesSince(boardId, delta.version(), userId);
+        assertTrue(unchanged.tasks().isEmpty());
+        assertTrue(unchanged.deleted().isEmpty());
+        assertNull(unchanged.board());
+        assertNotNull(third.getId());
+    }
+
+    @Test
+    void versionIsHeldBackWhileATaskWriteIsInFlight() {
+        String boardId = createBoard();
+        addTask(boardId);
+
+        long pending = boardRepository.beginWrite(boardId);
+        addTask(boardId);
+        // the write holding version 3 has not landed, so a client must not be moved past it
+        BoardChanges changes = boardService.getChangesSince(boardId, 0, userId);
+        assertEquals(pending - 1, changes.version());
+
+        boardRepository.endWrite(boardId, pending);
+        assertEquals(6, boardService.getChangesSince(boardId, 0, userId).version());
+    }
+
+    @Test
+    void etagsMoveWithEveryWriteAndMatchingRequestsGet304() {
+        String boardId = createBoard();
+        long boardVersion = boardService.getBoardVersion(boardId, userId);
+        String listDigest = boardService.getBoardsDigest(userId);
+        Task task = addTask(boardId);
+        assertNotEquals(boardVersion, boardService.getBoardVersion(boardId, userId));
+        assertNotEquals(listDigest, boardService.getBoardsDigest(userId));
+
+        String tasksETag = PayloadFormat.JSON.etag(Long.toString(taskService.getTasksVersion(boardId, userId)));
+        taskService.trackTime(task.getId(), 5, userId);
+        String current = PayloadFormat.JSON.etag(Long.toString(taskService.getTasksVersion(boardId, userId)));
+        assertNotEquals(tasksETag, current);
+
+        ConditionalReads reads = new ConditionalReads();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/tasks/board/" + boardId);
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, current);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        assertTrue(reads.notModified(new ServletWebRequest(request, response), current, ConditionalReads.Resource.TASK_LIST));
+        assertEquals(304, response.getStatus());
+        assertEquals(current, response.getHeader(HttpHeaders.ETAG));
+
+        MockHttpServletRequest stale = new MockHttpServletRequest("GET", "/tasks/board/" + boardId);
+        stale.addHeader(HttpHeaders.IF_NONE_MATCH, tasksETag);
+        assertFalse(reads.notModified(new ServletWebRequest(stale, new MockHttpServletResponse()), current, ConditionalReads.Resource.TASK_LIST));
+        assertEquals(new ConditionalReads.Stats(1, 1), reads.stats(ConditionalReads.Resource.TASK_LIST));
+    }
+
+    @Test
+    void bulkMoveCountsOnlyTheUpdatesItWrote() {
+        String boardId = createBoard();
+        Task raced = addTask(boardId);
+        Task moved = addTask(boardId);
+        // a single move of the same task to the same status lands between the bulk's read and its write
+        beforeBulkStatusWrite = () -> taskService.updateTaskStatus(raced.getId(), "DONE", userId);
+
+        BulkStatusUpdateResult result = taskService.updateTaskStatuses(List.of(raced.getId(), moved.getId()), "DONE", userId);
+        assertEquals(1, result.updated());
+        assertEquals(BulkStatusUpdateResult.Outcome.CONFLICT, result.outcomes().get(0).outcome());
+        assertEquals(BulkStatusUpdateResult.Outcome.UPDATED, result.outcomes().get(1).outcome());
+        Board board = boardService.getBoardById(boardId, userId);
+        assertEquals(2L, board.getStats().getStatusCounts().get("DONE"));
+        assertEquals(0L, board.getStats().getStatusCounts().getOrDefault("TO_DO", 0L));
+    }
+
+    @Test
+    void failedWriteStillReleasesItsVersion() {
+        String boardId = createBoard();
+        Task task = addTask(boardId);
+        beforeBulkStatusWrite = () -> {
+            throw new IllegalStateException("write failed");
+        };
+
+        assertThrows(IllegalStateException.class, () -> taskService.updateTaskStatuses(List.of(task.getId()), "DONE", userId));
+        assertTrue(boardRepository.findById(boardId).orElseThrow().getPendingWrites().isEmpty());
+        long version = boardRepository.findById(boardId).orElseThrow().getVersion();
+        assertEquals(version, boardService.getChangesSince(boardId, 0, userId).version());
+    }
+
+    @Test
+    void taskWritesOnADeletedBoardAreRefused() {
+        String boardId = createBoard();
+        Task task = addTask(boardId);
+        // the access index still knows the board, but the document is gone
+        boardService.getBoardById(boardId, userId);
+        boardRepository.deleteById(boardId);
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> taskService.trackTime(task.getId(), 5, userId));
+        assertEquals("Board not found", e.getMessage());
+        assertThrows(RuntimeException.class, () -> taskService.updateTaskStatus(task.getId(), "DONE", userId));
+        assertThrows(RuntimeException.class, () -> taskService.deleteTask(task.getId(), userId));
+        assertEquals(BulkStatusUpdateResult.Outcome.NOT_FOUND,
+                taskService.updateTaskStatuses(List.of(task.getId()), "DONE", userId).outcomes().get(0).outcome());
+    }
+
+    @Test
+    void unknownVersionGetsTheWholeBoard() {
+        String boardId = createBoard();
+        addTask(boardId);
+
+        BoardChanges changes = boardService.getChangesSince(boardId, 42, userId);
+        assertTrue(changes.full());
+        assertEquals(1, changes.tasks().size());
+    }
+
+    private String createBoard() {
+        Board board = new Board();
+        board.setTitle("Sprint");
+        return boardService.createBoard(board, userId).getId();
+    }
+
+    private Task addTask(String boardId) {
+        Task task = new Task();
+        task.setTitle("task");
+        task.setStatus("TO_DO");
+        return boardService.addTaskToBoard(boardId, task, userId);
+    }
+}
@@ -0,0 +1,113 @@
+package com.project.planpulse.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.project.planpulse.model.Task;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoardPayloadCacheTest {
+
+    @Test
+    void bodyIsReusedUntilTheVersionMovesOrTheBoardIsInvalidated() {
+        BoardPayloadCache cache = newCache(1 << 20);
+        AtomicInteger loads = new AtomicInteger();
+
+        byte[] first = cache.get("b1", BoardPayloadCache.Kind.TASKS, 4, PayloadFormat.JSON, () -> tasks(loads));
+        assertSame(first, cache.get("b1", BoardPayloadCache.Kind.TASKS, 4, PayloadFormat.JSON, () -> tasks(loads)));
+        assertEquals(1, loads.get());
+
+        // another encoding and another version are separate bodies
+        cache.get("b1", BoardPayloadCache.Kind.TASKS, 4, PayloadFormat.CBOR, () -> tasks(loads));
+        cache.get("b1", BoardPayloadCache.Kind.TASKS, 6, PayloadFormat.JSON, () -> tasks(loads));
+        assertEquals(3, loads.get());
+        // a late load of an older version does not push out the newer body
+        cache.get("b1", BoardPayloadCache.Kind.TASKS, 4, PayloadFormat.JSON, () -> tasks(loads));
+        cache.get("b1", BoardPayloadCache.Kind.TASKS, 6, PayloadFormat.JSON, () -> tasks(loads));
+        assertEquals(4, loads.get());
+
+        cache.invalidate("b1");
+        assertEquals(0, cache.stats().entries());
+        assertEquals(0, cache.stats().bytes());
+        cache.get("b1", BoardPayloadCache.Kind.TASKS, 6, PayloadFormat.JSON, () -> tasks(loads));
+        assertEquals(5, loads.get());
+    }
+
+    @Test
+    void binaryEncodingsCarryTheSameFieldsAsJson() throws Exception {
+        BoardPayloadCache cache = newCache(1 << 20);
+        List<Task> tasks = tasks(new AtomicInteger());
+        byte[] json = cache.encode(PayloadFormat.JSON, tasks);
+        byte[] cbor = cache.encode(PayloadFormat.CBOR, tasks);
+        byte[] smile = cache.encode(PayloadFormat.SMILE, tasks);
+
+        JsonNode expected = Jackson2ObjectMapperBuilder.json().build().readTree(json);
+        assertEquals(expected, Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build().readTree(cbor));
+        assertEquals(expected, Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build().readTree(smile));
+        assertTrue(cbor.length < json.length);
+        assertTrue(smile.length < json.length);
+    }
+
+    @Test
+    void oversizedCacheEvictsAndLargeBodiesAreNotKept() {
+        BoardPayloadCache cache = newCache(600);
+        ReflectionTestUtils.setField(cache, "maxEntryBytes", 500);
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 5; i++) {
+            cache.get("b" + i, BoardPayloadCache.Kind.TASKS, 1, PayloadFormat.JSON, () -> tasks(loads));
+        }
+        assertTrue(cache.stats().bytes() <= 600);
+        assertTrue(cache.stats().evictions() > 0);
+
+        BoardPayloadCache small = newCache(1 << 20);
+        ReflectionTestUtils.setField(small, "maxEntryBytes", 10);
+        small.get("b1", BoardPayloadCache.Kind.TASKS, 1, PayloadFormat.JSON, () -> tasks(loads));
+        assertEquals(0, small.stats().entries());
+    }
+
+    @Test
+    void formatFollowsAcceptAndTagsTheETag() {
+        assertEquals(PayloadFormat.JSON, PayloadFormat.negotiate(null));
+        assertEquals(PayloadFormat.JSON, PayloadFormat.negotiate("*/*"));
+        assertEquals(PayloadFormat.CBOR, PayloadFormat.negotiate("application/cbor"));
+        assertEquals(PayloadFormat.SMILE, PayloadFormat.negotiate("application/json;q=0.5, application/x-jackson-smile"));
+        assertEquals(PayloadFormat.JSON, PayloadFormat.negotiate("application/cbor;q=0.2, application/json"));
+        assertEquals(PayloadFormat.JSON, PayloadFormat.negotiate("not a media type"));
+        assertEquals("\"7\"", PayloadFormat.JSON.etag("7"));
+        assertEquals("\"7-cbor\"", PayloadFormat.CBOR.etag("7"));
+    }
+
+    static BoardPayloadCache newCache(long maxBytes) {
+        BoardPayloadCache cache = new BoardPayloadCache();
+        ReflectionTestUtils.setField(cache, "objectMapper", Jackson2ObjectMapperBuilder.json().build());
+        ReflectionTestUtils.setField(cache, "cborConverter", new MappingJackson2CborHttpMessageConverter());
+        ReflectionTestUtils.setField(cache, "smileConverter", new MappingJackson2SmileHttpMessageConverter());
+        ReflectionTestUtils.setField(cache, "maxBytes", maxBytes);
+        ReflectionTestUtils.setField(cache, "maxEntryBytes", 1 << 20);
+        return cache;
+    }
+
+    private static List<Task> tasks(AtomicInteger loads) {
+        loads.incrementAndGet();
+        Task first = new Task();
+        first.setId("t1");
+        first.setBoardId("b1");
+        first.setTitle("Write the release notes");
+        first.setStatus("TO_DO");
+        Task second = new Task();
+        second.setId("t2");
+        second.setBoardId("b1");
+        second.setTitle("Review the release notes");
+        second.setStatus("IN_REVIEW");
+        return List.of(first, second);
+    }
+}
@@ -0,0 +1,98 @@
+package com.project.planpulse.service;
+
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.project.planpulse.model.EmailOutboxMessage;
+import com.project.planpulse.repository.EmailOutboxRepository;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// delivers outbox batches to an in-process GreenMail SMTP server; the outbox repository is mocked
+class EmailOutboxDispatcherTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private EmailOutboxRepository outboxRepository;
+    private EmailOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        outboxRepository = mock(EmailOutboxRepository.class);
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+
+        dispatcher = new EmailOutboxDispatcher();
+        ReflectionTestUtils.setField(dispatcher, "outboxRepository", outboxRepository);
+        ReflectionTestUtils.setField(dispatcher, "mailSender", mailSender);
+        ReflectionTestUtils.setField(dispatcher, "fromAddress", "noreply@planpulse.test");
+        ReflectionTestUtils.setField(dispatcher, "batchSize", 10);
+        ReflectionTestUtils.setField(dispatcher, "leaseSeconds", 60L);
+        ReflectionTestUtils.setField(dispatcher, "maxAttempts", 3);
+        ReflectionTestUtils.setField(dispatcher, "retryBaseSeconds", 30L);
+        ReflectionTestUtils.setField(dispatcher, "retryMaxSeconds", 3600L);
+        when(outboxRepository.markSent(anyString(), anyString())).thenReturn(true);
+    }
+
+    @Test
+    void deliversClaimedBatchAndMarksEveryMessageSent() throws Exception {
+        when(outboxRepository.claimBatch(anyString(), eq(10), any()))
+                .thenReturn(List.of(message("m1", "alice@planpulse.test", 1), message("m2", "bob@planpulse.test", 1)));
+
+        dispatcher.drain();
+
+        MimeMessage[] received = greenMail.getReceivedMessages();
+        assertEquals(2, received.length);
+        assertEquals("Password Reset Request", received[0].getSubject());
+        verify(outboxRepository).markSent(eq("m1"), anyString());
+        verify(outboxRepository).markSent(eq("m2"), anyString());
+        verify(outboxRepository, never()).markAttemptFailed(anyString(), anyString(), any(), any(), anyBoolean());
+        assertEquals(2, dispatcher.stats().sent());
+    }
+
+    @Test
+    void malformedAddressFailsPermanentlyWithoutBlockingTheRest() {
+        when(outboxRepository.claimBatch(anyString(), eq(10), any()))
+                .thenReturn(List.of(message("bad", "not an address@@", 1), message("good", "carol@planpulse.test", 1)));
+
+        dispatcher.drain();
+
+        assertEquals(1, greenMail.getReceivedMessages().length);
+        verify(outboxRepository).markSent(eq("good"), anyString());
+        verify(outboxRepository).markAttemptFailed(eq("bad"), anyString(), any(), any(), eq(true));
+        verify(outboxRepository, never()).markSent(eq("bad"), anyString());
+    }
+
+    @Test
+    void unreachableServerSchedulesRetryUntilAttemptsRunOut() {
+        greenMail.stop();
+        when(outboxRepository.claimBatch(anyString(), eq(10), any()))
+                .thenReturn(List.of(message("first", "dave@planpulse.test", 1), message("last", "erin@planpulse.test", 3)));
+
+        dispatcher.drain();
+
+        verify(outboxRepository).markAttemptFailed(eq("first"), anyString(), any(), any(), eq(false));
+        verify(outboxRepository).markAttemptFailed(eq("last"), anyString(), any(), any(), eq(true));
+        verify(outboxRepository, never()).markSent(anyString(), anyString());
+        assertEquals(1, dispatcher.stats().abandoned());
+    }
+
+    private static EmailOutboxMessage message(String id, String to, int attempts) {
+        EmailOutboxMessage message = new EmailOutboxMessage(to, "Password Reset Request", "Click the link to reset your password");
+        message.setId(id);
+        message.setStatus("SENDING");
+        message.setAttempts(attempts);
+        return message;
+    }
+}
@@ -0,0 +1,257 @@
+package com.project.planpulse.service;
+
+import com.project.planpulse.model.User;
+import com.project.planpulse.repository.UserRepository;
+import com.project.planpulse.storage.BlobStore;
+import com.project.planpulse.storage.LocalBlobStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProfileImageServiceTest {
+
+    @TempDir
+    Path root;
+
+    private final byte[] content = new byte[1000];
+    private final User user = new User();
+    private BlobStore blobStore;
+    private UserRepository userRepository;
+    private ProfileImageVariants variants;
+    private ProfileImageService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        blobStore = new LocalBlobStore(root.toString());
+        user.setId("u1");
+        store(content);
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findById("u1")).thenReturn(Optional.of(user));
+
+        variants = new ProfileImageVariants(blobStore, new int[]{32, 64, 256}, 0.85f, 40_000_000, 1, 10);
+        service = new ProfileImageService();
+        ReflectionTestUtils.setField(service, "userRepository", userRepository);
+        ReflectionTestUtils.setField(service, "variants", variants);
+        ReflectionTestUtils.setField(service, "blobStore", blobStore);
+        ReflectionTestUtils.setField(service, "maxEntries", 100);
+        ReflectionTestUtils.setField(service, "maxAgeSeconds", 3600L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        variants.shutdown();
+    }
+
+    @Test
+    void servesWholeFileWithValidatorsAndCachesTheLookup() throws Exception {
+        MockHttpServletResponse first = get(new MockHttpServletRequest("GET", "/users/profile-image"));
+        MockHttpServletResponse second = get(new MockHttpServletRequest("GET", "/users/profile-image"));
+
+        assertEquals(200, first.getStatus());
+        assertArrayEquals(content, first.getContentAsByteArray());
+        assertEquals("image/png", first.getContentType());
+        assertNotNull(first.getHeader(HttpHeaders.ETAG));
+        assertNotNull(first.getHeader(HttpHeaders.LAST_MODIFIED));
+        assertEquals("private, no-cache", first.getHeader(HttpHeaders.CACHE_CONTROL));
+        assertEquals(first.getHeader(HttpHeaders.ETAG), second.getHeader(HttpHeaders.ETAG));
+        verify(userRepository, times(1)).findById("u1");
+    }
+
+    @Test
+    void matchingIfNoneMatchIsNotModified() throws Exception {
+        String etag = get(new MockHttpServletRequest("GET", "/users/profile-image")).getHeader(HttpHeaders.ETAG);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/profile-image");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        service.serve("u1", null, etag.substring(1, etag.length() - 1), request, response);
+
+        assertEquals(304, response.getStatus());
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertTrue(response.getHeader(HttpHeaders.CACHE_CONTROL).contains("immutable"));
+    }
+
+    @Test
+    void singleRangeIsPartialContent() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/profile-image");
+        request.addHeader(HttpHeaders.RANGE, "bytes=100-199");
+
+        MockHttpServletResponse response = get(request);
+
+        assertEquals(206, response.getStatus());
+        assertEquals("bytes 100-199/1000", response.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(100, response.getContentAsByteArray().length);
+        assertEquals(content[100], response.getContentAsByteArray()[0]);
+    }
+
+    @Test
+    void rangePastTheEndIsNotSatisfiable() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/profile-image");
+        request.addHeader(HttpHeaders.RANGE, "bytes=5000-");
+
+        MockHttpServletResponse response = get(request);
+
+        assertEquals(416, response.getStatus());
+        assertEquals("bytes */1000", response.getHeader(HttpHeaders.CONTENT_RANGE));
+    }
+
+    @Test
+    void handsTheFileToTomcatWhenSendfileIsAvailable() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/profile-image");
+        request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+
+        MockHttpServletResponse response = get(request);
+
+        assertEquals(0, response.getContentAsByteArray().length);
+        assertEquals(1000, response.getContentLengthLong());
+        assertEquals(0L, request.getAttribute("org.apache.tomcat.sendfile.start"));
+        assertEquals(1000L, request.getAttribute("org.apache.tomcat.sendfile.end"));
+    }
+
+    @Test
+    void servesGeneratedVariantAndFallsBackToOriginalUntilThen() throws Exception {
+        byte[] png = photo(600, 400);
+        String blobKey = store(png);
+        long originalLength = png.length;
+
+        MockHttpServletResponse before = new MockHttpServletResponse();
+        service.serve("u1", 48, null, new MockHttpServletRequest("GET", "/users/profile-image"), before);
+        assertEquals("image/png", before.getContentType());
+        // the original is cached for the size too, until a variant is generated
+        long hits = service.stats().hits();
+        service.serve("u1", 48, null, new MockHttpServletRequest("GET", "/users/profile-image"), new MockHttpServletResponse());
+        assertEquals(hits + 1, service.stats().hits());
+
+        variants.generate(blobKey);
+        MockHttpServletResponse after = new MockHttpServletResponse();
+        service.serve("u1", 48, null, new MockHttpServletRequest("GET", "/users/profile-image"), after);
+
+        assertEquals("image/jpeg", after.getContentType());
+        BufferedImage variant = ImageIO.read(new ByteArrayInputStream(after.getContentAsByteArray()));
+        assertEquals(64, variant.getWidth());
+        assertEquals(43, variant.getHeight());
+        assertEquals(originalLength - after.getContentAsByteArray().length, variants.stats().bytesSaved());
+    }
+
+    @Test
+    void uploadRejectedByAFullQueueCanBeSubmittedAgain() throws Exception {
+        String blobKey = store(photo(300, 200));
+        ProfileImageVariants small = new ProfileImageVariants(blobStore, new int[]{64}, 0.85f, 40_000_000, 1, 1);
+        try {
+            // one task running, one queued: the next submission is rejected
+            ThreadPoolExecutor executor = (ThreadPoolExecutor) ReflectionTestUtils.getField(small, "executor");
+            CountDownLatch release = new CountDownLatch(1);
+            executor.execute(() -> {
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+            });
+            executor.execute(() -> {
+            });
+            small.generateAsync(blobKey);
+            assertTrue(((Set<?>) ReflectionTestUtils.getField(small, "inFlight")).isEmpty());
+
+            release.countDown();
+            long deadline = System.currentTimeMillis() + 10_000;
+            while (executor.getQueue().size() + executor.getActiveCount() > 0 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            small.generateAsync(blobKey);
+            while (small.find(blobKey, 64) == null && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertNotNull(small.find(blobKey, 64));
+        } finally {
+            small.shutdown();
+        }
+    }
+
+    @Test
+    void variantsNoSmallerThanTheOriginalAreNotKept() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(20, 20, BufferedImage.TYPE_INT_RGB), "png", png);
+        String blobKey = store(png.toByteArray());
+
+        variants.generate(blobKey);
+        assertNull(variants.find(blobKey, 32));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        service.serve("u1", 32, null, new MockHttpServletRequest("GET", "/users/profile-image"), response);
+        assertEquals("image/png", response.getContentType());
+        assertEquals(0, variants.stats().bytesSaved());
+
+        variants.recordVariantServed(100, 150);
+        assertEquals(0, variants.stats().bytesSaved());
+    }
+
+    @Test
+    void imagesDeclaringTooManyPixelsGetNoVariants() throws Exception {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(600, 400, BufferedImage.TYPE_INT_RGB), "png", png);
+        String blobKey = store(png.toByteArray());
+        ProfileImageVariants strict = new ProfileImageVariants(blobStore, new int[]{64}, 0.85f, 100_000, 1, 10);
+        try {
+            strict.generate(blobKey);
+            assertNull(strict.find(blobKey, 64));
+            assertEquals(1, strict.stats().failed());
+        } finally {
+            strict.shutdown();
+        }
+    }
+
+    @Test
+    void contentAddressedImageUsesItsHashAsETag() throws Exception {
+        String blobKey = user.getProfileImageUrl().substring(UserService.UPLOAD_DIR.length());
+
+        MockHttpServletResponse response = get(new MockHttpServletRequest("GET", "/users/profile-image"));
+
+        assertEquals("\"" + BlobStore.contentHash(blobKey) + "\"", response.getHeader(HttpHeaders.ETAG));
+    }
+
+    // a gradient, so that downscaled variants come out smaller than the png
+    private static byte[] photo(int width, int height) throws Exception {
+        BufferedImage photo = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++) {
+                photo.setRGB(x, y, (x * 7) << 16 | (y * 5) << 8 | (x + y));
+            }
+        }
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(photo, "png", png);
+        return png.toByteArray();
+    }
+
+    private String store(byte[] bytes) throws Exception {
+        BlobStore.StagedBlob staged = blobStore.stage(new ByteArrayInputStream(bytes), ".png", 10_000_000, 0, header -> true);
+        blobStore.commit(staged);
+        user.setProfileImageUrl(UserService.UPLOAD_DIR + staged.key());
+        return staged.key();
+    }
+
+    private MockHttpServletResponse get(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        service.serve("u1", null, null, request, response);
+        return response;
+    }
+}
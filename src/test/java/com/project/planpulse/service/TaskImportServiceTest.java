@@ -0,0 +1,148 @@
+package com.project.planpulse.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.planpulse.dto.TaskImportResult;
+import com.project.planpulse.model.Board;
+import com.project.planpulse.model.Task;
+import com.project.planpulse.repository.inmemory.InMemoryBoardRepository;
+import com.project.planpulse.repository.inmemory.InMemoryTaskRepository;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// imports into the in-memory repositories
+class TaskImportServiceTest {
+
+    private InMemoryBoardRepository boardRepository;
+    private InMemoryTaskRepository taskRepository;
+    private TaskImportService service;
+    private String boardId;
+
+    @BeforeEach
+    void setUp() {
+        taskRepository = new InMemoryTaskRepository();
+        boardRepository = new InMemoryBoardRepository(taskRepository);
+        BoardAccessIndex accessIndex = new BoardAccessIndex();
+        ReflectionTestUtils.setField(accessIndex, "boardRepository", boardRepository);
+        ReflectionTestUtils.setField(accessIndex, "maxEntries", 100);
+        BoardChangeFeed feed = new BoardChangeFeed();
+        ReflectionTestUtils.setField(feed, "objectMapper", new ObjectMapper());
+
+        service = new TaskImportService();
+        ReflectionTestUtils.setField(service, "taskRepository", taskRepository);
+        ReflectionTestUtils.setField(service, "boardRepository", boardRepository);
+        ReflectionTestUtils.setField(service, "boardAccessIndex", accessIndex);
+        ReflectionTestUtils.setField(service, "boardChangeFeed", feed);
+        ReflectionTestUtils.setField(service, "boardPayloadCache", BoardPayloadCacheTest.newCache(1 << 20));
+        ReflectionTestUtils.setField(service, "taskSearchIndex", new TaskSearchIndex());
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "validator", Validation.buildDefaultValidatorFactory().getValidator());
+
+        Board board = new Board();
+        board.setTitle("Imports");
+        board.setCreatorId("u1");
+        boardId = boardRepository.save(board).getId();
+    }
+
+    @Test
+    void csvFieldsKeepQuotedCommasNewlinesAndQuotes() throws Exception {
+        TaskImportResult result = importCsv("""
+                title,description,priority
+                "Ship it, finally","line one
+                line two",HIGH
+                "Say \"\"hi\"\"",,
+                """);
+
+        assertEquals(new TaskImportResult(2, 0, List.of(), false), result);
+        List<Task> tasks = taskRepository.findByBoardId(boardId);
+        assertEquals("Ship it, finally", tasks.get(0).getTitle());
+        assertEquals("line one\nline two", tasks.get(0).getDescription());
+        assertEquals("HIGH", tasks.get(0).getPriority());
+        assertEquals("Say \"hi\"", tasks.get(1).getTitle());
+        assertEquals("LOW", tasks.get(1).getPriority());
+    }
+
+    @Test
+    void badCsvRowsAreReportedAndTheRestImported() throws Exception {
+        TaskImportResult result = importCsv("""
+                title,status,timeSpent
+                First,TO_DO,5
+                Second,SOMEDAY,0
+                Third,DONE
+                ,TO_DO,0
+                Fourth,DONE,ten
+                Fifth,IN_REVIEW,15
+                """);
+
+        assertEquals(2, result.imported());
+        assertEquals(4, result.failed());
+        assertEquals(List.of(2L, 3L, 4L, 5L), result.errors().stream().map(TaskImportResult.RowError::row).toList());
+        assertEquals("Expected 3 columns but found 2", result.errors().get(1).message());
+        assertEquals(20, boardRepository.findById(boardId).orElseThrow().getStats().getTotalTimeSpent());
+    }
+
+    @Test
+    void unterminatedQuoteStopsTheImportAndKeepsEarlierRows() throws Exception {
+        TaskImportResult result = importCsv("""
+                title,description
+                First,ok
+                Second,"never closed
+                Third,lost
+                """);
+
+        assertEquals(1, result.imported());
+        assertEquals(List.of(new TaskImportResult.RowError(2, "Unterminated quoted field")), result.errors());
+        assertEquals(1, taskRepository.findByBoardId(boardId).size());
+    }
+
+    @Test
+    void rowsAreInsertedInBatchesWithOneVersionEach() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 1200; i++) {
+            ndjson.append("{\"title\":\"Task ").append(i).append("\"}\n");
+        }
+        long before = boardRepository.findById(boardId).orElseThrow().getVersion();
+
+        TaskImportResult result = importTasks(ndjson.toString(), TaskImportService.Format.NDJSON);
+
+        assertEquals(1200, result.imported());
+        Board board = boardRepository.findById(boardId).orElseThrow();
+        assertEquals(1200, board.getStats().getTaskCount());
+        // batches of 500, 500 and 200: each takes a version and releases it
+        assertEquals(before + 6, board.getVersion());
+        assertTrue(board.getPendingWrites().isEmpty());
+        assertEquals(3, taskRepository.findByBoardId(boardId).stream().map(Task::getVersion).distinct().count());
+    }
+
+    @Test
+    void reportedErrorsAreCapped() throws Exception {
+        StringBuilder ndjson = new StringBuilder("{\"title\":\"kept\"}\n");
+        for (int i = 0; i < 1005; i++) {
+            ndjson.append(i % 2 == 0 ? "{not json\n" : "{\"title\":\"\"}\n");
+        }
+
+        TaskImportResult result = importTasks(ndjson.toString(), TaskImportService.Format.NDJSON);
+
+        assertEquals(1, result.imported());
+        assertEquals(1005, result.failed());
+        assertEquals(1000, result.errors().size());
+        assertTrue(result.errorsTruncated());
+        assertTrue(result.errors().get(0).message().startsWith("Malformed JSON"));
+        assertEquals("Title is required", result.errors().get(1).message());
+    }
+
+    private TaskImportResult importCsv(String csv) throws Exception {
+        return importTasks(csv, TaskImportService.Format.CSV);
+    }
+
+    private TaskImportResult importTasks(String body, TaskImportService.Format format) throws Exception {
+        return service.importTasks(boardId, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), format, "u1");
+    }
+}
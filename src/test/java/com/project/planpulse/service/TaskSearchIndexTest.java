@@ -0,0 +1,185 @@
+package com.project.planpulse.service;
+
+import com.project.planpulse.exception.ServiceBusyException;
+import com.project.planpulse.model.Board;
+import com.project.planpulse.model.Task;
+import com.project.planpulse.repository.inmemory.InMemoryBoardRepository;
+import com.project.planpulse.repository.inmemory.InMemoryTaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// the index over the in-memory repositories, rebuilt the way it is on startup
+class TaskSearchIndexTest {
+
+    private InMemoryBoardRepository boardRepository;
+    private InMemoryTaskRepository taskRepository;
+    private TaskSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        taskRepository = new InMemoryTaskRepository();
+        boardRepository = new InMemoryBoardRepository(taskRepository);
+        index = new TaskSearchIndex();
+        ReflectionTestUtils.setField(index, "boardRepository", boardRepository);
+        ReflectionTestUtils.setField(index, "taskRepository", taskRepository);
+        ReflectionTestUtils.setField(index, "rebuildThreads", 2);
+        ReflectionTestUtils.setField(index, "retryInitialMs", 10L);
+        ReflectionTestUtils.setField(index, "retryMaxMs", 20L);
+    }
+
+    @Test
+    void rebuildsInParallelAndRanksByRelevance() {
+        String release = board();
+        String ops = board();
+        save(release, "Write release notes", "Summarize the changes for the release");
+        String deploy = save(release, "Deploy staging", "Roll the release out to staging");
+        save(release, "Fix login bug", "Users are logged out after a deploy");
+        save(ops, "Deploy production", "Needs the staging deploy first");
+        assertThrows(ServiceBusyException.class, () -> index.search("deploy", Set.of(release), 10));
+
+        index.rebuild();
+        assertEquals(4, index.stats().documents());
+        assertTrue(index.stats().ready());
+
+        // a title match outranks a description match
+        TaskSearchIndex.Hits hits = index.search("deploy", Set.of(release), 10);
+        assertEquals(2, hits.matched());
+        assertEquals(deploy, hits.taskIds().get(0));
+
+        // every term has to match, the last one here only as a prefix; accents and case are folded
+        assertEquals(List.of(deploy), index.search("DÉPLOY sta", Set.of(release), 10).taskIds());
+        // boards outside the scope are never searched
+        assertEquals(3, index.search("deploy", Set.of(release, ops), 10).matched());
+        assertEquals(0, index.search("deploy", Set.of("other"), 10).matched());
+        assertEquals(1, index.search("deploy", Set.of(release), 1).taskIds().size());
+    }
+
+    @Test
+    void rebuildIsRetriedWhenTheBoardsCannotBeRead() {
+        String first = board();
+        String second = board();
+        save(first, "Deploy staging", null);
+        save(second, "Deploy production", null);
+        AtomicInteger reads = new AtomicInteger();
+        InMemoryBoardRepository failingOnce = new InMemoryBoardRepository(taskRepository) {
+            @Override
+            public Stream<Board> streamAllIds() {
+                Stream<Board> ids = boardRepository.streamAllIds();
+                if (reads.incrementAndGet() > 1) {
+                    return ids;
+                }
+                // the cursor dies after the first board
+                return Stream.concat(ids.limit(1), Stream.generate(() -> {
+                    throw new IllegalStateException("cursor lost");
+                }));
+            }
+        };
+        ReflectionTestUtils.setField(index, "boardRepository", failingOnce);
+
+        index.rebuild();
+        assertEquals(2, reads.get());
+        assertTrue(index.stats().ready());
+        assertEquals(2, index.search("deploy", Set.of(first, second), 10).matched());
+    }
+
+    @Test
+    void boardThatFailedIsIndexedByTheRetry() {
+        String first = board();
+        String second = board();
+        save(first, "Deploy staging", null);
+        save(second, "Deploy production", null);
+        AtomicInteger reads = new AtomicInteger();
+        InMemoryTaskRepository failingOnce = new InMemoryTaskRepository() {
+            @Override
+            public Stream<Task> streamSearchFieldsByBoardId(String boardId) {
+                if (boardId.equals(second) && reads.incrementAndGet() == 1) {
+                    throw new IllegalStateException("read timed out");
+                }
+                return taskRepository.streamSearchFieldsByBoardId(boardId);
+            }
+        };
+        ReflectionTestUtils.setField(index, "taskRepository", failingOnce);
+
+        index.rebuild();
+        assertEquals(2, reads.get());
+        assertTrue(index.stats().ready());
+        assertEquals(2, index.search("deploy", Set.of(first, second), 10).matched());
+        assertEquals(2, index.stats().documents());
+    }
+
+    @Test
+    void followsCreatesAndDeletes() {
+        index.rebuild();
+        String boardId = board();
+        Task task = task(boardId, "Rotate certificates", null);
+        task.setId("t1");
+        index.index(task);
+        assertEquals(List.of("t1"), index.search("cert", Set.of(boardId), 10).taskIds());
+
+        index.remove(boardId, "t1");
+        assertEquals(0, index.search("cert", Set.of(boardId), 10).matched());
+
+        // a rebuild that read an older copy does not replace the newer one
+        task.setVersion(5);
+        task.setTitle("Renew certificates");
+        index.index(task);
+        Task stale = task(boardId, "Rotate certificates", null);
+        stale.setId("t1");
+        stale.setVersion(3);
+        index.index(stale);
+        assertEquals(0, index.search("rotate", Set.of(boardId), 10).matched());
+        assertEquals(1, index.search("renew", Set.of(boardId), 10).matched());
+    }
+
+    @Test
+    void deadDocumentsAreCompactedAway() {
+        index.rebuild();
+        String boardId = board();
+        for (int i = 0; i < 200; i++) {
+            Task task = task(boardId, "Task number " + i, "backlog item");
+            task.setId("t" + i);
+            index.index(task);
+        }
+        for (int i = 0; i < 150; i++) {
+            index.remove(boardId, "t" + i);
+        }
+        TaskSearchIndex.Hits hits = index.search("backlog", Set.of(boardId), 100);
+        assertEquals(50, hits.matched());
+        assertTrue(hits.taskIds().stream().allMatch(id -> Integer.parseInt(id.substring(1)) >= 150));
+        assertEquals(List.of("t199"), index.search("199", Set.of(boardId), 10).taskIds());
+        assertEquals(50, index.stats().documents());
+    }
+
+    @Test
+    void tokenizesWordsAndDigits() {
+        assertEquals(List.of("fix", "api", "v2", "timeout", "cafe"), TaskSearchIndex.tokenize("Fix API-v2 timeout (café)"));
+        assertTrue(TaskSearchIndex.tokenize("  --  ").isEmpty());
+        assertTrue(TaskSearchIndex.tokenize(null).isEmpty());
+    }
+
+    private String board() {
+        Board board = new Board();
+        board.setTitle("Board");
+        return boardRepository.save(board).getId();
+    }
+
+    private String save(String boardId, String title, String description) {
+        return taskRepository.save(task(boardId, title, description)).getId();
+    }
+
+    private static Task task(String boardId, String title, String description) {
+        Task task = new Task();
+        task.setBoardId(boardId);
+        task.setTitle(title);
+        task.setDescription(description);
+        return task;
+    }
+}
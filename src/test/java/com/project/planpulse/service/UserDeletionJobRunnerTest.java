@@ -0,0 +1,169 @@
+package com.project.planpulse.service;
+
+import com.project.planpulse.model.Board;
+import com.project.planpulse.model.Task;
+import com.project.planpulse.model.User;
+import com.project.planpulse.model.UserDeletionJob;
+import com.project.planpulse.repository.inmemory.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// the deletion cascade over the in-memory repositories; a crashed worker is one that claimed a job and never finished it
+class UserDeletionJobRunnerTest {
+
+    private InMemoryUserDeletionJobRepository jobRepository;
+    private InMemoryUserRepository userRepository;
+    private InMemoryBoardRepository boardRepository;
+    private InMemoryTaskRepository taskRepository;
+    private UserDeletionJobRunner runner;
+    // task deletes fail while this is set
+    private RuntimeException taskDeleteFailure;
+
+    @BeforeEach
+    void setUp() {
+        jobRepository = new InMemoryUserDeletionJobRepository();
+        userRepository = new InMemoryUserRepository();
+        taskRepository = new InMemoryTaskRepository() {
+            @Override
+            public long deleteByBoardIdIn(Collection<String> boardIds) {
+                if (taskDeleteFailure != null) {
+                    throw taskDeleteFailure;
+                }
+                return super.deleteByBoardIdIn(boardIds);
+            }
+        };
+        boardRepository = new InMemoryBoardRepository(taskRepository);
+        BoardAccessIndex accessIndex = new BoardAccessIndex();
+        ReflectionTestUtils.setField(accessIndex, "boardRepository", boardRepository);
+        ReflectionTestUtils.setField(accessIndex, "maxEntries", 100);
+
+        runner = new UserDeletionJobRunner();
+        ReflectionTestUtils.setField(runner, "jobRepository", jobRepository);
+        ReflectionTestUtils.setField(runner, "userRepository", userRepository);
+        ReflectionTestUtils.setField(runner, "boardRepository", boardRepository);
+        ReflectionTestUtils.setField(runner, "taskRepository", taskRepository);
+        ReflectionTestUtils.setField(runner, "taskTombstoneRepository", new InMemoryTaskTombstoneRepository());
+        ReflectionTestUtils.setField(runner, "boardAccessIndex", accessIndex);
+        ReflectionTestUtils.setField(runner, "taskSearchIndex", new TaskSearchIndex());
+        ReflectionTestUtils.setField(runner, "batchSize", 1);
+        ReflectionTestUtils.setField(runner, "batchPauseMillis", 0L);
+        ReflectionTestUtils.setField(runner, "leaseSeconds", 60L);
+        ReflectionTestUtils.setField(runner, "maxAttempts", 2);
+    }
+
+    @Test
+    void leasedJobIsOnlyClaimedAgainOnceTheLeaseExpires() {
+        String jobId = jobRepository.save(new UserDeletionJob("u1")).getId();
+
+        UserDeletionJob first = jobRepository.claimNext("a", inOneMinute());
+        assertEquals(jobId, first.getId());
+        assertEquals(1, first.getAttempts());
+        assertNull(jobRepository.claimNext("b", inOneMinute()));
+
+        // worker a stops renewing; once its lease runs out b takes over and a's progress is refused
+        expireLease(jobId);
+        UserDeletionJob second = jobRepository.claimNext("b", inOneMinute());
+        assertEquals("b", second.getLeaseOwner());
+        assertEquals(2, second.getAttempts());
+        assertFalse(jobRepository.recordProgress(jobId, "a", inOneMinute(), 1, 0));
+        assertTrue(jobRepository.recordProgress(jobId, "b", inOneMinute(), 1, 0));
+    }
+
+    @Test
+    void jobOfACrashedWorkerIsResumedAndFinished() {
+        String userId = user("gone");
+        String partnerId = user("partner");
+        List<String> unshared = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            unshared.add(board(userId));
+            task(unshared.get(i));
+        }
+        String shared = board(partnerId);
+        boardRepository.addCollaborator(shared, userId);
+        task(shared);
+        String jobId = jobRepository.save(new UserDeletionJob(userId)).getId();
+
+        // the first worker got as far as the tasks of one board, then died without releasing its lease
+        UserDeletionJob crashed = jobRepository.claimNext("crashed", inOneMinute());
+        userRepository.deleteById(userId);
+        taskRepository.deleteByBoardIdIn(List.of(unshared.get(0)));
+        expireLease(crashed.getId());
+
+        runner.drain();
+
+        UserDeletionJob job = jobRepository.findById(jobId).orElseThrow();
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(2, job.getAttempts());
+        assertEquals(3, job.getBoardsDeleted());
+        assertEquals(1, job.getCollaborationsRemoved());
+        unshared.forEach(boardId -> assertTrue(boardRepository.findById(boardId).isEmpty()));
+        assertTrue(taskRepository.findAll().stream().allMatch(task -> shared.equals(task.getBoardId())));
+        assertFalse(boardRepository.findById(shared).orElseThrow().getCollaboratorIds().contains(userId));
+        assertTrue(userRepository.findById(partnerId).isPresent());
+    }
+
+    @Test
+    void failingJobIsRetriedUntilItsAttemptsRunOut() {
+        String userId = user("gone");
+        board(userId);
+        String jobId = jobRepository.save(new UserDeletionJob(userId)).getId();
+        taskDeleteFailure = new IllegalStateException("database unavailable");
+
+        runner.drain();
+        UserDeletionJob failed = jobRepository.findById(jobId).orElseThrow();
+        assertEquals("PENDING", failed.getStatus());
+        assertEquals("database unavailable", failed.getLastError());
+        assertTrue(failed.getLeaseExpiresAt().after(new Date()), "the retry waits");
+        runner.drain();
+        assertEquals(1, jobRepository.findById(jobId).orElseThrow().getAttempts());
+
+        expireLease(jobId);
+        runner.drain();
+        assertEquals("FAILED", jobRepository.findById(jobId).orElseThrow().getStatus());
+        expireLease(jobId);
+        assertNull(jobRepository.claimNext("c", inOneMinute()));
+
+        // nothing was deleted past the failing step, and the failed job is left for an operator
+        taskDeleteFailure = null;
+        assertEquals(1, boardRepository.findByCreatorId(userId).size());
+    }
+
+    private void expireLease(String jobId) {
+        UserDeletionJob job = jobRepository.findById(jobId).orElseThrow();
+        job.setLeaseExpiresAt(new Date(System.currentTimeMillis() - 1000));
+        jobRepository.save(job);
+    }
+
+    private static Date inOneMinute() {
+        return new Date(System.currentTimeMillis() + 60_000);
+    }
+
+    private String user(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        return userRepository.save(user).getId();
+    }
+
+    private String board(String creatorId) {
+        Board board = new Board();
+        board.setTitle("Board");
+        board.setCreatorId(creatorId);
+        return boardRepository.save(board).getId();
+    }
+
+    private void task(String boardId) {
+        Task task = new Task();
+        task.setTitle("task");
+        task.setBoardId(boardId);
+        taskRepository.save(task);
+    }
+}
@@ -0,0 +1,100 @@
+package com.project.planpulse.storage;
+
+import com.project.planpulse.model.BlobRef;
+import com.project.planpulse.repository.BlobRefRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// local blob store on a temp directory; the reference records are mocked
+class BlobStorageServiceTest {
+
+    @TempDir
+    Path root;
+
+    private BlobRefRepository blobRefRepository;
+    private LocalBlobStore blobStore;
+    private BlobStorageService service;
+
+    @BeforeEach
+    void setUp() {
+        blobRefRepository = mock(BlobRefRepository.class);
+        blobStore = new LocalBlobStore(root.toString());
+        service = new BlobStorageService();
+        ReflectionTestUtils.setField(service, "blobStore", blobStore);
+        ReflectionTestUtils.setField(service, "blobRefRepository", blobRefRepository);
+        ReflectionTestUtils.setField(service, "deleteGraceSeconds", 3600L);
+    }
+
+    @Test
+    void identicalUploadsShareOneShardedBlob() throws Exception {
+        String first = store("same avatar");
+        String second = store("same avatar");
+        String other = store("another avatar");
+
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+        String hash = BlobStore.contentHash(first);
+        assertEquals(hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + ".png", first);
+        assertEquals("same avatar", Files.readString(root.resolve(first)));
+        verify(blobRefRepository, times(2)).acquire(eq(first), eq(11L));
+        try (var files = Files.walk(root)) {
+            assertEquals(2, files.filter(Files::isRegularFile).count());
+        }
+    }
+
+    @Test
+    void waitsForAConcurrentSweepOfTheSameContent() throws Exception {
+        doThrow(new DuplicateKeyException("being deleted")).doNothing().when(blobRefRepository).acquire(anyString(), anyLong());
+
+        String key = store("avatar");
+
+        verify(blobRefRepository, times(2)).acquire(eq(key), anyLong());
+        assertTrue(Files.exists(root.resolve(key)));
+    }
+
+    @Test
+    void releaseKeepsSharedBlobUntilTheSweep() throws Exception {
+        String key = store("avatar");
+        blobStore.writeDerived(key, "64.jpg", new byte[]{1, 2, 3});
+        when(blobRefRepository.release(key)).thenReturn(0L);
+
+        service.release(key);
+        assertTrue(Files.exists(root.resolve(key)));
+
+        BlobRef ref = new BlobRef();
+        ref.setId(key);
+        when(blobRefRepository.findByRefCountAndUpdatedAtBefore(eq(0L), any(), any())).thenReturn(List.of(ref));
+        when(blobRefRepository.markDeleting(eq(key), any())).thenReturn(true);
+        service.sweep();
+
+        assertFalse(Files.exists(root.resolve(key)));
+        assertFalse(Files.exists(root.resolve(BlobStore.derivedKey(key, "64.jpg"))));
+        verify(blobRefRepository).removeDeleting(key);
+    }
+
+    @Test
+    void releaseDeletesFilesFromBeforeContentAddressingRightAway() throws Exception {
+        Files.writeString(root.resolve("0b5c6f1e-1700000000000.png"), "legacy");
+        when(blobRefRepository.release(anyString())).thenReturn(-1L);
+
+        service.release("0b5c6f1e-1700000000000.png");
+
+        assertFalse(Files.exists(root.resolve("0b5c6f1e-1700000000000.png")));
+    }
+
+    private String store(String content) throws Exception {
+        return service.store(new ByteArrayInputStream(content.getBytes()), ".png", 1_000, 0, header -> true);
+    }
+}
@@ -0,0 +1,43 @@
+package com.project.planpulse.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvRecordReaderTest {
+
+    @Test
+    void readsQuotedCommasNewlinesAndDoubledQuotes() throws Exception {
+        CsvRecordReader csv = new CsvRecordReader(new StringReader(
+                "title,description\r\n\"Ship it, finally\",\"line one\nline two\"\n\"say \"\"hi\"\"\",\n"), 1000);
+
+        assertEquals(List.of("title", "description"), csv.next());
+        assertEquals(List.of("Ship it, finally", "line one\nline two"), csv.next());
+        assertEquals(2, csv.getRecordNumber());
+        assertEquals(List.of("say \"hi\"", ""), csv.next());
+        assertNull(csv.next());
+    }
+
+    @Test
+    void tooLongRecordIsSkippedAndReadingContinues() throws Exception {
+        CsvRecordReader csv = new CsvRecordReader(new StringReader("a,b\n\"" + "x".repeat(50) + "\n,\"\nc,d\n"), 20);
+
+        assertEquals(List.of("a", "b"), csv.next());
+        assertThrows(CsvRecordReader.RecordTooLongException.class, csv::next);
+        assertEquals(2, csv.getRecordNumber());
+        assertEquals(List.of("c", "d"), csv.next());
+    }
+
+    @Test
+    void unterminatedQuoteIsReportedWithItsRecord() throws Exception {
+        CsvRecordReader csv = new CsvRecordReader(new StringReader("a,b\nc,\"never closed\nd,e\n"), 1000);
+
+        assertEquals(List.of("a", "b"), csv.next());
+        CsvRecordReader.UnterminatedQuoteException e = assertThrows(CsvRecordReader.UnterminatedQuoteException.class, csv::next);
+        assertEquals("Unterminated quoted field in record 2", e.getMessage());
+        assertEquals(2, csv.getRecordNumber());
+    }
+}
@@ -0,0 +1,31 @@
+package com.project.planpulse.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenCacheTest {
+
+    @Test
+    void fullCacheIsSweptInBatches() {
+        JwtTokenCache cache = new JwtTokenCache(100, 900);
+        for (int i = 0; i < 100; i++) {
+            assertEquals("user-" + i, cache.resolveSubject(JwtUtil.generateToken("user-" + i)));
+        }
+        assertEquals(100, cache.stats().size());
+
+        // the first miss past the cap evicts down to 90 entries, the following ones are added without a sweep
+        cache.resolveSubject(JwtUtil.generateToken("user-100"));
+        assertEquals(91, cache.stats().size());
+        for (int i = 101; i < 110; i++) {
+            cache.resolveSubject(JwtUtil.generateToken("user-" + i));
+        }
+        assertEquals(100, cache.stats().size());
+
+        String token = JwtUtil.generateToken("user-110");
+        assertEquals("user-110", cache.resolveSubject(token));
+        assertEquals("user-110", cache.resolveSubject(token));
+        assertEquals(1, cache.stats().hits());
+        assertEquals(91, cache.stats().size());
+    }
+}
@@ -0,0 +1,88 @@
+package com.project.planpulse.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingFileWriterTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void spoolsFileAndHashesWhileCopying() throws Exception {
+        byte[] content = new byte[200_000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i * 31);
+        }
+
+        StreamingFileWriter.Result result = StreamingFileWriter.spool(new ByteArrayInputStream(content), dir, 1_000_000, 8, header -> true);
+
+        assertArrayEquals(content, Files.readAllBytes(result.file()));
+        assertEquals(content.length, result.size());
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content)), result.sha256());
+        assertOnlyFile(result.file());
+    }
+
+    @Test
+    void rejectsBadHeaderBeforeWritingAnything() throws Exception {
+        assertThrows(StreamingFileWriter.RejectedHeaderException.class, () ->
+                StreamingFileWriter.spool(new ByteArrayInputStream(new byte[100]), dir, 1_000, 8, header -> header[0] == (byte) 0x89));
+
+        assertOnlyFile(null);
+    }
+
+    @Test
+    void stopsCopyingOnceTheLimitIsPassed() throws Exception {
+        // endless input: the writer has to give up on its own
+        InputStream endless = new InputStream() {
+            @Override
+            public int read() {
+                return 1;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                return len;
+            }
+        };
+
+        assertThrows(StreamingFileWriter.TooLargeException.class, () ->
+                StreamingFileWriter.spool(endless, dir, 10_000_000, 8, header -> true));
+
+        assertOnlyFile(null);
+    }
+
+    @Test
+    void removesTheTempFileWhenTheInputFails() throws Exception {
+        // the client drops the connection part way through the upload
+        InputStream broken = new SequenceInputStream(new ByteArrayInputStream(new byte[100_000]), new InputStream() {
+            @Override
+            public int read() throws IOException {
+                throw new IOException("connection reset");
+            }
+        });
+
+        IOException e = assertThrows(IOException.class, () -> StreamingFileWriter.spool(broken, dir, 1_000_000, 8, header -> true));
+        assertEquals("connection reset", e.getMessage());
+
+        assertOnlyFile(null);
+    }
+
+    private void assertOnlyFile(Path expected) throws Exception {
+        try (var files = Files.list(dir)) {
+            assertEquals(expected == null ? List.of() : List.of(expected), files.toList());
+        }
+    }
+}